@@ -0,0 +1,256 @@
+package tw.com.ty.common.resilience;
+
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.BucketConfiguration;
+import io.github.bucket4j.Refill;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.Signature;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.aspectj.lang.reflect.SourceLocation;
+import org.aspectj.runtime.internal.AroundClosure;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.core.env.StandardEnvironment;
+import tw.com.ty.common.exception.ResilienceException;
+import tw.com.ty.common.resilience.annotation.RateLimited;
+import tw.com.ty.common.resilience.ratelimit.AdaptiveConcurrencyLimiter;
+import tw.com.ty.common.resilience.ratelimit.BucketRegistry;
+import tw.com.ty.common.resilience.ratelimit.LocalBucketFactory;
+import tw.com.ty.common.resilience.ratelimit.NamedRateLimiterRegistry;
+import tw.com.ty.common.resilience.ratelimit.RateLimitCostResolver;
+import tw.com.ty.common.resilience.ratelimit.RateLimitEngine;
+import tw.com.ty.common.resilience.ratelimit.RateLimitKeyResolver;
+import tw.com.ty.common.resilience.ratelimit.RateLimiter;
+import tw.com.ty.common.resilience.ratelimit.RateLimiterFactory;
+import tw.com.ty.common.resilience.shedding.PriorityLoadShedder;
+import tw.com.ty.common.security.jwt.JwtTokenProvider;
+
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link RateLimiterAspect} 單次 {@code @RateLimited} 呼叫（GLOBAL 限流鍵）的成本
+ *
+ * <p>與 {@code RateLimiterBenchmark} 只量測限流器本身不同，此處經過切面的完整放行 / 拒絕路徑：
+ * 消耗 token、回應標頭、拒絕時的等待時間與異常。切點以固定的 {@link ProceedingJoinPoint} 實作傳入，
+ * 不包含 Spring AOP 每次呼叫建立 join point 的成本，量測的是切面本身的配置量。</p>
+ * <ul>
+ *   <li>admitting：每次皆放行，GCRA 引擎應為 0 B/op</li>
+ *   <li>exhausted：除第一次外皆拒絕，成本包含 ConsumptionProbe 與 ResilienceException</li>
+ * </ul>
+ *
+ * <p>執行：mvn -Pbenchmark test-compile exec:exec -Djmh.args="RateLimiterAspectBenchmark -prof gc"。</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RateLimiterAspectBenchmark {
+
+    private static final Object RESULT = new Object();
+
+    @Param({"bucket4j", "gcra"})
+    public String engine;
+
+    @Param({"admitting", "exhausted"})
+    public String load;
+
+    private ScheduledExecutorService scheduler;
+    private ExecutorService executor;
+    private RateLimiterAspect aspect;
+    private RateLimited rateLimited;
+    private ProceedingJoinPoint joinPoint;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        // 拒絕路徑的 warn 日誌寫入主控台會蓋過切面本身的成本
+        ((ch.qos.logback.classic.Logger) LoggerFactory.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME))
+                .setLevel(ch.qos.logback.classic.Level.ERROR);
+
+        Bandwidth bandwidth = "admitting".equals(load)
+                ? Bandwidth.classic(1_000_000_000L, Refill.greedy(1_000_000_000L, Duration.ofNanos(1_000_000_000L)))
+                : Bandwidth.classic(1, Refill.greedy(1, Duration.ofDays(1)));
+        BucketConfiguration configuration = BucketConfiguration.builder().addLimit(bandwidth).build();
+        scheduler = Executors.newSingleThreadScheduledExecutor();
+        executor = Executors.newVirtualThreadPerTaskExecutor();
+        LocalBucketFactory bucketFactory = new LocalBucketFactory();
+        RateLimiterFactory rateLimiterFactory = new RateLimiterFactory(bucketFactory, 0, 0, executor, scheduler,
+                RateLimitEngine.valueOf(engine.toUpperCase()), null);
+        RateLimiter apiLimiter = rateLimiterFactory.wrap("API", bucketFactory.create("API", configuration), configuration);
+        StaticListableBeanFactory beanFactory = new StaticListableBeanFactory();
+
+        aspect = new RateLimiterAspect(apiLimiter, apiLimiter, configuration, configuration,
+                new BucketRegistry<>(1000, TimeUnit.MINUTES.toNanos(5), 1),
+                new NamedRateLimiterRegistry(new StandardEnvironment(), rateLimiterFactory),
+                rateLimiterFactory,
+                new RateLimitKeyResolver(beanFactory.getBeanProvider(JwtTokenProvider.class), new String[0]),
+                new RateLimitCostResolver(),
+                new AdaptiveConcurrencyLimiter.Settings(20, 1, 200, TimeUnit.SECONDS.toNanos(1), 10, 0.2, 2.0),
+                beanFactory.getBeanProvider(PriorityLoadShedder.class),
+                0);
+        Method method = RateLimiterAspectBenchmark.class.getDeclaredMethod("limited");
+        rateLimited = method.getAnnotation(RateLimited.class);
+        joinPoint = new FixedJoinPoint(method);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        scheduler.shutdown();
+        executor.shutdown();
+    }
+
+    @Benchmark
+    public Object aspectRateLimited() throws Throwable {
+        try {
+            return aspect.rateLimitAnnotatedMethods(joinPoint, rateLimited);
+        } catch (ResilienceException e) {
+            return e;
+        }
+    }
+
+    @RateLimited
+    Object limited() {
+        return RESULT;
+    }
+
+    /**
+     * 固定回傳結果的切點，方法簽章資訊皆預先計算，本身不配置物件
+     */
+    private static final class FixedJoinPoint implements ProceedingJoinPoint, MethodSignature {
+
+        private static final Object[] NO_ARGS = new Object[0];
+
+        private final Method method;
+        private final String name;
+        private final String declaringTypeName;
+
+        FixedJoinPoint(Method method) {
+            this.method = method;
+            this.name = method.getName();
+            this.declaringTypeName = method.getDeclaringClass().getName();
+        }
+
+        @Override
+        public void set$AroundClosure(AroundClosure arc) {
+        }
+
+        @Override
+        public Object proceed() {
+            return RESULT;
+        }
+
+        @Override
+        public Object proceed(Object[] args) {
+            return RESULT;
+        }
+
+        @Override
+        public String toShortString() {
+            return name;
+        }
+
+        @Override
+        public String toLongString() {
+            return declaringTypeName + '.' + name;
+        }
+
+        @Override
+        public Object getThis() {
+            return null;
+        }
+
+        @Override
+        public Object getTarget() {
+            return null;
+        }
+
+        @Override
+        public Object[] getArgs() {
+            return NO_ARGS;
+        }
+
+        @Override
+        public Signature getSignature() {
+            return this;
+        }
+
+        @Override
+        public SourceLocation getSourceLocation() {
+            return null;
+        }
+
+        @Override
+        public String getKind() {
+            return METHOD_EXECUTION;
+        }
+
+        @Override
+        public StaticPart getStaticPart() {
+            return null;
+        }
+
+        @Override
+        public Class<?> getReturnType() {
+            return method.getReturnType();
+        }
+
+        @Override
+        public Method getMethod() {
+            return method;
+        }
+
+        @Override
+        public Class<?>[] getParameterTypes() {
+            return new Class<?>[0];
+        }
+
+        @Override
+        public String[] getParameterNames() {
+            return new String[0];
+        }
+
+        @Override
+        public Class<?>[] getExceptionTypes() {
+            return new Class<?>[0];
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public int getModifiers() {
+            return method.getModifiers();
+        }
+
+        @Override
+        public Class<?> getDeclaringType() {
+            return method.getDeclaringClass();
+        }
+
+        @Override
+        public String getDeclaringTypeName() {
+            return declaringTypeName;
+        }
+    }
+}
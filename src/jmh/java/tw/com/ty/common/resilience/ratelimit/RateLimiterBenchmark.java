@@ -0,0 +1,89 @@
+package tw.com.ty.common.resilience.ratelimit;
+
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.Bucket;
+import io.github.bucket4j.BucketConfiguration;
+import io.github.bucket4j.ConsumptionProbe;
+import io.github.bucket4j.Refill;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * bucket4j 本地 Bucket 與 {@link GcraRateLimiter} 的單次消耗成本比較
+ *
+ * <p>Bucket 以 RateLimiterConfiguration 相同的方式建立（Bandwidth.classic + Refill.greedy，經 {@link LocalBucketFactory}）。</p>
+ * <ul>
+ *   <li>admitting：補充速率遠高於消耗速率，每次皆放行</li>
+ *   <li>exhausted：容量 1 且補充週期極長，除第一次外皆拒絕</li>
+ * </ul>
+ *
+ * <p>執行：mvn -Pbenchmark test-compile exec:exec；JMH 參數以 -Djmh.args 傳入，
+ * 例如競爭與配置量：-Djmh.args="RateLimiterBenchmark -t 8 -prof gc"。</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RateLimiterBenchmark {
+
+    @Param({"admitting", "exhausted"})
+    public String load;
+
+    private ScheduledExecutorService scheduler;
+    private Bucket bucket;
+    private GcraRateLimiter gcra;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Bandwidth bandwidth = "admitting".equals(load)
+                ? Bandwidth.classic(1_000_000_000L, Refill.greedy(1_000_000_000L, Duration.ofNanos(1_000_000_000L)))
+                : Bandwidth.classic(1, Refill.greedy(1, Duration.ofDays(1)));
+        BucketConfiguration configuration = BucketConfiguration.builder().addLimit(bandwidth).build();
+        scheduler = Executors.newSingleThreadScheduledExecutor();
+        bucket = new LocalBucketFactory().create("API", configuration);
+        gcra = new GcraRateLimiter(bandwidth, scheduler);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        scheduler.shutdown();
+    }
+
+    @Benchmark
+    public boolean bucket4jTryConsume() {
+        return bucket.tryConsume(1);
+    }
+
+    @Benchmark
+    public boolean gcraTryConsume() {
+        return gcra.tryConsume(1);
+    }
+
+    @Benchmark
+    public ConsumptionProbe bucket4jProbe() {
+        return bucket.tryConsumeAndReturnRemaining(1);
+    }
+
+    @Benchmark
+    public ConsumptionProbe gcraProbe() {
+        return gcra.tryConsumeAndReturnRemaining(1);
+    }
+}
@@ -2,13 +2,20 @@ package tw.com.ty.common.exception;
 
 import tw.com.ty.common.response.ErrorCode;
 
+import java.time.Duration;
+
 /**
  * 彈性相關異常類別
  *
- * 用於處理系統彈性相關的異常，如 Rate Limiting、熔斷器等
+ * 用於處理系統彈性相關的異常，如 Rate Limiting、Bulkhead、熔斷器等
  */
 public class ResilienceException extends BusinessException {
 
+    /**
+     * 建議的重試等待時間，未知時為 null
+     */
+    private final Duration retryAfter;
+
     /**
      * 創建 Rate Limit 超過異常
      */
@@ -23,11 +30,118 @@ public class ResilienceException extends BusinessException {
         return new ResilienceException(ErrorCode.RATE_LIMIT_EXCEEDED, message);
     }
 
+    /**
+     * 創建 Rate Limit 超過異常（帶建議重試時間）
+     *
+     * @param retryAfter 預估 token 可用前需等待的時間
+     */
+    public static ResilienceException rateLimitExceeded(Duration retryAfter) {
+        return new ResilienceException(ErrorCode.RATE_LIMIT_EXCEEDED,
+                "請求過於頻繁，請於 " + retryAfterSeconds(retryAfter) + " 秒後重試", null, retryAfter);
+    }
+
+    /**
+     * 創建階層式配額超過異常（帶拒絕層級與建議重試時間）
+     *
+     * @param level 拒絕的配額層級（如 tenant、user）
+     * @param retryAfter 預估該層級 token 可用前需等待的時間
+     */
+    public static ResilienceException rateLimitExceeded(String level, Duration retryAfter) {
+        return new ResilienceException(ErrorCode.RATE_LIMIT_EXCEEDED,
+                "請求過於頻繁（" + level + " 配額已用盡），請於 " + retryAfterSeconds(retryAfter) + " 秒後重試",
+                null, retryAfter);
+    }
+
+    /**
+     * 創建單次請求超過配額上限異常
+     * 消耗量大於 Bucket 容量的請求永遠無法放行，不帶建議重試時間
+     *
+     * @param tokens 本次請求消耗的 token 數量
+     * @param limit Rate Limiter 容量
+     */
+    public static ResilienceException rateLimitCostExceeded(long tokens, long limit) {
+        return new ResilienceException(ErrorCode.RATE_LIMIT_COST_EXCEEDED,
+                "單次請求消耗 " + tokens + " 個配額，超過上限 " + limit + "，請分批處理");
+    }
+
+    /**
+     * 創建客戶端限流等待逾時異常
+     * 外部服務的呼叫配額在等待上限內未能補充
+     *
+     * @param target 外部服務的限流器名稱
+     */
+    public static ResilienceException outboundRateLimitExceeded(String target) {
+        return new ResilienceException(ErrorCode.RATE_LIMIT_EXCEEDED,
+                "外部服務 " + target + " 呼叫配額已用盡，請稍後再試");
+    }
+
+    /**
+     * 創建負載卸載異常
+     * 系統飽和時拒絕較低優先級的請求，建議客戶端 1 秒後重試
+     *
+     * @param priority 被卸載的請求優先級
+     */
+    public static ResilienceException loadShed(String priority) {
+        return new ResilienceException(ErrorCode.RATE_LIMIT_EXCEEDED,
+                "系統忙碌，暫停處理 " + priority + " 優先級請求，請稍後再試", null, Duration.ofSeconds(1));
+    }
+
+    /**
+     * 創建 Bulkhead 已滿異常
+     */
+    public static ResilienceException bulkheadFull() {
+        return new ResilienceException(ErrorCode.BULKHEAD_FULL);
+    }
+
+    /**
+     * 創建 Bulkhead 已滿異常（帶自訂訊息）
+     */
+    public static ResilienceException bulkheadFull(String message) {
+        return new ResilienceException(ErrorCode.BULKHEAD_FULL, message);
+    }
+
+    /**
+     * 創建熔斷器已開啟異常
+     * 依賴的失敗率過高而暫停呼叫，建議客戶端於熔斷器進入半開後重試
+     *
+     * @param name 熔斷器名稱
+     * @param retryAfter 熔斷器進入半開前的剩餘時間
+     */
+    public static ResilienceException circuitBreakerOpen(String name, Duration retryAfter) {
+        return new ResilienceException(ErrorCode.CIRCUIT_BREAKER_OPEN,
+                "依賴服務 " + name + " 暫時無法使用（circuit breaker open），請於 " + retryAfterSeconds(retryAfter) + " 秒後重試",
+                null, retryAfter);
+    }
+
+    /**
+     * 創建呼叫逾時異常
+     * 依賴在限制時間內未回應，呼叫已被中斷或取消
+     *
+     * @param name 逾時限制的名稱
+     * @param timeout 限制時間
+     */
+    public static ResilienceException timeout(String name, Duration timeout) {
+        return new ResilienceException(ErrorCode.EXTERNAL_SERVICE_TIMEOUT,
+                "呼叫 " + name + " 超過 " + timeout.toMillis() + "ms 未完成（timeout）");
+    }
+
+    /**
+     * 創建請求期限已過異常
+     * 呼叫端已放棄等待，不再執行後續的呼叫或重試
+     *
+     * @param operation 被略過的操作
+     */
+    public static ResilienceException deadlineExceeded(String operation) {
+        return new ResilienceException(ErrorCode.EXTERNAL_SERVICE_TIMEOUT,
+                "請求期限已過，略過 " + operation + "（deadline exceeded）");
+    }
+
     /**
      * 創建通用彈性異常
      */
     public ResilienceException(ErrorCode errorCode) {
         super(errorCode);
+        this.retryAfter = null;
     }
 
     /**
@@ -35,12 +149,41 @@ public class ResilienceException extends BusinessException {
      */
     public ResilienceException(ErrorCode errorCode, String message) {
         super(errorCode, message);
+        this.retryAfter = null;
     }
 
     /**
      * 創建通用彈性異常（帶自訂訊息和原因）
      */
     public ResilienceException(ErrorCode errorCode, String message, Throwable cause) {
+        this(errorCode, message, cause, null);
+    }
+
+    /**
+     * 創建通用彈性異常（帶自訂訊息、原因和建議重試時間）
+     */
+    public ResilienceException(ErrorCode errorCode, String message, Throwable cause, Duration retryAfter) {
         super(errorCode, message, cause);
+        this.retryAfter = retryAfter;
+    }
+
+    /**
+     * 獲取建議的重試等待時間
+     *
+     * @return 重試等待時間，未知時為 null
+     */
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+
+    /**
+     * 將重試等待時間轉為 Retry-After 標頭使用的秒數（無條件進位，至少 1 秒，不溢位）
+     */
+    public static long retryAfterSeconds(Duration retryAfter) {
+        long seconds = retryAfter.getSeconds();
+        if (retryAfter.getNano() > 0 && seconds < Long.MAX_VALUE) {
+            seconds++;
+        }
+        return Math.max(1, seconds);
     }
 }
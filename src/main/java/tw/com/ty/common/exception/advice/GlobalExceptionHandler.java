@@ -2,11 +2,13 @@ package tw.com.ty.common.exception.advice;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import tw.com.ty.common.exception.BusinessException;
+import tw.com.ty.common.exception.ResilienceException;
 import tw.com.ty.common.response.ErrorResponse;
 import tw.com.ty.common.exception.UnifiedErrorConverter;
 import tw.com.ty.common.exception.handler.ApiExceptionHandler;
@@ -45,7 +47,14 @@ public class GlobalExceptionHandler {
         apiResponse.setError(String.valueOf(errorResponse.getCode()));
         apiResponse.setStackTrace(ex.getMessage());
 
-        return new ResponseEntity<>(apiResponse, ex.getErrorCode().getHttpStatus());
+        // 彈性異常帶有建議重試時間時，告知客戶端何時再試
+        HttpHeaders headers = new HttpHeaders();
+        if (ex instanceof ResilienceException resilienceException && resilienceException.getRetryAfter() != null) {
+            headers.set(HttpHeaders.RETRY_AFTER,
+                    String.valueOf(ResilienceException.retryAfterSeconds(resilienceException.getRetryAfter())));
+        }
+
+        return new ResponseEntity<>(apiResponse, headers, ex.getErrorCode().getHttpStatus());
     }
 
 
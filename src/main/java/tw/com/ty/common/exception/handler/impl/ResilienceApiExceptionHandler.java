@@ -38,7 +38,9 @@ public class ResilienceApiExceptionHandler implements ApiExceptionHandler {
             return ErrorCode.RATE_LIMIT_EXCEEDED;
         } else if (message.contains("timeout")) {
             return ErrorCode.EXTERNAL_SERVICE_TIMEOUT;
-        } else if (message.contains("circuit breaker") || message.contains("bulkhead")) {
+        } else if (message.contains("circuit breaker")) {
+            return ErrorCode.CIRCUIT_BREAKER_OPEN;
+        } else if (message.contains("bulkhead")) {
             return ErrorCode.BULKHEAD_FULL;
         } else {
             return ErrorCode.EXTERNAL_SERVICE_ERROR;
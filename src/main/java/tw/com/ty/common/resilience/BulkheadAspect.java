@@ -0,0 +1,136 @@
+package tw.com.ty.common.resilience;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import tw.com.ty.common.exception.ResilienceException;
+import tw.com.ty.common.resilience.annotation.Bulkhead;
+import tw.com.ty.common.resilience.annotation.BulkheadType;
+import tw.com.ty.common.resilience.bulkhead.BulkheadRegistry;
+import tw.com.ty.common.resilience.bulkhead.IsolatedBulkhead;
+import tw.com.ty.common.resilience.bulkhead.SemaphoreBulkhead;
+import tw.com.ty.common.resilience.support.ReactiveSupport;
+
+import java.lang.reflect.UndeclaredThrowableException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Bulkhead AOP切面
+ *
+ * 處理 @Bulkhead 註解的方法，限制同時執行數量
+ * 超過上限且等待逾時時拋出 BULKHEAD_FULL
+ * 回傳 Mono / Flux 的方法一律以信號量模式於訂閱時取得名額、終止時釋放，不等待
+ * 回傳 CompletionStage 的方法在信號量模式下於非同步結果完成時才釋放名額
+ * 順序為最內層，在 TimeLimiterAspect 與 RateLimiterAspect 之內：等待 token 時不佔用名額，等待名額的時間計入逾時
+ */
+@Aspect
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE)
+public class BulkheadAspect {
+
+    private static final Logger logger = LoggerFactory.getLogger(BulkheadAspect.class);
+
+    private final BulkheadRegistry bulkheadRegistry;
+
+    public BulkheadAspect(BulkheadRegistry bulkheadRegistry) {
+        this.bulkheadRegistry = bulkheadRegistry;
+    }
+
+    @Around("@annotation(bulkhead)")
+    public Object bulkheadAnnotatedMethods(ProceedingJoinPoint joinPoint, Bulkhead bulkhead) throws Throwable {
+        String name = bulkhead.value().isEmpty()
+                ? joinPoint.getSignature().getDeclaringType().getSimpleName() + '.' + joinPoint.getSignature().getName()
+                : bulkhead.value();
+
+        Class<?> returnType = ReactiveSupport.returnType(joinPoint);
+        if (ReactiveSupport.isReactive(returnType)) {
+            return applyReactiveBulkhead(joinPoint, bulkheadRegistry.semaphore(name, bulkhead), returnType);
+        }
+        if (bulkhead.type() == BulkheadType.ISOLATED) {
+            return applyIsolatedBulkhead(joinPoint, bulkheadRegistry.isolated(name, bulkhead));
+        }
+        return applySemaphoreBulkhead(joinPoint, bulkheadRegistry.semaphore(name, bulkhead));
+    }
+
+    /**
+     * 信號量模式：在呼叫端執行緒上執行
+     */
+    private Object applySemaphoreBulkhead(ProceedingJoinPoint joinPoint, SemaphoreBulkhead bulkhead) throws Throwable {
+        if (!bulkhead.tryAcquire()) {
+            throw bulkheadFull(bulkhead.getName());
+        }
+        boolean releaseOnCompletion = false;
+        try {
+            Object result = joinPoint.proceed();
+            if (result instanceof CompletionStage<?> stage) {
+                releaseOnCompletion = true;
+                stage.whenComplete((value, error) -> bulkhead.release());
+            }
+            return result;
+        } finally {
+            if (!releaseOnCompletion) {
+                bulkhead.release();
+            }
+        }
+    }
+
+    /**
+     * 隔離模式：在 Bulkhead 專屬執行緒池上執行，呼叫端等待結果
+     */
+    private Object applyIsolatedBulkhead(ProceedingJoinPoint joinPoint, IsolatedBulkhead bulkhead) throws Throwable {
+        Future<Object> future;
+        try {
+            future = bulkhead.submit(() -> {
+                try {
+                    return joinPoint.proceed();
+                } catch (Exception | Error e) {
+                    throw e;
+                } catch (Throwable e) {
+                    throw new UndeclaredThrowableException(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            throw bulkheadFull(bulkhead.getName());
+        }
+
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw e;
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            throw cause instanceof UndeclaredThrowableException undeclared ? undeclared.getUndeclaredThrowable() : cause;
+        }
+    }
+
+    /**
+     * 響應式方法：訂閱時不等待地取得名額，終止或取消時釋放
+     */
+    private Object applyReactiveBulkhead(ProceedingJoinPoint joinPoint, SemaphoreBulkhead bulkhead, Class<?> returnType) {
+        if (ReactiveSupport.isMono(returnType)) {
+            return Mono.defer(() -> bulkhead.tryAcquireNow()
+                    ? ReactiveSupport.proceedMono(joinPoint).doFinally(signal -> bulkhead.release())
+                    : Mono.error(bulkheadFull(bulkhead.getName())));
+        }
+        return Flux.defer(() -> bulkhead.tryAcquireNow()
+                ? ReactiveSupport.proceedFlux(joinPoint).doFinally(signal -> bulkhead.release())
+                : Flux.error(bulkheadFull(bulkhead.getName())));
+    }
+
+    private static ResilienceException bulkheadFull(String name) {
+        logger.warn("Bulkhead {} 已滿，請稍後再試", name);
+        return ResilienceException.bulkheadFull();
+    }
+}
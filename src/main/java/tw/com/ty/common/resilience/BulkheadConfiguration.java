@@ -0,0 +1,39 @@
+package tw.com.ty.common.resilience;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import tw.com.ty.common.resilience.bulkhead.BulkheadRegistry;
+import tw.com.ty.common.resilience.bulkhead.BulkheadSettings;
+
+import java.time.Duration;
+
+/**
+ * Bulkhead 配置類別
+ *
+ * 提供 @Bulkhead 的預設設定，個別 Bulkhead 可透過 bulkhead.instances.&lt;name&gt;.* 覆寫
+ */
+@Configuration
+public class BulkheadConfiguration {
+
+    @Value("${bulkhead.max-concurrent-calls:25}")
+    private int maxConcurrentCalls;
+
+    @Value("${bulkhead.max-wait-millis:0}")
+    private long maxWaitMillis;
+
+    @Value("${bulkhead.queue-capacity:0}")
+    private int queueCapacity;
+
+    /**
+     * 創建 Bulkhead 註冊表
+     *
+     * @return BulkheadRegistry 實例
+     */
+    @Bean(name = "bulkheadRegistry", destroyMethod = "shutdown")
+    public BulkheadRegistry bulkheadRegistry(Environment environment) {
+        return new BulkheadRegistry(environment, new BulkheadSettings(
+                maxConcurrentCalls, Duration.ofMillis(maxWaitMillis).toNanos(), queueCapacity));
+    }
+}
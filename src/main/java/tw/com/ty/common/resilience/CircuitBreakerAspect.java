@@ -0,0 +1,123 @@
+package tw.com.ty.common.resilience;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import tw.com.ty.common.exception.ResilienceException;
+import tw.com.ty.common.resilience.annotation.CircuitBreaker;
+import tw.com.ty.common.resilience.circuitbreaker.CircuitBreakerRegistry;
+import tw.com.ty.common.resilience.circuitbreaker.SlidingWindowCircuitBreaker;
+import tw.com.ty.common.resilience.support.ReactiveSupport;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 熔斷器 AOP切面
+ *
+ * 處理 @CircuitBreaker 註解的方法，熔斷時不呼叫方法並拋出 CIRCUIT_BREAKER_OPEN（附 Retry-After）
+ * 順序在 RetryAspect 之內、RateLimiterAspect 之外：每次重試各自計入統計，熔斷時不消耗限流 token
+ * 回傳 Mono / Flux 的方法於訂閱時取得許可、終止時記錄結果，取消時不計入
+ * 回傳 CompletionStage 的方法於非同步結果完成時記錄結果
+ */
+@Aspect
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE - 50)
+public class CircuitBreakerAspect {
+
+    private static final Logger logger = LoggerFactory.getLogger(CircuitBreakerAspect.class);
+
+    private final CircuitBreakerRegistry circuitBreakerRegistry;
+    private final ConcurrentMap<Method, SlidingWindowCircuitBreaker> circuitBreakers = new ConcurrentHashMap<>();
+
+    public CircuitBreakerAspect(CircuitBreakerRegistry circuitBreakerRegistry) {
+        this.circuitBreakerRegistry = circuitBreakerRegistry;
+    }
+
+    @Around("@annotation(circuitBreaker)")
+    public Object circuitBreakerAnnotatedMethods(ProceedingJoinPoint joinPoint, CircuitBreaker circuitBreaker)
+            throws Throwable {
+        SlidingWindowCircuitBreaker breaker = circuitBreakerOf(joinPoint, circuitBreaker);
+        Class<?> returnType = ReactiveSupport.returnType(joinPoint);
+        if (ReactiveSupport.isMono(returnType)) {
+            return Mono.defer(() -> {
+                SlidingWindowCircuitBreaker.Permit permit = breaker.tryAcquirePermission();
+                if (permit == null) {
+                    return Mono.error(circuitBreakerOpen(breaker));
+                }
+                long start = System.nanoTime();
+                return ReactiveSupport.proceedMono(joinPoint)
+                        .doOnSuccess(value -> breaker.onSuccess(permit, System.nanoTime() - start))
+                        .doOnError(error -> breaker.onError(permit, System.nanoTime() - start, error))
+                        .doOnCancel(() -> breaker.release(permit));
+            });
+        }
+        if (ReactiveSupport.isFlux(returnType)) {
+            return Flux.defer(() -> {
+                SlidingWindowCircuitBreaker.Permit permit = breaker.tryAcquirePermission();
+                if (permit == null) {
+                    return Flux.error(circuitBreakerOpen(breaker));
+                }
+                long start = System.nanoTime();
+                return ReactiveSupport.proceedFlux(joinPoint)
+                        .doOnComplete(() -> breaker.onSuccess(permit, System.nanoTime() - start))
+                        .doOnError(error -> breaker.onError(permit, System.nanoTime() - start, error))
+                        .doOnCancel(() -> breaker.release(permit));
+            });
+        }
+
+        SlidingWindowCircuitBreaker.Permit permit = breaker.tryAcquirePermission();
+        if (permit == null) {
+            throw circuitBreakerOpen(breaker);
+        }
+        long start = System.nanoTime();
+        Object result;
+        try {
+            result = joinPoint.proceed();
+        } catch (Throwable e) {
+            breaker.onError(permit, System.nanoTime() - start, e);
+            throw e;
+        }
+        if (result instanceof CompletionStage<?> stage) {
+            stage.whenComplete((value, error) -> {
+                if (error == null) {
+                    breaker.onSuccess(permit, System.nanoTime() - start);
+                } else {
+                    breaker.onError(permit, System.nanoTime() - start, ReactiveSupport.unwrapAsyncFailure(error));
+                }
+            });
+        } else {
+            breaker.onSuccess(permit, System.nanoTime() - start);
+        }
+        return result;
+    }
+
+    private SlidingWindowCircuitBreaker circuitBreakerOf(ProceedingJoinPoint joinPoint, CircuitBreaker circuitBreaker) {
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        SlidingWindowCircuitBreaker breaker = circuitBreakers.get(method);
+        if (breaker != null) {
+            return breaker;
+        }
+        return circuitBreakers.computeIfAbsent(method, m -> {
+            String name = circuitBreaker.value().isEmpty()
+                    ? joinPoint.getSignature().getDeclaringType().getSimpleName() + '.' + joinPoint.getSignature().getName()
+                    : circuitBreaker.value();
+            return circuitBreakerRegistry.circuitBreaker(name, circuitBreaker);
+        });
+    }
+
+    private static ResilienceException circuitBreakerOpen(SlidingWindowCircuitBreaker breaker) {
+        logger.debug("Circuit breaker {} is open, call not permitted", breaker.getName());
+        return ResilienceException.circuitBreakerOpen(breaker.getName(), breaker.getRemainingOpenDuration());
+    }
+}
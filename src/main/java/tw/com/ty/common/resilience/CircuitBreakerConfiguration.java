@@ -0,0 +1,53 @@
+package tw.com.ty.common.resilience;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import tw.com.ty.common.resilience.circuitbreaker.CircuitBreakerRegistry;
+import tw.com.ty.common.resilience.circuitbreaker.CircuitBreakerSettings;
+
+import java.time.Duration;
+
+/**
+ * 熔斷器配置類別
+ *
+ * 提供 @CircuitBreaker 的預設設定，個別熔斷器可透過 circuit-breaker.instances.&lt;name&gt;.* 覆寫
+ */
+@Configuration
+public class CircuitBreakerConfiguration {
+
+    @Value("${circuit-breaker.failure-rate-threshold:50}")
+    private float failureRateThreshold;
+
+    @Value("${circuit-breaker.slow-call-rate-threshold:100}")
+    private float slowCallRateThreshold;
+
+    @Value("${circuit-breaker.slow-call-duration-millis:60000}")
+    private long slowCallDurationMillis;
+
+    @Value("${circuit-breaker.sliding-window-size:100}")
+    private int slidingWindowSize;
+
+    @Value("${circuit-breaker.minimum-number-of-calls:20}")
+    private int minimumNumberOfCalls;
+
+    @Value("${circuit-breaker.wait-duration-in-open-state-millis:30000}")
+    private long waitDurationInOpenStateMillis;
+
+    @Value("${circuit-breaker.permitted-calls-in-half-open-state:10}")
+    private int permittedCallsInHalfOpenState;
+
+    /**
+     * 創建熔斷器註冊表
+     *
+     * @return CircuitBreakerRegistry 實例
+     */
+    @Bean(name = "circuitBreakerRegistry")
+    public CircuitBreakerRegistry circuitBreakerRegistry(Environment environment) {
+        return new CircuitBreakerRegistry(environment, new CircuitBreakerSettings(
+                failureRateThreshold, slowCallRateThreshold, Duration.ofMillis(slowCallDurationMillis).toNanos(),
+                slidingWindowSize, minimumNumberOfCalls, Duration.ofMillis(waitDurationInOpenStateMillis).toNanos(),
+                permittedCallsInHalfOpenState));
+    }
+}
@@ -0,0 +1,112 @@
+package tw.com.ty.common.resilience;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.client.RestTemplateCustomizer;
+import org.springframework.boot.web.reactive.function.client.WebClientCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import tw.com.ty.common.resilience.deadline.client.DeadlineClientHttpRequestInterceptor;
+import tw.com.ty.common.resilience.deadline.client.DeadlineExchangeFilterFunction;
+import tw.com.ty.common.resilience.deadline.client.DeadlinePropagationHosts;
+import tw.com.ty.common.resilience.deadline.web.DeadlineServletFilter;
+import tw.com.ty.common.resilience.deadline.web.DeadlineWebFilter;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 請求期限傳遞的配置類別
+ *
+ * 入站：Filter 依 X-Request-Timeout-Ms 標頭建立請求期限（沒有標頭時依 deadline.default-timeout-millis），
+ * 標頭的值不超過 deadline.max-timeout-millis（未設定時為 default-timeout-millis，兩者皆未設定時為 60 秒）
+ * 出站：經由 RestTemplateBuilder / WebClient.Builder 建立的客戶端，呼叫 deadline.propagate-hosts 列出的主機時帶上剩餘時間；
+ * 標頭的值源自呼叫端，未設定時不傳遞給任何主機（期限已過時不送出請求仍適用於所有主機）
+ * RetryAspect、RateLimiterAspect 的等待與 TimeLimiterAspect 的逾時皆不超過請求期限
+ * 預設啟用（deadline.enabled=false 時關閉），請求沒有期限時行為不變
+ */
+@Configuration
+@ConditionalOnProperty(name = "deadline.enabled", havingValue = "true", matchIfMissing = true)
+public class DeadlineConfiguration {
+
+    /**
+     * Filter 順序，排在 Filter 層級 Rate Limiter 之前
+     */
+    private static final String ORDER = "${deadline.filter-order:" + (Ordered.HIGHEST_PRECEDENCE + 5) + "}";
+
+    private static final String DEFAULT_TIMEOUT = "${deadline.default-timeout-millis:0}";
+
+    private static final String MAX_TIMEOUT = "${deadline.max-timeout-millis:0}";
+
+    private static final String PROPAGATE_HOSTS = "${deadline.propagate-hosts:}";
+
+    /**
+     * default-timeout-millis 與 max-timeout-millis 皆未設定時，標頭採信的最大剩餘時間
+     */
+    private static final long FALLBACK_MAX_TIMEOUT_MILLIS = 60_000;
+
+    /**
+     * 標頭採信的最大剩餘時間（奈秒）
+     */
+    static long maxTimeoutNanos(long defaultTimeoutMillis, long maxTimeoutMillis) {
+        long millis = maxTimeoutMillis > 0 ? maxTimeoutMillis
+                : defaultTimeoutMillis > 0 ? defaultTimeoutMillis : FALLBACK_MAX_TIMEOUT_MILLIS;
+        return TimeUnit.MILLISECONDS.toNanos(millis);
+    }
+
+    /**
+     * RestTemplate 出站攔截器，自行建立的 RestTemplate 可直接加入
+     */
+    @Bean("deadlineClientHttpRequestInterceptor")
+    public DeadlineClientHttpRequestInterceptor deadlineClientHttpRequestInterceptor(
+            @Value(PROPAGATE_HOSTS) String[] propagateHosts) {
+        return new DeadlineClientHttpRequestInterceptor(DeadlinePropagationHosts.of(propagateHosts));
+    }
+
+    @Bean("deadlineRestTemplateCustomizer")
+    public RestTemplateCustomizer deadlineRestTemplateCustomizer(DeadlineClientHttpRequestInterceptor interceptor) {
+        return restTemplate -> restTemplate.getInterceptors().add(interceptor);
+    }
+
+    /**
+     * Backend（Servlet）使用的 Filter
+     */
+    @Configuration
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+    static class ServletFilterConfiguration {
+
+        @Bean("deadlineServletFilter")
+        public DeadlineServletFilter deadlineServletFilter(@Value(DEFAULT_TIMEOUT) long defaultTimeoutMillis,
+                                                           @Value(MAX_TIMEOUT) long maxTimeoutMillis,
+                                                           @Value(ORDER) int order) {
+            return new DeadlineServletFilter(TimeUnit.MILLISECONDS.toNanos(defaultTimeoutMillis),
+                    maxTimeoutNanos(defaultTimeoutMillis, maxTimeoutMillis), order);
+        }
+    }
+
+    /**
+     * Gateway（WebFlux）使用的 WebFilter 與 WebClient 出站傳遞
+     */
+    @Configuration
+    @ConditionalOnClass(name = "org.springframework.web.reactive.function.client.WebClient")
+    static class ReactiveConfiguration {
+
+        @Bean("deadlineWebClientCustomizer")
+        public WebClientCustomizer deadlineWebClientCustomizer(@Value(PROPAGATE_HOSTS) String[] propagateHosts) {
+            DeadlineExchangeFilterFunction filter =
+                    new DeadlineExchangeFilterFunction(DeadlinePropagationHosts.of(propagateHosts));
+            return builder -> builder.filter(filter);
+        }
+
+        @Bean("deadlineWebFilter")
+        @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+        public DeadlineWebFilter deadlineWebFilter(@Value(DEFAULT_TIMEOUT) long defaultTimeoutMillis,
+                                                   @Value(MAX_TIMEOUT) long maxTimeoutMillis,
+                                                   @Value(ORDER) int order) {
+            return new DeadlineWebFilter(TimeUnit.MILLISECONDS.toNanos(defaultTimeoutMillis),
+                    maxTimeoutNanos(defaultTimeoutMillis, maxTimeoutMillis), order);
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package tw.com.ty.common.resilience;
+
+import io.github.bucket4j.distributed.ExpirationAfterWriteStrategy;
+import io.github.bucket4j.redis.lettuce.cas.LettuceBasedProxyManager;
+import io.lettuce.core.RedisClient;
+import io.lettuce.core.api.StatefulRedisConnection;
+import io.lettuce.core.codec.ByteArrayCodec;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import tw.com.ty.common.resilience.ratelimit.InMemoryProxyManager;
+import tw.com.ty.common.resilience.ratelimit.ProxyManagerBucketFactory;
+import tw.com.ty.common.resilience.ratelimit.RateLimitBucketFactory;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+/**
+ * 分散式 Rate Limiter 配置類別
+ *
+ * <p>設定 {@code rate-limiter.mode=distributed} 時啟用，Bucket 狀態保存在共享儲存，
+ * 水平擴展的多個節點共用同一份配額。後端由 {@code rate-limiter.distributed.backend} 選擇：</p>
+ * <ul>
+ *   <li>redis（預設）：透過 Lettuce 連線 Redis，需要 lettuce-core 依賴</li>
+ *   <li>in-memory：記憶體內模擬，用於測試</li>
+ * </ul>
+ */
+@Configuration
+@ConditionalOnProperty(name = "rate-limiter.mode", havingValue = "distributed")
+public class DistributedRateLimiterConfiguration {
+
+    private static final Logger logger = LoggerFactory.getLogger(DistributedRateLimiterConfiguration.class);
+
+    /**
+     * Redis 後端
+     */
+    @Configuration
+    @ConditionalOnProperty(name = "rate-limiter.distributed.backend", havingValue = "redis", matchIfMissing = true)
+    static class RedisBackendConfiguration {
+
+        @Value("${rate-limiter.distributed.redis.uri:redis://localhost:6379}")
+        private String redisUri;
+
+        @Value("${rate-limiter.distributed.key-prefix:ty:rate-limiter:}")
+        private String keyPrefix;
+
+        @Value("${rate-limiter.distributed.expiration-seconds:60}")
+        private long expirationSeconds;
+
+        @Bean(name = "rateLimiterRedisClient", destroyMethod = "shutdown")
+        public RedisClient rateLimiterRedisClient() {
+            return RedisClient.create(redisUri);
+        }
+
+        @Bean(name = "rateLimiterRedisConnection", destroyMethod = "close")
+        public StatefulRedisConnection<byte[], byte[]> rateLimiterRedisConnection(RedisClient rateLimiterRedisClient) {
+            return rateLimiterRedisClient.connect(ByteArrayCodec.INSTANCE);
+        }
+
+        @Bean("rateLimitBucketFactory")
+        public RateLimitBucketFactory rateLimitBucketFactory(StatefulRedisConnection<byte[], byte[]> rateLimiterRedisConnection) {
+            LettuceBasedProxyManager proxyManager = LettuceBasedProxyManager.builderFor(rateLimiterRedisConnection)
+                    .withExpirationStrategy(ExpirationAfterWriteStrategy.basedOnTimeForRefillingBucketUpToMax(
+                            Duration.ofSeconds(expirationSeconds)))
+                    .build();
+            logger.info("✅ Distributed rate limiter configured: backend=redis, keyPrefix={}", keyPrefix);
+            return new ProxyManagerBucketFactory<>(proxyManager,
+                    key -> key.getBytes(StandardCharsets.UTF_8), keyPrefix);
+        }
+    }
+
+    /**
+     * 記憶體內後端（測試用）
+     */
+    @Configuration
+    @ConditionalOnProperty(name = "rate-limiter.distributed.backend", havingValue = "in-memory")
+    static class InMemoryBackendConfiguration {
+
+        @Value("${rate-limiter.distributed.key-prefix:ty:rate-limiter:}")
+        private String keyPrefix;
+
+        @Bean("rateLimitBucketFactory")
+        public RateLimitBucketFactory rateLimitBucketFactory() {
+            logger.info("✅ Distributed rate limiter configured: backend=in-memory, keyPrefix={}", keyPrefix);
+            return new ProxyManagerBucketFactory<>(new InMemoryProxyManager(), key -> key, keyPrefix);
+        }
+    }
+}
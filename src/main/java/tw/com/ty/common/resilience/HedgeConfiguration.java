@@ -0,0 +1,71 @@
+package tw.com.ty.common.resilience;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import tw.com.ty.common.resilience.hedge.HedgeRegistry;
+import tw.com.ty.common.resilience.hedge.HedgeSettings;
+import tw.com.ty.common.resilience.retry.RetryBudget;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * 對沖請求配置類別
+ *
+ * 提供 @Hedged 的預設設定、對沖預算與執行對沖呼叫的虛擬執行緒執行器
+ * 個別對沖策略可透過 hedge.instances.&lt;name&gt;.* 覆寫
+ */
+@Configuration
+public class HedgeConfiguration {
+
+    private static final Logger logger = LoggerFactory.getLogger(HedgeConfiguration.class);
+
+    @Value("${hedge.delay-millis:0}")
+    private long delayMillis;
+
+    @Value("${hedge.percentile:95}")
+    private double percentile;
+
+    @Value("${hedge.initial-delay-millis:100}")
+    private long initialDelayMillis;
+
+    @Value("${hedge.min-delay-millis:5}")
+    private long minDelayMillis;
+
+    /**
+     * 創建對沖策略註冊表
+     *
+     * @return HedgeRegistry 實例
+     */
+    @Bean(name = "hedgeRegistry")
+    public HedgeRegistry hedgeRegistry(Environment environment) {
+        return new HedgeRegistry(environment, new HedgeSettings(Duration.ofMillis(delayMillis).toNanos(), percentile,
+                Duration.ofMillis(initialDelayMillis).toNanos(), Duration.ofMillis(minDelayMillis).toNanos()));
+    }
+
+    /**
+     * 對沖預算：與重試預算相同的 token bucket，但與其分開計算
+     * 每次呼叫存入 ratio 次對沖額度，下游整體變慢時對沖量不超過呼叫量 × ratio + min-hedges-per-second
+     */
+    @Bean(name = "hedgeBudget")
+    public RetryBudget hedgeBudget(@Value("${hedge.budget.ratio:0.1}") double ratio,
+                                   @Value("${hedge.budget.max-tokens:20}") long maxTokens,
+                                   @Value("${hedge.budget.min-hedges-per-second:1}") long minHedgesPerSecond) {
+        logger.info("✅ Hedge budget configured: ratio={}, maxTokens={}, minHedgesPerSecond={}",
+                ratio, maxTokens, minHedgesPerSecond);
+        return new RetryBudget(ratio, maxTokens, minHedgesPerSecond);
+    }
+
+    /**
+     * 執行阻塞方法對沖呼叫的執行器（每個呼叫一條虛擬執行緒）
+     */
+    @Bean(name = "hedgeExecutor", destroyMethod = "shutdown")
+    public ExecutorService hedgeExecutor() {
+        return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("hedge-", 0).factory());
+    }
+}
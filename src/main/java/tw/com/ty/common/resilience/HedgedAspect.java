@@ -0,0 +1,313 @@
+package tw.com.ty.common.resilience;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import reactor.core.Disposable;
+import reactor.core.Disposables;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+import reactor.util.context.Context;
+import tw.com.ty.common.resilience.annotation.Hedged;
+import tw.com.ty.common.resilience.deadline.Deadline;
+import tw.com.ty.common.resilience.deadline.DeadlineContext;
+import tw.com.ty.common.resilience.hedge.HedgePolicy;
+import tw.com.ty.common.resilience.hedge.HedgeRegistry;
+import tw.com.ty.common.resilience.retry.RetryBudget;
+import tw.com.ty.common.resilience.support.ReactiveSupport;
+
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * 對沖請求 AOP切面
+ *
+ * 處理 @Hedged 註解的方法：第一次呼叫超過對沖延遲仍未完成、且對沖預算足夠時再發出一次呼叫，
+ * 採用最先成功的結果並取消另一個；兩次呼叫都失敗時拋出第一個失敗（另一個附加為 suppressed）
+ * 第一次呼叫在對沖前就失敗時直接拋出，不視為重試
+ * 阻塞方法的兩次呼叫皆在 hedgeExecutor 的虛擬執行緒上執行並帶入 RequestAttributes，呼叫端等待結果
+ * 回傳 Mono 的方法以 Mono.delay 計時，不阻塞；回傳 Flux / CompletionStage 的方法不對沖
+ * 順序在 RetryAspect 之內、CircuitBreakerAspect 之外：每次對沖呼叫各自計入熔斷統計
+ */
+@Aspect
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE - 75)
+public class HedgedAspect {
+
+    private static final Logger logger = LoggerFactory.getLogger(HedgedAspect.class);
+
+    private final HedgeRegistry hedgeRegistry;
+    private final RetryBudget hedgeBudget;
+    private final ExecutorService hedgeExecutor;
+    private final ConcurrentMap<Method, HedgePolicy> policies = new ConcurrentHashMap<>();
+
+    public HedgedAspect(HedgeRegistry hedgeRegistry,
+                        @Qualifier("hedgeBudget") RetryBudget hedgeBudget,
+                        @Qualifier("hedgeExecutor") ExecutorService hedgeExecutor) {
+        this.hedgeRegistry = hedgeRegistry;
+        this.hedgeBudget = hedgeBudget;
+        this.hedgeExecutor = hedgeExecutor;
+    }
+
+    @Around("@annotation(hedged)")
+    public Object hedgedMethods(ProceedingJoinPoint joinPoint, Hedged hedged) throws Throwable {
+        HedgePolicy policy = policyOf(joinPoint, hedged);
+        Class<?> returnType = ReactiveSupport.returnType(joinPoint);
+        if (ReactiveSupport.isMono(returnType)) {
+            return Mono.create(sink -> new MonoRace(joinPoint, policy, sink).start());
+        }
+        if (ReactiveSupport.isReactive(returnType) || ReactiveSupport.isCompletionStage(returnType)) {
+            return joinPoint.proceed();
+        }
+        return hedgeBlocking(joinPoint, policy);
+    }
+
+    /**
+     * 阻塞方法：等待第一次呼叫至對沖延遲，逾時再發出對沖呼叫，之後等待任一呼叫成功或全部失敗
+     */
+    private Object hedgeBlocking(ProceedingJoinPoint joinPoint, HedgePolicy policy) throws Throwable {
+        hedgeBudget.recordCall();
+        BlockingRace race = new BlockingRace(joinPoint, policy, RequestContextHolder.getRequestAttributes(),
+                DeadlineContext.current());
+        try {
+            race.launch();
+            try {
+                return race.result.get(policy.hedgeDelayNanos(), TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                if (hedgeBudget.tryAcquireRetry()) {
+                    logger.debug("Hedging {} after {}ms", policy.getName(),
+                            TimeUnit.NANOSECONDS.toMillis(policy.hedgeDelayNanos()));
+                    race.launch();
+                }
+            }
+            return race.result.get();
+        } catch (ExecutionException e) {
+            throw e.getCause();
+        } catch (InterruptedException e) {
+            race.cancel(-1);
+            Thread.currentThread().interrupt();
+            throw e;
+        }
+    }
+
+    private HedgePolicy policyOf(ProceedingJoinPoint joinPoint, Hedged hedged) {
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        HedgePolicy policy = policies.get(method);
+        if (policy != null) {
+            return policy;
+        }
+        return policies.computeIfAbsent(method, m -> hedgeRegistry.policy(hedged.value().isEmpty()
+                ? joinPoint.getSignature().getDeclaringType().getSimpleName() + '.' + joinPoint.getSignature().getName()
+                : hedged.value(), hedged));
+    }
+
+    /**
+     * 阻塞方法的呼叫競賽，launch 只由呼叫端執行緒呼叫
+     */
+    private final class BlockingRace {
+
+        private final ProceedingJoinPoint joinPoint;
+        private final HedgePolicy policy;
+        private final RequestAttributes attributes;
+        private final Deadline deadline;
+        private final CompletableFuture<Object> result = new CompletableFuture<>();
+        private final Future<?>[] attempts = new Future<?>[2];
+        private int launched;
+        private int failed;
+        private Throwable failure;
+        private long primaryStart;
+        private boolean primaryFailed;
+
+        BlockingRace(ProceedingJoinPoint joinPoint, HedgePolicy policy, RequestAttributes attributes, Deadline deadline) {
+            this.joinPoint = joinPoint;
+            this.policy = policy;
+            this.attributes = attributes;
+            this.deadline = deadline;
+        }
+
+        synchronized void launch() {
+            if (result.isDone()) {
+                return;
+            }
+            int index = launched++;
+            if (index == 0) {
+                primaryStart = System.nanoTime();
+            }
+            try {
+                attempts[index] = hedgeExecutor.submit(DeadlineContext.propagate(deadline, () -> attempt(index)));
+            } catch (RejectedExecutionException e) {
+                fail(index, e);
+            }
+        }
+
+        private void attempt(int index) {
+            RequestContextHolder.setRequestAttributes(attributes);
+            try {
+                Object value = joinPoint.proceed();
+                if (result.complete(value)) {
+                    won(index);
+                }
+            } catch (Throwable e) {
+                fail(index, e);
+            } finally {
+                RequestContextHolder.resetRequestAttributes();
+            }
+        }
+
+        private synchronized void fail(int index, Throwable error) {
+            if (result.isDone()) {
+                return;
+            }
+            if (index == 0) {
+                primaryFailed = true;
+            }
+            if (failure == null) {
+                failure = error;
+            } else if (failure != error) {
+                failure.addSuppressed(error);
+            }
+            if (++failed == launched) {
+                result.completeExceptionally(failure);
+            }
+        }
+
+        /**
+         * 記錄第一次呼叫的延遲並取消其他呼叫；對沖呼叫勝出時第一次呼叫仍未完成，
+         * 以其已經過的時間作為延遲下限記錄，被取消的緩慢呼叫也計入百分位
+         */
+        private synchronized void won(int winner) {
+            if (winner == 0 || !primaryFailed) {
+                policy.recordLatency(System.nanoTime() - primaryStart);
+            }
+            cancel(winner);
+        }
+
+        /**
+         * 取消 winner 以外仍在執行的呼叫（中斷其虛擬執行緒）
+         */
+        synchronized void cancel(int winner) {
+            for (int i = 0; i < launched; i++) {
+                if (i != winner && attempts[i] != null) {
+                    attempts[i].cancel(true);
+                }
+            }
+        }
+    }
+
+    /**
+     * Mono 的呼叫競賽：以 MonoSink 傳遞第一個成功的結果，完成或取消時 dispose 其他訂閱與計時器
+     */
+    private final class MonoRace {
+
+        private final ProceedingJoinPoint joinPoint;
+        private final HedgePolicy policy;
+        private final MonoSink<Object> sink;
+        private final Disposable.Composite subscriptions = Disposables.composite();
+        private int launched;
+        private int failed;
+        private boolean done;
+        private Throwable failure;
+        private long primaryStart;
+        private boolean primaryFailed;
+
+        MonoRace(ProceedingJoinPoint joinPoint, HedgePolicy policy, MonoSink<Object> sink) {
+            this.joinPoint = joinPoint;
+            this.policy = policy;
+            this.sink = sink;
+        }
+
+        void start() {
+            sink.onDispose(subscriptions);
+            hedgeBudget.recordCall();
+            launch();
+            subscriptions.add(Mono.delay(Duration.ofNanos(policy.hedgeDelayNanos())).subscribe(tick -> {
+                if (hedgeBudget.tryAcquireRetry()) {
+                    logger.debug("Hedging {} after {}ms", policy.getName(),
+                            TimeUnit.NANOSECONDS.toMillis(policy.hedgeDelayNanos()));
+                    launch();
+                }
+            }));
+        }
+
+        private void launch() {
+            int index;
+            synchronized (this) {
+                if (done) {
+                    return;
+                }
+                index = launched++;
+                if (index == 0) {
+                    primaryStart = System.nanoTime();
+                }
+            }
+            subscriptions.add(ReactiveSupport.proceedMono(joinPoint).subscribe(
+                    value -> succeed(value, index),
+                    error -> fail(error, index),
+                    () -> succeed(null, index),
+                    Context.of(sink.contextView())));
+        }
+
+        /**
+         * 與阻塞方法相同，只記錄第一次呼叫的延遲；對沖呼叫勝出時記錄第一次呼叫已經過的時間
+         */
+        private void succeed(Object value, int index) {
+            boolean record;
+            long start;
+            synchronized (this) {
+                if (done) {
+                    return;
+                }
+                done = true;
+                record = index == 0 || !primaryFailed;
+                start = primaryStart;
+            }
+            if (record) {
+                policy.recordLatency(System.nanoTime() - start);
+            }
+            if (value != null) {
+                sink.success(value);
+            } else {
+                sink.success();
+            }
+        }
+
+        private void fail(Throwable error, int index) {
+            synchronized (this) {
+                if (done) {
+                    return;
+                }
+                if (index == 0) {
+                    primaryFailed = true;
+                }
+                if (failure == null) {
+                    failure = error;
+                } else if (failure != error) {
+                    failure.addSuppressed(error);
+                }
+                if (++failed < launched) {
+                    return;
+                }
+                done = true;
+            }
+            sink.error(failure);
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package tw.com.ty.common.resilience;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import tw.com.ty.common.resilience.shedding.PriorityLoadShedder;
+
+import java.time.Duration;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 依優先級卸載負載的配置類別
+ *
+ * 啟用後（load-shedding.enabled=true）@RateLimited 方法於消耗 token 前先經過准入控制，
+ * 系統飽和時依 BEST_EFFORT → BATCH → INTERACTIVE 的順序卸載
+ */
+@Configuration
+@ConditionalOnProperty(name = "load-shedding.enabled", havingValue = "true")
+public class LoadSheddingConfiguration {
+
+    @Value("${load-shedding.max-in-flight:200}")
+    private int maxInFlight;
+
+    @Value("${load-shedding.target-latency-millis:500}")
+    private long targetLatencyMillis;
+
+    @Value("${load-shedding.cpu-threshold:0.9}")
+    private double cpuThreshold;
+
+    @Value("${load-shedding.cpu-sample-millis:500}")
+    private long cpuSampleMillis;
+
+    @Value("${load-shedding.thresholds.interactive:0.9}")
+    private double interactiveThreshold;
+
+    @Value("${load-shedding.thresholds.batch:0.75}")
+    private double batchThreshold;
+
+    @Value("${load-shedding.thresholds.best-effort:0.6}")
+    private double bestEffortThreshold;
+
+    @Value("${load-shedding.ramp-width:0.1}")
+    private double rampWidth;
+
+    @Value("${load-shedding.probe-ratio:0.01}")
+    private double probeRatio;
+
+    /**
+     * 創建依優先級卸載負載的准入控制器，並定期取樣 CPU 使用率與衰減閒置時的延遲訊號
+     *
+     * @return PriorityLoadShedder 實例
+     */
+    @Bean("priorityLoadShedder")
+    public PriorityLoadShedder priorityLoadShedder(
+            @Qualifier("rateLimiterMaintenanceScheduler") ScheduledExecutorService maintenanceScheduler) {
+        PriorityLoadShedder loadShedder = new PriorityLoadShedder(new PriorityLoadShedder.Settings(
+                Math.max(1, maxInFlight),
+                Duration.ofMillis(Math.max(1, targetLatencyMillis)).toNanos(),
+                cpuThreshold > 0 ? cpuThreshold : 1.0,
+                interactiveThreshold,
+                batchThreshold,
+                bestEffortThreshold,
+                rampWidth > 0 ? rampWidth : 0.1,
+                Math.min(1, Math.max(0, probeRatio))));
+        maintenanceScheduler.scheduleAtFixedRate(loadShedder::sample,
+                0, Math.max(50, cpuSampleMillis), TimeUnit.MILLISECONDS);
+        return loadShedder;
+    }
+}
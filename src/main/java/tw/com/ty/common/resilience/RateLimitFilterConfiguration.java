@@ -0,0 +1,100 @@
+package tw.com.ty.common.resilience;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.bucket4j.BucketConfiguration;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.Environment;
+import tw.com.ty.common.resilience.ratelimit.BucketRegistry;
+import tw.com.ty.common.resilience.ratelimit.NamedRateLimiterRegistry;
+import tw.com.ty.common.resilience.ratelimit.RateLimitKeyResolver;
+import tw.com.ty.common.resilience.ratelimit.RateLimiter;
+import tw.com.ty.common.resilience.ratelimit.RateLimiterFactory;
+import tw.com.ty.common.resilience.ratelimit.web.RateLimitFilterProperties;
+import tw.com.ty.common.resilience.ratelimit.web.RateLimitServletFilter;
+import tw.com.ty.common.resilience.ratelimit.web.RateLimitWebFilter;
+import tw.com.ty.common.resilience.ratelimit.web.RequestRateLimiter;
+
+/**
+ * Filter 層級 Rate Limiter 的配置類別
+ *
+ * 啟用後（rate-limiter.filter.enabled=true）依 rate-limiter.filter.rules 的路徑規則，
+ * 在 Servlet Filter（Backend）或 WebFilter（Gateway）中限流，被拒絕的請求不經過路由與請求本文反序列化
+ */
+@Configuration
+@ConditionalOnProperty(name = "rate-limiter.filter.enabled", havingValue = "true")
+public class RateLimitFilterConfiguration {
+
+    /**
+     * Filter 順序，預設排在 Spring Security 之前，拒絕時不需先完成認證
+     */
+    private static final String ORDER = "${rate-limiter.filter.order:" + (Ordered.HIGHEST_PRECEDENCE + 10) + "}";
+
+    /**
+     * 創建依路徑規則限流的請求層級 Rate Limiter，與 RateLimiterAspect 共用全域 Rate Limiter 與限流鍵註冊表
+     *
+     * @return RequestRateLimiter 實例
+     */
+    @Bean("requestRateLimiter")
+    public RequestRateLimiter requestRateLimiter(Environment environment,
+                                                 @Qualifier("commonApiLimiter") RateLimiter apiRateLimiter,
+                                                 @Qualifier("commonBatchApiLimiter") RateLimiter batchApiRateLimiter,
+                                                 @Qualifier("commonApiBucketConfiguration") BucketConfiguration apiConfiguration,
+                                                 @Qualifier("commonBatchBucketConfiguration") BucketConfiguration batchConfiguration,
+                                                 @Qualifier("rateLimitBucketRegistry") BucketRegistry<RateLimiter> bucketRegistry,
+                                                 @Qualifier("namedRateLimiterRegistry") NamedRateLimiterRegistry namedRegistry,
+                                                 RateLimiterFactory rateLimiterFactory,
+                                                 RateLimitKeyResolver keyResolver,
+                                                 ObjectProvider<ObjectMapper> objectMapper) {
+        RateLimitFilterProperties properties = Binder.get(environment)
+                .bind("rate-limiter.filter", RateLimitFilterProperties.class)
+                .orElseGet(RateLimitFilterProperties::new);
+        return new RequestRateLimiter(properties,
+                apiRateLimiter,
+                batchApiRateLimiter,
+                apiConfiguration,
+                batchConfiguration,
+                bucketRegistry,
+                namedRegistry,
+                rateLimiterFactory,
+                keyResolver,
+                objectMapper.getIfAvailable(ObjectMapper::new));
+    }
+
+    /**
+     * Backend（Servlet）使用的 Filter
+     */
+    @Configuration
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+    static class ServletFilterConfiguration {
+
+        @Bean("rateLimitServletFilter")
+        public RateLimitServletFilter rateLimitServletFilter(RequestRateLimiter requestRateLimiter,
+                                                             @Value(ORDER) int order) {
+            return new RateLimitServletFilter(requestRateLimiter, order);
+        }
+    }
+
+    /**
+     * Gateway（WebFlux）使用的 WebFilter
+     */
+    @Configuration
+    @ConditionalOnClass(name = "org.springframework.web.server.WebFilter")
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+    static class ReactiveFilterConfiguration {
+
+        @Bean("rateLimitWebFilter")
+        public RateLimitWebFilter rateLimitWebFilter(RequestRateLimiter requestRateLimiter,
+                                                     @Value(ORDER) int order) {
+            return new RateLimitWebFilter(requestRateLimiter, order);
+        }
+    }
+}
@@ -1,47 +1,157 @@
 package tw.com.ty.common.resilience;
 
-import io.github.bucket4j.Bucket;
+import io.github.bucket4j.BucketConfiguration;
+import io.github.bucket4j.ConsumptionProbe;
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
 import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
 import tw.com.ty.common.exception.ResilienceException;
+import tw.com.ty.common.resilience.annotation.Quota;
+import tw.com.ty.common.resilience.annotation.RateLimitKeySource;
+import tw.com.ty.common.resilience.annotation.RateLimitType;
+import tw.com.ty.common.resilience.annotation.RateLimited;
+import tw.com.ty.common.resilience.annotation.RequestPriority;
+import tw.com.ty.common.resilience.deadline.Deadline;
+import tw.com.ty.common.resilience.deadline.DeadlineContext;
+import tw.com.ty.common.resilience.ratelimit.AdaptiveConcurrencyLimiter;
+import tw.com.ty.common.resilience.ratelimit.BucketRegistry;
+import tw.com.ty.common.resilience.ratelimit.DownstreamThrottling;
+import tw.com.ty.common.resilience.ratelimit.HierarchicalQuota;
+import tw.com.ty.common.resilience.ratelimit.NamedRateLimiterRegistry;
+import tw.com.ty.common.resilience.ratelimit.OutboundPermit;
+import tw.com.ty.common.resilience.ratelimit.RateLimitDefinition;
+import tw.com.ty.common.resilience.ratelimit.RateLimitCostResolver;
+import tw.com.ty.common.resilience.ratelimit.RateLimitHeaders;
+import tw.com.ty.common.resilience.ratelimit.RateLimitKeyResolver;
+import tw.com.ty.common.resilience.ratelimit.RateLimiter;
+import tw.com.ty.common.resilience.ratelimit.RateLimiterFactory;
+import tw.com.ty.common.resilience.ratelimit.web.RequestRateLimiter;
+import tw.com.ty.common.resilience.shedding.PriorityLoadShedder;
+import tw.com.ty.common.resilience.support.ReactiveSupport;
+
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 
 /**
  * 通用 Rate Limiter AOP切面
  *
  * 提供可配置的 Rate Limiter 保護，防止 DDOS 攻擊
  * 支援通過配置指定要攔截的套件和方法
+ * 支援依限流鍵（JWT subject、IP、請求頭、方法參數）分別限流
+ * 回傳 Mono / Flux 的方法於訂閱時才消耗 token，超限以錯誤訊號回傳
+ * 每次呼叫消耗的 token 數量可依參數計算（如批量筆數）
+ * ADAPTIVE 類型以方法實際延遲動態調整並發上限
+ * 設定 maxWaitMillis 時，token 將在等待上限內可用的請求排隊等待而非立即拒絕
+ * 具名限流器（name）從 rate-limiter.limits.&lt;name&gt;.* 載入，可包含多個頻寬並即時重新配置
+ * 階層式配額（quotas）一次檢查服務、租戶、使用者等多個層級，拒絕時回報層級
+ * 啟用負載卸載時，系統飽和依請求優先級由低至高拒絕，先於 token 消耗
+ * outbound 為呼叫外部服務的客戶端限流：等待 token 而非拒絕，外部服務回應 429 時清空 Bucket
+ * 回應帶 X-RateLimit-Limit / X-RateLimit-Remaining 標頭，超限異常帶建議重試時間（Retry-After）
+ * 單次消耗量超過容量的請求永遠無法放行，不消耗 token 直接以 RATE_LIMIT_COST_EXCEEDED（413）拒絕
+ * 請求有期限（{@link DeadlineContext}）時，等待 token 的時間不超過剩餘時間
+ * 請求已由 Filter 層級限流消耗同一個 Bucket 時（{@link RequestRateLimiter#CHARGED_ATTRIBUTE}）不重複消耗
+ * 順序在 TimeLimiterAspect 之內、BulkheadAspect 之外：等待 token 期間不佔用 Bulkhead 名額
  */
 @Aspect
 @Component
+@Order(Ordered.LOWEST_PRECEDENCE - 10)
 public class RateLimiterAspect {
 
     private static final Logger logger = LoggerFactory.getLogger(RateLimiterAspect.class);
 
-    private final Bucket apiRateLimiter;
-    private final Bucket batchApiRateLimiter;
+    private final RateLimiter apiRateLimiter;
+    private final RateLimiter batchApiRateLimiter;
+    private final long apiLimit;
+    private final long batchLimit;
+    private final BucketRegistry<RateLimiter> bucketRegistry;
+    private final NamedRateLimiterRegistry namedRegistry;
+    private final RateLimitKeyResolver keyResolver;
+    private final RateLimitCostResolver costResolver;
+    private final Function<String, RateLimiter> apiLimiterFactory;
+    private final Function<String, RateLimiter> batchLimiterFactory;
+    private final AdaptiveConcurrencyLimiter.Settings adaptiveSettings;
+    private final PriorityLoadShedder loadShedder;
+    private final long outboundMaxWaitNanos;
+    private final ConcurrentMap<Method, AdaptiveConcurrencyLimiter> adaptiveLimiters = new ConcurrentHashMap<>();
 
-    public RateLimiterAspect(@Qualifier("commonApiRateLimiter") Bucket apiRateLimiter,
-                            @Qualifier("commonBatchApiRateLimiter") Bucket batchApiRateLimiter) {
+    public RateLimiterAspect(@Qualifier("commonApiLimiter") RateLimiter apiRateLimiter,
+                            @Qualifier("commonBatchApiLimiter") RateLimiter batchApiRateLimiter,
+                            @Qualifier("commonApiBucketConfiguration") BucketConfiguration apiConfiguration,
+                            @Qualifier("commonBatchBucketConfiguration") BucketConfiguration batchConfiguration,
+                            @Qualifier("rateLimitBucketRegistry") BucketRegistry<RateLimiter> bucketRegistry,
+                            @Qualifier("namedRateLimiterRegistry") NamedRateLimiterRegistry namedRegistry,
+                            RateLimiterFactory rateLimiterFactory,
+                            RateLimitKeyResolver keyResolver,
+                            RateLimitCostResolver costResolver,
+                            @Qualifier("adaptiveConcurrencyLimiterSettings") AdaptiveConcurrencyLimiter.Settings adaptiveSettings,
+                            ObjectProvider<PriorityLoadShedder> loadShedder,
+                            @Value("${rate-limiter.outbound.max-wait-millis:30000}") long outboundMaxWaitMillis) {
         this.apiRateLimiter = apiRateLimiter;
         this.batchApiRateLimiter = batchApiRateLimiter;
+        this.apiLimit = RateLimitHeaders.limitOf(apiConfiguration);
+        this.batchLimit = RateLimitHeaders.limitOf(batchConfiguration);
+        this.bucketRegistry = bucketRegistry;
+        this.namedRegistry = namedRegistry;
+        this.keyResolver = keyResolver;
+        this.costResolver = costResolver;
+        this.apiLimiterFactory = key -> rateLimiterFactory.create(key, apiConfiguration);
+        this.batchLimiterFactory = key -> rateLimiterFactory.create(key, batchConfiguration);
+        this.adaptiveSettings = adaptiveSettings;
+        this.loadShedder = loadShedder.getIfAvailable();
+        this.outboundMaxWaitNanos = TimeUnit.MILLISECONDS.toNanos(outboundMaxWaitMillis);
     }
 
     /**
      * 應用 Rate Limiter 保護
+     * 以同一次消耗結果決定是否放行並設定回應標頭，不另外查詢 Bucket；放行時不配置 ConsumptionProbe
      */
-    private Object applyRateLimit(ProceedingJoinPoint joinPoint, Bucket bucket, String apiType) throws Throwable {
+    private Object applyRateLimit(ProceedingJoinPoint joinPoint, RateLimiter rateLimiter, long limit, long tokens,
+                                  long maxWaitNanos, String apiType) throws Throwable {
         String methodName = joinPoint.getSignature().getName();
         String className = joinPoint.getSignature().getDeclaringTypeName();
 
-        // Rate Limiter 檢查
-        if (!bucket.tryConsume(1)) {
-            logger.warn("{} - {}: Rate Limiter 限制，請稍後再試", className, methodName);
-            throw ResilienceException.rateLimitExceeded();
+        Class<?> returnType = ReactiveSupport.returnType(joinPoint);
+        if (tokens > limit) {
+            return reject(returnType, costExceeded(tokens, limit, className, methodName));
+        }
+        if (ReactiveSupport.isReactive(returnType)) {
+            return applyReactiveRateLimit(joinPoint, rateLimiter, tokens, maxWaitNanos, returnType, className, methodName);
+        }
+        if (rateLimiter == RequestRateLimiter.chargedLimiter()) {
+            logger.debug("{} - {}: 請求已由 Filter 消耗同一個 Bucket，不重複消耗", className, methodName);
+            return joinPoint.proceed();
+        }
+
+        // Rate Limiter 檢查：放行路徑只取得剩餘數量，不建立 ConsumptionProbe
+        long remaining = rateLimiter.tryConsumeRemaining(tokens);
+        if (remaining >= 0) {
+            RateLimitHeaders.write(limit, remaining);
+        } else {
+            // 拒絕時才取得等待時間（Retry-After 與等待模式）；期間已補充時此次消耗即放行
+            ConsumptionProbe probe = rateLimiter.tryConsumeAndReturnRemaining(tokens);
+            RateLimitHeaders.write(limit, probe.getRemainingTokens());
+            if (!probe.isConsumed()
+                    && !awaitRefill(rateLimiter, probe, tokens, DeadlineContext.capNanos(DeadlineContext.current(), maxWaitNanos))) {
+                throw rateLimitExceeded(probe, className, methodName);
+            }
         }
 
         // 通過 Rate Limiter，執行實際業務邏輯
@@ -49,16 +159,463 @@ public class RateLimiterAspect {
         return joinPoint.proceed();
     }
 
+    /**
+     * 等待模式：預估補充時間不超過 maxWaitNanos 時預約 token 並等待，否則直接拒絕
+     * 等待期間被中斷視為拒絕，並保留中斷狀態
+     */
+    private static boolean awaitRefill(RateLimiter rateLimiter, ConsumptionProbe probe, long tokens, long maxWaitNanos) {
+        if (maxWaitNanos <= 0 || probe.getNanosToWaitForRefill() > maxWaitNanos) {
+            return false;
+        }
+        try {
+            return rateLimiter.tryConsume(tokens, maxWaitNanos);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * 建立帶建議重試時間的超限異常
+     */
+    private static ResilienceException rateLimitExceeded(ConsumptionProbe probe, String className, String methodName) {
+        logger.warn("{} - {}: Rate Limiter 限制，請稍後再試", className, methodName);
+        return ResilienceException.rateLimitExceeded(Duration.ofNanos(probe.getNanosToWaitForRefill()));
+    }
+
+    /**
+     * 建立消耗量超過容量的異常；這類請求等待多久都無法放行，不帶建議重試時間
+     */
+    private static ResilienceException costExceeded(long tokens, long limit, String className, String methodName) {
+        logger.warn("{} - {}: 單次消耗 {} 個 token 超過容量 {}", className, methodName, tokens, limit);
+        return ResilienceException.rateLimitCostExceeded(tokens, limit);
+    }
+
+    /**
+     * 拒絕請求：響應式方法回傳錯誤訊號，其餘直接拋出
+     */
+    private static Object reject(Class<?> returnType, ResilienceException error) {
+        if (ReactiveSupport.isMono(returnType)) {
+            return Mono.error(error);
+        }
+        if (ReactiveSupport.isFlux(returnType)) {
+            return Flux.error(error);
+        }
+        throw error;
+    }
+
+    /**
+     * 應用 Rate Limiter 保護 - 響應式方法
+     * 訂閱時才以非同步 API 消耗 token，不阻塞 event loop；超限時發出錯誤訊號而非直接拋出
+     * 等待模式下由排程器於預約時間到達時放行，等待上限依 Reactor Context 的請求期限縮短
+     * Filter 已消耗同一個 Bucket 時（Servlet 請求屬性或 WebFlux 的 Reactor Context）直接放行
+     */
+    private Object applyReactiveRateLimit(ProceedingJoinPoint joinPoint, RateLimiter rateLimiter, long tokens,
+                                          long maxWaitNanos, Class<?> returnType, String className, String methodName) {
+        RateLimiter charged = RequestRateLimiter.chargedLimiter();
+        Mono<Void> permit = Mono.deferContextual(context -> {
+            if (rateLimiter == charged || rateLimiter == RequestRateLimiter.chargedLimiter(context)) {
+                logger.debug("{} - {}: 請求已由 Filter 消耗同一個 Bucket，不重複消耗", className, methodName);
+                return Mono.empty();
+            }
+            long waitNanos = DeadlineContext.capNanos(DeadlineContext.current(context), maxWaitNanos);
+            return Mono.fromFuture(rateLimiter.tryConsumeAndReturnRemainingAsync(tokens))
+                    .flatMap(probe -> {
+                        if (probe.isConsumed()) {
+                            logger.debug("{} - {}: 請求通過 Rate Limiter", className, methodName);
+                            return Mono.empty();
+                        }
+                        if (waitNanos <= 0 || probe.getNanosToWaitForRefill() > waitNanos) {
+                            return Mono.error(rateLimitExceeded(probe, className, methodName));
+                        }
+                        return Mono.fromFuture(rateLimiter.tryConsumeAsync(tokens, waitNanos))
+                                .flatMap(consumed -> consumed
+                                        ? Mono.<Void>empty()
+                                        : Mono.error(rateLimitExceeded(probe, className, methodName)));
+                    });
+        });
+
+        if (ReactiveSupport.isMono(returnType)) {
+            return permit.then(ReactiveSupport.proceedMono(joinPoint));
+        }
+        return permit.thenMany(ReactiveSupport.proceedFlux(joinPoint));
+    }
+
+    /**
+     * 應用自適應並發限制
+     * 取得並發名額後執行方法，完成時以實際耗時回饋限制器；響應式方法於訂閱時取得名額、終止時釋放
+     */
+    private Object applyAdaptiveLimit(ProceedingJoinPoint joinPoint, AdaptiveConcurrencyLimiter limiter) throws Throwable {
+        String methodName = joinPoint.getSignature().getName();
+        String className = joinPoint.getSignature().getDeclaringTypeName();
+
+        Class<?> returnType = ReactiveSupport.returnType(joinPoint);
+        if (ReactiveSupport.isMono(returnType)) {
+            return Mono.defer(() -> {
+                if (!limiter.tryAcquire()) {
+                    return Mono.error(adaptiveLimitExceeded(limiter, className, methodName));
+                }
+                long start = System.nanoTime();
+                return ReactiveSupport.proceedMono(joinPoint)
+                        .doFinally(signal -> limiter.release(elapsedUnlessCancelled(signal, start)));
+            });
+        }
+        if (ReactiveSupport.isFlux(returnType)) {
+            return Flux.defer(() -> {
+                if (!limiter.tryAcquire()) {
+                    return Flux.error(adaptiveLimitExceeded(limiter, className, methodName));
+                }
+                long start = System.nanoTime();
+                return ReactiveSupport.proceedFlux(joinPoint)
+                        .doFinally(signal -> limiter.release(elapsedUnlessCancelled(signal, start)));
+            });
+        }
+
+        if (!limiter.tryAcquire()) {
+            throw adaptiveLimitExceeded(limiter, className, methodName);
+        }
+        long start = System.nanoTime();
+        try {
+            return joinPoint.proceed();
+        } finally {
+            limiter.release(System.nanoTime() - start);
+        }
+    }
+
+    private static long elapsedUnlessCancelled(SignalType signal, long start) {
+        // 取消（如下游逾時）不代表方法的真實延遲，只釋放名額不記錄樣本
+        return signal == SignalType.CANCEL ? -1 : System.nanoTime() - start;
+    }
+
+    private static ResilienceException adaptiveLimitExceeded(AdaptiveConcurrencyLimiter limiter,
+                                                             String className, String methodName) {
+        logger.warn("{} - {}: 自適應並發限制，處理中 {} / 上限 {}，請稍後再試",
+                className, methodName, limiter.getInFlight(), limiter.getLimit());
+        return ResilienceException.rateLimitExceeded();
+    }
+
     /**
      * 攔截通用API請求 - 預設規則
      * 攔截所有標註 @RateLimited 的方法
      */
     @Around("@annotation(rateLimited)")
-    public Object rateLimitAnnotatedMethods(ProceedingJoinPoint joinPoint,
-                                          tw.com.ty.common.resilience.annotation.RateLimited rateLimited) throws Throwable {
-        Bucket bucket = rateLimited.value() == tw.com.ty.common.resilience.annotation.RateLimitType.BATCH
-                       ? batchApiRateLimiter : apiRateLimiter;
-        return applyRateLimit(joinPoint, bucket, "RateLimited API");
+    public Object rateLimitAnnotatedMethods(ProceedingJoinPoint joinPoint, RateLimited rateLimited) throws Throwable {
+        if (loadShedder == null) {
+            return dispatch(joinPoint, rateLimited);
+        }
+        return applyLoadShedding(joinPoint, rateLimited, priorityOf(rateLimited));
+    }
+
+    /**
+     * 依優先級准入後再套用限流；系統飽和時低優先級請求在消耗 token 前即被拒絕
+     * 響應式方法於訂閱時准入、終止時釋放
+     */
+    private Object applyLoadShedding(ProceedingJoinPoint joinPoint, RateLimited rateLimited,
+                                     RequestPriority priority) throws Throwable {
+        Class<?> returnType = ReactiveSupport.returnType(joinPoint);
+        if (ReactiveSupport.isReactive(returnType)) {
+            // 各限流路徑回傳的響應式管線皆延遲至訂閱時執行
+            Object limited = dispatch(joinPoint, rateLimited);
+            if (ReactiveSupport.isMono(returnType)) {
+                return Mono.defer(() -> {
+                    if (!loadShedder.tryAcquire(priority)) {
+                        return Mono.error(loadShed(joinPoint, priority));
+                    }
+                    long start = System.nanoTime();
+                    return ((Mono<?>) limited).doFinally(signal ->
+                            loadShedder.release(signal == SignalType.ON_COMPLETE ? System.nanoTime() - start : -1));
+                });
+            }
+            return Flux.defer(() -> {
+                if (!loadShedder.tryAcquire(priority)) {
+                    return Flux.error(loadShed(joinPoint, priority));
+                }
+                long start = System.nanoTime();
+                return ((Flux<?>) limited).doFinally(signal ->
+                        loadShedder.release(signal == SignalType.ON_COMPLETE ? System.nanoTime() - start : -1));
+            });
+        }
+
+        if (!loadShedder.tryAcquire(priority)) {
+            throw loadShed(joinPoint, priority);
+        }
+        long start = System.nanoTime();
+        long latency = -1;
+        try {
+            Object result = dispatch(joinPoint, rateLimited);
+            latency = System.nanoTime() - start;
+            return result;
+        } catch (ResilienceException e) {
+            // 被限流拒絕的請求耗時極短，不納入延遲訊號
+            throw e;
+        } catch (Throwable e) {
+            latency = System.nanoTime() - start;
+            throw e;
+        } finally {
+            loadShedder.release(latency);
+        }
+    }
+
+    private static RequestPriority priorityOf(RateLimited rateLimited) {
+        if (rateLimited.priority() != RequestPriority.DEFAULT) {
+            return rateLimited.priority();
+        }
+        return rateLimited.value() == RateLimitType.BATCH ? RequestPriority.BATCH : RequestPriority.INTERACTIVE;
+    }
+
+    private static ResilienceException loadShed(ProceedingJoinPoint joinPoint, RequestPriority priority) {
+        logger.warn("{} - {}: 系統飽和，卸載 {} 優先級請求", joinPoint.getSignature().getDeclaringTypeName(),
+                joinPoint.getSignature().getName(), priority);
+        return ResilienceException.loadShed(priority.name());
+    }
+
+    /**
+     * 依註解設定選擇限流方式
+     */
+    private Object dispatch(ProceedingJoinPoint joinPoint, RateLimited rateLimited) throws Throwable {
+        if (rateLimited.quotas().length > 0) {
+            return applyHierarchicalQuota(joinPoint, rateLimited);
+        }
+        if (rateLimited.outbound()) {
+            return applyOutboundRateLimit(joinPoint, rateLimited);
+        }
+        if (!rateLimited.name().isEmpty()) {
+            return applyNamedRateLimit(joinPoint, rateLimited);
+        }
+        if (rateLimited.value() == RateLimitType.ADAPTIVE) {
+            Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+            return applyAdaptiveLimit(joinPoint,
+                    adaptiveLimiters.computeIfAbsent(method, m -> new AdaptiveConcurrencyLimiter(adaptiveSettings)));
+        }
+        long tokens = costResolver.resolve(joinPoint, rateLimited);
+        long maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(rateLimited.maxWaitMillis());
+        long limit = rateLimited.value() == RateLimitType.BATCH ? batchLimit : apiLimit;
+        return applyRateLimit(joinPoint, resolveRateLimiter(joinPoint, rateLimited), limit, tokens, maxWaitNanos,
+                "RateLimited API");
+    }
+
+    /**
+     * 應用具名 Rate Limiter 保護
+     * GLOBAL 使用該名稱的共用 Bucket，其餘依限流鍵從註冊表取得
+     */
+    private Object applyNamedRateLimit(ProceedingJoinPoint joinPoint, RateLimited rateLimited) throws Throwable {
+        RateLimitDefinition definition = namedRegistry.definition(rateLimited.name());
+        RateLimiter rateLimiter = resolveNamedRateLimiter(joinPoint, rateLimited, definition);
+        long tokens = costResolver.resolve(joinPoint, rateLimited);
+        long maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(rateLimited.maxWaitMillis());
+        return applyRateLimit(joinPoint, rateLimiter, definition.getLimit(), tokens, maxWaitNanos,
+                "RateLimited " + rateLimited.name());
+    }
+
+    private RateLimiter resolveNamedRateLimiter(ProceedingJoinPoint joinPoint, RateLimited rateLimited,
+                                                RateLimitDefinition definition) {
+        if (rateLimited.keySource() == RateLimitKeySource.GLOBAL) {
+            return namedRegistry.global(rateLimited.name());
+        }
+        String key = namedRegistry.bucketKey(rateLimited.name(), keyResolver.resolve(joinPoint, rateLimited));
+        return bucketRegistry.getOrCreate(key, k -> namedRegistry.create(k, definition));
+    }
+
+    /**
+     * 應用客戶端（outbound）Rate Limiter 保護
+     * 以外部服務的配額為準：token 不足時等待至多 maxWait，逾時才拋出；不寫入回應標頭
+     * 外部服務回應 429 時清空 Bucket，使後續呼叫（包含 RetryAspect 的重試）等待補充，不浪費重試次數
+     * 請求期限先於等待上限到達時，改為拋出 deadlineExceeded
+     */
+    private Object applyOutboundRateLimit(ProceedingJoinPoint joinPoint, RateLimited rateLimited) throws Throwable {
+        String methodName = joinPoint.getSignature().getName();
+        String className = joinPoint.getSignature().getDeclaringTypeName();
+        String target = rateLimited.name().isEmpty() ? rateLimited.value().name() : rateLimited.name();
+
+        RateLimiter rateLimiter;
+        long limit;
+        if (rateLimited.name().isEmpty()) {
+            rateLimiter = resolveRateLimiter(joinPoint, rateLimited);
+            limit = rateLimited.value() == RateLimitType.BATCH ? batchLimit : apiLimit;
+        } else {
+            RateLimitDefinition definition = namedRegistry.definition(rateLimited.name());
+            rateLimiter = resolveNamedRateLimiter(joinPoint, rateLimited, definition);
+            limit = definition.getLimit();
+        }
+        long tokens = costResolver.resolve(joinPoint, rateLimited);
+        long maxWaitNanos = rateLimited.maxWaitMillis() > 0
+                ? TimeUnit.MILLISECONDS.toNanos(rateLimited.maxWaitMillis())
+                : outboundMaxWaitNanos;
+
+        Class<?> returnType = ReactiveSupport.returnType(joinPoint);
+        if (tokens > limit) {
+            return reject(returnType, costExceeded(tokens, limit, className, methodName));
+        }
+        if (ReactiveSupport.isReactive(returnType)) {
+            Mono<Void> permit = Mono.deferContextual(context -> {
+                Deadline deadline = DeadlineContext.current(context);
+                return Mono.fromFuture(rateLimiter.tryConsumeAsync(tokens, DeadlineContext.capNanos(deadline, maxWaitNanos)))
+                        .flatMap(consumed -> consumed
+                                ? Mono.<Void>empty()
+                                : Mono.error(outboundRateLimitExceeded(target, deadline, maxWaitNanos, className, methodName)));
+            });
+            if (ReactiveSupport.isMono(returnType)) {
+                return permit.then(ReactiveSupport.proceedMono(joinPoint)
+                        .onErrorResume(e -> drainIfThrottledAsync(rateLimiter, e, target)));
+            }
+            return permit.thenMany(ReactiveSupport.proceedFlux(joinPoint)
+                    .onErrorResume(e -> drainIfThrottledAsync(rateLimiter, e, target)));
+        }
+
+        // networkRetryTemplate 已為本次嘗試取得 token 時沿用，不重複計費
+        if (tokens != 1 || !OutboundPermit.take(rateLimiter)) {
+            Deadline deadline = DeadlineContext.current();
+            boolean consumed;
+            try {
+                consumed = rateLimiter.tryConsume(tokens, DeadlineContext.capNanos(deadline, maxWaitNanos));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                consumed = false;
+            }
+            if (!consumed) {
+                throw outboundRateLimitExceeded(target, deadline, maxWaitNanos, className, methodName);
+            }
+        }
+        try {
+            return joinPoint.proceed();
+        } catch (Throwable e) {
+            drainIfThrottled(rateLimiter, e, target);
+            throw e;
+        }
+    }
+
+    private static void drainIfThrottled(RateLimiter rateLimiter, Throwable throwable, String target) {
+        try {
+            if (DownstreamThrottling.drainIfThrottled(rateLimiter, throwable)) {
+                logger.warn("外部服務 {} 回應 429，清空客戶端限流 Bucket", target);
+            }
+        } catch (RuntimeException e) {
+            logger.warn("外部服務 {} 回應 429，清空客戶端限流 Bucket 失敗: {}", target, e.getMessage());
+        }
+    }
+
+    /**
+     * 響應式版本：清空完成後才傳遞原異常，使重試在清空後的 Bucket 上等待；清空失敗不取代原異常
+     */
+    private static <T> Mono<T> drainIfThrottledAsync(RateLimiter rateLimiter, Throwable throwable, String target) {
+        return Mono.fromFuture(() -> DownstreamThrottling.drainIfThrottledAsync(rateLimiter, throwable))
+                .doOnNext(drained -> {
+                    if (drained) {
+                        logger.warn("外部服務 {} 回應 429，清空客戶端限流 Bucket", target);
+                    }
+                })
+                .onErrorResume(e -> {
+                    logger.warn("外部服務 {} 回應 429，清空客戶端限流 Bucket 失敗: {}", target, e.getMessage());
+                    return Mono.empty();
+                })
+                .then(Mono.error(throwable));
+    }
+
+    private static ResilienceException outboundRateLimitExceeded(String target, Deadline deadline, long maxWaitNanos,
+                                                                 String className, String methodName) {
+        if (deadline != null && deadline.remainingNanos() < maxWaitNanos) {
+            logger.warn("{} - {}: 等待外部服務 {} 呼叫配額時請求期限已到", className, methodName, target);
+            return ResilienceException.deadlineExceeded(target);
+        }
+        logger.warn("{} - {}: 外部服務 {} 呼叫配額等待逾時", className, methodName, target);
+        return ResilienceException.outboundRateLimitExceeded(target);
+    }
+
+    /**
+     * 應用階層式配額保護
+     * 一次呼叫依序檢查所有層級，拒絕時回報層級名稱且不留下部分消耗；不支援等待模式
+     * Filter 已消耗的 Bucket 不列入檢查，所有層級皆已消耗時直接放行
+     */
+    private Object applyHierarchicalQuota(ProceedingJoinPoint joinPoint, RateLimited rateLimited) throws Throwable {
+        String methodName = joinPoint.getSignature().getName();
+        String className = joinPoint.getSignature().getDeclaringTypeName();
+
+        Quota[] quotas = rateLimited.quotas();
+        List<HierarchicalQuota.Level> levels = new ArrayList<>(quotas.length);
+        for (Quota quota : quotas) {
+            RateLimitDefinition definition = namedRegistry.definition(quota.name());
+            RateLimiter rateLimiter;
+            if (quota.keySource() == RateLimitKeySource.GLOBAL) {
+                rateLimiter = namedRegistry.global(quota.name());
+            } else {
+                String key = namedRegistry.bucketKey(quota.name(),
+                        keyResolver.resolve(joinPoint, quota.keySource(), quota.key()));
+                rateLimiter = bucketRegistry.getOrCreate(key, k -> namedRegistry.create(k, definition));
+            }
+            levels.add(new HierarchicalQuota.Level(quota.level().isEmpty() ? quota.name() : quota.level(),
+                    rateLimiter, definition.getLimit()));
+        }
+        long tokens = costResolver.resolve(joinPoint, rateLimited);
+
+        Class<?> returnType = ReactiveSupport.returnType(joinPoint);
+        for (HierarchicalQuota.Level level : levels) {
+            if (tokens > level.limit()) {
+                return reject(returnType, costExceeded(tokens, level.limit(), className, methodName));
+            }
+        }
+        if (ReactiveSupport.isReactive(returnType)) {
+            RateLimiter servletCharged = RequestRateLimiter.chargedLimiter();
+            Mono<Void> permit = Mono.deferContextual(context -> {
+                List<HierarchicalQuota.Level> uncharged = withoutCharged(
+                        withoutCharged(levels, servletCharged), RequestRateLimiter.chargedLimiter(context));
+                if (uncharged.isEmpty()) {
+                    return Mono.empty();
+                }
+                return Mono.fromFuture(HierarchicalQuota.tryConsumeAsync(uncharged, tokens))
+                        .flatMap(result -> result.isConsumed()
+                                ? Mono.<Void>empty()
+                                : Mono.error(quotaExceeded(result, className, methodName)));
+            });
+            return ReactiveSupport.isMono(returnType)
+                    ? permit.then(ReactiveSupport.proceedMono(joinPoint))
+                    : permit.thenMany(ReactiveSupport.proceedFlux(joinPoint));
+        }
+
+        List<HierarchicalQuota.Level> uncharged = withoutCharged(levels, RequestRateLimiter.chargedLimiter());
+        if (uncharged.isEmpty()) {
+            logger.debug("{} - {}: 配額皆已由 Filter 消耗，不重複消耗", className, methodName);
+            return joinPoint.proceed();
+        }
+        HierarchicalQuota.Result result = HierarchicalQuota.tryConsume(uncharged, tokens);
+        RateLimitHeaders.write(result.limit(), result.probe().getRemainingTokens(), result.rejectedLevel());
+        if (!result.isConsumed()) {
+            throw quotaExceeded(result, className, methodName);
+        }
+        logger.debug("{} - {}: 請求通過階層式配額", className, methodName);
+        return joinPoint.proceed();
+    }
+
+    private static List<HierarchicalQuota.Level> withoutCharged(List<HierarchicalQuota.Level> levels, RateLimiter charged) {
+        if (charged == null) {
+            return levels;
+        }
+        List<HierarchicalQuota.Level> uncharged = new ArrayList<>(levels.size());
+        for (HierarchicalQuota.Level level : levels) {
+            if (level.rateLimiter() != charged) {
+                uncharged.add(level);
+            }
+        }
+        return uncharged;
+    }
+
+    private static ResilienceException quotaExceeded(HierarchicalQuota.Result result, String className, String methodName) {
+        logger.warn("{} - {}: {} 配額已用盡，請稍後再試", className, methodName, result.rejectedLevel());
+        return ResilienceException.rateLimitExceeded(result.rejectedLevel(),
+                Duration.ofNanos(result.probe().getNanosToWaitForRefill()));
+    }
+
+    /**
+     * 解析請求對應的 Rate Limiter
+     * GLOBAL 使用共用 Bucket，其餘依限流鍵從註冊表取得
+     */
+    private RateLimiter resolveRateLimiter(ProceedingJoinPoint joinPoint, RateLimited rateLimited) {
+        boolean batch = rateLimited.value() == RateLimitType.BATCH;
+        if (rateLimited.keySource() == RateLimitKeySource.GLOBAL) {
+            return batch ? batchApiRateLimiter : apiRateLimiter;
+        }
+        String key = keyResolver.resolve(joinPoint, rateLimited);
+        return bucketRegistry.getOrCreate(rateLimited.value().name() + ':' + key,
+                batch ? batchLimiterFactory : apiLimiterFactory);
     }
 
     /**
@@ -67,7 +624,7 @@ public class RateLimiterAspect {
      */
     // @Around("execution(* com.example.controller.*.*(..)) && !execution(* *..batch*(..))")
     // public Object rateLimitConfiguredApis(ProceedingJoinPoint joinPoint) throws Throwable {
-    //     return applyRateLimit(joinPoint, apiRateLimiter, "Configured API");
+    //     return applyRateLimit(joinPoint, apiRateLimiter, apiLimit, 1, 0, "Configured API");
     // }
 
     /**
@@ -76,6 +633,6 @@ public class RateLimiterAspect {
      */
     // @Around("execution(* com.example.controller.*.batch*(..))")
     // public Object rateLimitBatchApis(ProceedingJoinPoint joinPoint) throws Throwable {
-    //     return applyRateLimit(joinPoint, batchApiRateLimiter, "Batch API");
+    //     return applyRateLimit(joinPoint, batchApiRateLimiter, batchLimit, 1, 0, "Batch API");
     // }
 }
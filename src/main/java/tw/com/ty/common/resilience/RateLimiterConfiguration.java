@@ -2,17 +2,38 @@ package tw.com.ty.common.resilience;
 
 import io.github.bucket4j.Bandwidth;
 import io.github.bucket4j.Bucket;
+import io.github.bucket4j.BucketConfiguration;
 import io.github.bucket4j.Refill;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import tw.com.ty.common.resilience.ratelimit.AdaptiveConcurrencyLimiter;
+import tw.com.ty.common.resilience.ratelimit.BucketRegistry;
+import tw.com.ty.common.resilience.ratelimit.LocalBucketFactory;
+import tw.com.ty.common.resilience.ratelimit.NamedRateLimiterRegistry;
+import tw.com.ty.common.resilience.ratelimit.RateLimitBucketFactory;
+import tw.com.ty.common.resilience.ratelimit.RateLimitEngine;
+import tw.com.ty.common.resilience.ratelimit.RateLimiter;
+import tw.com.ty.common.resilience.ratelimit.RateLimiterFactory;
+import tw.com.ty.common.resilience.ratelimit.RateLimiterSnapshotStore;
 
+import java.nio.file.Path;
 import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 /**
  * 通用 Rate Limiter 配置類別
  *
  * 提供可配置的 Rate Limiter 保護，防止 DDOS 攻擊
+ * 預設使用本地 Bucket，分散式模式見 {@link DistributedRateLimiterConfiguration}
  */
 @Configuration
 public class RateLimiterConfiguration {
@@ -35,29 +56,256 @@ public class RateLimiterConfiguration {
     @Value("${rate-limiter.batch.refill-duration-seconds:1}")
     private int batchRefillDurationSeconds;
 
+    @Value("${rate-limiter.registry.max-keys:100000}")
+    private long registryMaxKeys;
+
+    @Value("${rate-limiter.registry.idle-timeout-seconds:300}")
+    private long registryIdleTimeoutSeconds;
+
+    @Value("${rate-limiter.registry.concurrency-level:64}")
+    private int registryConcurrencyLevel;
+
+    @Value("${rate-limiter.distributed.prefetch.batch-size:0}")
+    private long prefetchBatchSize;
+
+    @Value("${rate-limiter.distributed.prefetch.max-over-admission:0}")
+    private long prefetchMaxOverAdmission;
+
+    @Value("${rate-limiter.engine:bucket4j}")
+    private String engine;
+
+    @Value("${rate-limiter.snapshot.path:${java.io.tmpdir}/rate-limiter.snapshot}")
+    private String snapshotPath;
+
+    @Value("${rate-limiter.snapshot.interval-seconds:10}")
+    private long snapshotIntervalSeconds;
+
+    @Value("${rate-limiter.snapshot.max-age-seconds:600}")
+    private long snapshotMaxAgeSeconds;
+
+    @Value("${rate-limiter.limits-reload-interval-seconds:30}")
+    private long limitsReloadIntervalSeconds;
+
+    @Value("${rate-limiter.adaptive.initial-limit:20}")
+    private int adaptiveInitialLimit;
+
+    @Value("${rate-limiter.adaptive.min-limit:1}")
+    private int adaptiveMinLimit;
+
+    @Value("${rate-limiter.adaptive.max-limit:200}")
+    private int adaptiveMaxLimit;
+
+    @Value("${rate-limiter.adaptive.window-millis:1000}")
+    private long adaptiveWindowMillis;
+
+    @Value("${rate-limiter.adaptive.min-samples:10}")
+    private int adaptiveMinSamples;
+
+    @Value("${rate-limiter.adaptive.smoothing:0.2}")
+    private double adaptiveSmoothing;
+
+    @Value("${rate-limiter.adaptive.tolerance:1.5}")
+    private double adaptiveTolerance;
+
     /**
-     * 創建通用API的Rate Limiter
+     * 通用API的 Bucket 配置（全域與各限流鍵共用）
      *
-     * @return Bucket 實例
+     * @return BucketConfiguration 實例
      */
-    @Bean("commonApiRateLimiter")
-    public Bucket apiRateLimiter() {
+    @Bean("commonApiBucketConfiguration")
+    public BucketConfiguration apiBucketConfiguration() {
         Bandwidth limit = Bandwidth.classic(apiCapacity, Refill.greedy(apiRefillTokens, Duration.ofSeconds(apiRefillDurationSeconds)));
-        return Bucket.builder()
+        return BucketConfiguration.builder()
                 .addLimit(limit)
                 .build();
     }
 
     /**
-     * 創建批量API的Rate Limiter
+     * 批量API的 Bucket 配置（全域與各限流鍵共用）
      *
-     * @return Bucket 實例
+     * @return BucketConfiguration 實例
      */
-    @Bean("commonBatchApiRateLimiter")
-    public Bucket batchApiRateLimiter() {
+    @Bean("commonBatchBucketConfiguration")
+    public BucketConfiguration batchBucketConfiguration() {
         Bandwidth limit = Bandwidth.classic(batchCapacity, Refill.greedy(batchRefillTokens, Duration.ofSeconds(batchRefillDurationSeconds)));
-        return Bucket.builder()
+        return BucketConfiguration.builder()
                 .addLimit(limit)
                 .build();
     }
+
+    /**
+     * 本地 Bucket 工廠（rate-limiter.mode=local，預設）
+     *
+     * @return RateLimitBucketFactory 實例
+     */
+    @Bean("rateLimitBucketFactory")
+    @ConditionalOnProperty(name = "rate-limiter.mode", havingValue = "local", matchIfMissing = true)
+    public RateLimitBucketFactory localBucketFactory() {
+        return new LocalBucketFactory();
+    }
+
+    /**
+     * 創建通用API的Rate Limiter
+     *
+     * @return Bucket 實例
+     */
+    @Bean("commonApiRateLimiter")
+    public Bucket apiRateLimiter(RateLimitBucketFactory bucketFactory,
+                                 @Qualifier("commonApiBucketConfiguration") BucketConfiguration configuration) {
+        return bucketFactory.create("API", configuration);
+    }
+
+    /**
+     * 創建批量API的Rate Limiter
+     *
+     * @return Bucket 實例
+     */
+    @Bean("commonBatchApiRateLimiter")
+    public Bucket batchApiRateLimiter(RateLimitBucketFactory bucketFactory,
+                                      @Qualifier("commonBatchBucketConfiguration") BucketConfiguration configuration) {
+        return bucketFactory.create("BATCH", configuration);
+    }
+
+    /**
+     * 分散式 Bucket 預取 token 與同步遠端呼叫使用的執行器（每個任務一條虛擬執行緒）
+     *
+     * @return ExecutorService 實例
+     */
+    @Bean(name = "rateLimiterExecutor", destroyMethod = "shutdown")
+    public ExecutorService rateLimiterExecutor() {
+        return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("rate-limiter-", 0).factory());
+    }
+
+    /**
+     * 等待模式下非同步消耗的計時排程器
+     * 僅負責計時，預約時間到達後由 rateLimiterExecutor 完成 future 並執行下游，不執行業務邏輯或週期性工作
+     *
+     * @return ScheduledExecutorService 實例
+     */
+    @Bean(name = "rateLimiterScheduler", destroyMethod = "shutdown")
+    public ScheduledExecutorService rateLimiterScheduler() {
+        return Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("rate-limiter-scheduler").daemon().factory());
+    }
+
+    /**
+     * 週期性維護工作的排程器：狀態快照寫檔、具名限流器重新載入、負載卸載取樣
+     * 與計時排程器分開，檔案 I/O 或重新載入較慢時不延後等待中請求的放行
+     *
+     * @return ScheduledExecutorService 實例
+     */
+    @Bean(name = "rateLimiterMaintenanceScheduler", destroyMethod = "shutdown")
+    public ScheduledExecutorService rateLimiterMaintenanceScheduler() {
+        return Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("rate-limiter-maintenance").daemon().factory());
+    }
+
+    /**
+     * 本地 Rate Limiter 狀態快照（rate-limiter.snapshot.enabled=true）
+     * 啟動時載入前一次的快照，定期與關閉時寫入，滾動部署重啟後不會回到滿容量
+     *
+     * @return RateLimiterSnapshotStore 實例
+     */
+    @Bean(name = "rateLimiterSnapshotStore", destroyMethod = "close")
+    @ConditionalOnProperty(name = "rate-limiter.snapshot.enabled", havingValue = "true")
+    public RateLimiterSnapshotStore rateLimiterSnapshotStore(
+            @Qualifier("rateLimiterMaintenanceScheduler") ScheduledExecutorService maintenanceScheduler) {
+        RateLimiterSnapshotStore snapshotStore = new RateLimiterSnapshotStore(Path.of(snapshotPath),
+                Duration.ofSeconds(snapshotMaxAgeSeconds));
+        long interval = Math.max(1, snapshotIntervalSeconds);
+        maintenanceScheduler.scheduleWithFixedDelay(snapshotStore::snapshotQuietly, interval, interval, TimeUnit.SECONDS);
+        return snapshotStore;
+    }
+
+    /**
+     * 創建 Rate Limiter 工廠
+     * 分散式模式且 prefetch.batch-size 大於 0 時，於本地預取 token 以省去每次請求的網路往返
+     * 本地模式下 engine=gcra 時，單一頻寬的限流改用無鎖 GCRA 實作；啟用快照時還原重啟前的狀態
+     *
+     * @return RateLimiterFactory 實例
+     */
+    @Bean("rateLimiterFactory")
+    public RateLimiterFactory rateLimiterFactory(RateLimitBucketFactory bucketFactory,
+                                                 @Qualifier("rateLimiterExecutor") ExecutorService rateLimiterExecutor,
+                                                 @Qualifier("rateLimiterScheduler") ScheduledExecutorService rateLimiterScheduler,
+                                                 ObjectProvider<RateLimiterSnapshotStore> snapshotStore) {
+        return new RateLimiterFactory(bucketFactory, prefetchBatchSize, prefetchMaxOverAdmission,
+                rateLimiterExecutor, rateLimiterScheduler,
+                RateLimitEngine.valueOf(engine.trim().toUpperCase(Locale.ROOT)),
+                snapshotStore.getIfAvailable());
+    }
+
+    /**
+     * 創建通用API的全域 Rate Limiter，由 RateLimiterAspect 與 Filter 層級限流共用同一個實例
+     * GCRA 引擎與預取模式各自持有狀態，分別包裝會使全域限額加倍
+     *
+     * @return RateLimiter 實例
+     */
+    @Bean("commonApiLimiter")
+    public RateLimiter apiLimiter(RateLimiterFactory rateLimiterFactory,
+                                  @Qualifier("commonApiRateLimiter") Bucket bucket,
+                                  @Qualifier("commonApiBucketConfiguration") BucketConfiguration configuration) {
+        return rateLimiterFactory.wrap("API", bucket, configuration);
+    }
+
+    /**
+     * 創建批量API的全域 Rate Limiter，由 RateLimiterAspect 與 Filter 層級限流共用同一個實例
+     *
+     * @return RateLimiter 實例
+     */
+    @Bean("commonBatchApiLimiter")
+    public RateLimiter batchApiLimiter(RateLimiterFactory rateLimiterFactory,
+                                       @Qualifier("commonBatchApiRateLimiter") Bucket bucket,
+                                       @Qualifier("commonBatchBucketConfiguration") BucketConfiguration configuration) {
+        return rateLimiterFactory.wrap("BATCH", bucket, configuration);
+    }
+
+    /**
+     * 創建依限流鍵（使用者、IP 等）保存 Rate Limiter 的註冊表
+     *
+     * @return BucketRegistry 實例
+     */
+    @Bean("rateLimitBucketRegistry")
+    public BucketRegistry<RateLimiter> rateLimitBucketRegistry() {
+        return new BucketRegistry<>(registryMaxKeys,
+                Duration.ofSeconds(registryIdleTimeoutSeconds).toNanos(),
+                registryConcurrencyLevel);
+    }
+
+    /**
+     * 創建自適應並發限制器設定（RateLimitType.ADAPTIVE 的每個方法共用）
+     *
+     * @return AdaptiveConcurrencyLimiter.Settings 實例
+     */
+    @Bean("adaptiveConcurrencyLimiterSettings")
+    public AdaptiveConcurrencyLimiter.Settings adaptiveConcurrencyLimiterSettings() {
+        int minLimit = Math.max(1, adaptiveMinLimit);
+        int maxLimit = Math.max(minLimit, adaptiveMaxLimit);
+        return new AdaptiveConcurrencyLimiter.Settings(
+                Math.min(maxLimit, Math.max(minLimit, adaptiveInitialLimit)),
+                minLimit,
+                maxLimit,
+                Duration.ofMillis(adaptiveWindowMillis).toNanos(),
+                adaptiveMinSamples,
+                adaptiveSmoothing,
+                adaptiveTolerance);
+    }
+
+    /**
+     * 創建具名 Rate Limiter 註冊表（rate-limiter.limits.&lt;name&gt;.*）
+     * limits-reload-interval-seconds 大於 0 時定期重新綁定屬性，配置變動即時套用至既有 Bucket
+     *
+     * @return NamedRateLimiterRegistry 實例
+     */
+    @Bean("namedRateLimiterRegistry")
+    public NamedRateLimiterRegistry namedRateLimiterRegistry(Environment environment,
+                                                             RateLimiterFactory rateLimiterFactory,
+                                                             @Qualifier("rateLimiterMaintenanceScheduler") ScheduledExecutorService maintenanceScheduler) {
+        NamedRateLimiterRegistry registry = new NamedRateLimiterRegistry(environment, rateLimiterFactory);
+        if (limitsReloadIntervalSeconds > 0) {
+            maintenanceScheduler.scheduleWithFixedDelay(registry::reload,
+                    limitsReloadIntervalSeconds, limitsReloadIntervalSeconds, TimeUnit.SECONDS);
+        }
+        return registry;
+    }
 }
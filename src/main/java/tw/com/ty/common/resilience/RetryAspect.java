@@ -3,92 +3,243 @@ package tw.com.ty.common.resilience;
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.retry.backoff.ExponentialBackOffPolicy;
-import org.springframework.retry.policy.SimpleRetryPolicy;
-import org.springframework.retry.support.RetryTemplate;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
 import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+import tw.com.ty.common.exception.ResilienceException;
+import tw.com.ty.common.resilience.annotation.JitterStrategy;
 import tw.com.ty.common.resilience.annotation.Retryable;
+import tw.com.ty.common.resilience.deadline.Deadline;
+import tw.com.ty.common.resilience.deadline.DeadlineContext;
+import tw.com.ty.common.resilience.retry.ExponentialBackOff;
+import tw.com.ty.common.resilience.retry.RetryBudget;
+import tw.com.ty.common.resilience.retry.RetryDefinition;
+import tw.com.ty.common.resilience.support.ReactiveSupport;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 /**
  * 重試切面
  *
  * 處理 @Retryable 註解的方法重試邏輯
+ * 註解於每個方法第一次呼叫時解析為 {@link RetryDefinition} 並快取，第一次即成功的呼叫不配置任何物件
+ * 回傳 Mono / Flux 的方法於錯誤訊號時重新訂閱，回傳 CompletableFuture 的方法於非同步失敗時重新呼叫，
+ * 兩者的退避皆以計時器排程，不阻塞呼叫端、event loop 或虛擬執行緒的載體執行緒
+ * 退避時間依抖動策略隨機化，每次重試需取得全域重試預算（{@link RetryBudget}），預算不足時不再重試
+ * 請求有期限（{@link DeadlineContext}）時，退避結束前期限就會到達的重試直接略過，拋出最後的異常
+ * 熔斷器開啟的異常不重試；彈性異常的建議重試時間（retryAfter）長於退避時間時也不重試
+ * 順序在 RateLimiterAspect 之外，與 @RateLimited(outbound = true) 並用時每次重試都重新取得 token，
+ * 重試同樣受外部服務配額限制
  */
 @Aspect
 @Component
+@Order(Ordered.LOWEST_PRECEDENCE - 100)
 public class RetryAspect {
 
     private static final Logger logger = LoggerFactory.getLogger(RetryAspect.class);
 
-    @Around("@annotation(retryable)")
-    public Object retryOnException(ProceedingJoinPoint joinPoint, Retryable retryable) throws Throwable {
-        String methodName = joinPoint.getSignature().toShortString();
-        logger.debug("🔄 Applying retry logic to method: {}", methodName);
+    private final ConcurrentMap<Method, RetryDefinition> definitions = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService retryScheduler;
+    private final Executor retryExecutor;
+    private final RetryBudget retryBudget;
+    private final JitterStrategy defaultJitter;
 
-        // 創建自定義的重試模板
-        RetryTemplate retryTemplate = createRetryTemplate(retryable);
+    public RetryAspect(@Qualifier("retryScheduler") ScheduledExecutorService retryScheduler,
+                       @Qualifier("retryExecutor") Executor retryExecutor,
+                       @Qualifier("retryBudget") RetryBudget retryBudget,
+                       @Value("${retry.jitter:equal}") String defaultJitter) {
+        this.retryScheduler = retryScheduler;
+        this.retryExecutor = retryExecutor;
+        this.retryBudget = retryBudget;
+        this.defaultJitter = ExponentialBackOff.parseJitter(defaultJitter);
+    }
 
-        try {
-            return retryTemplate.execute(context -> {
-                int attempt = context.getRetryCount() + 1;
-                logger.debug("🎯 Executing method {} (attempt {})", methodName, attempt);
+    @Around("@annotation(retryable)")
+    public Object retryOnException(ProceedingJoinPoint joinPoint, Retryable retryable) throws Throwable {
+        RetryDefinition definition = definitionOf(joinPoint, retryable);
+        Class<?> returnType = ReactiveSupport.returnType(joinPoint);
+        if (ReactiveSupport.isMono(returnType)) {
+            return Mono.deferContextual(context -> ReactiveSupport.proceedMono(joinPoint)
+                    .retryWhen(reactiveRetry(definition, DeadlineContext.current(context))))
+                    .doOnSubscribe(subscription -> retryBudget.recordCall());
+        }
+        if (ReactiveSupport.isFlux(returnType)) {
+            return Flux.deferContextual(context -> ReactiveSupport.proceedFlux(joinPoint)
+                    .retryWhen(reactiveRetry(definition, DeadlineContext.current(context))))
+                    .doOnSubscribe(subscription -> retryBudget.recordCall());
+        }
+        Deadline deadline = DeadlineContext.current();
+        if (ReactiveSupport.isCompletionStage(returnType)) {
+            retryBudget.recordCall();
+            CompletableFuture<Object> result = new CompletableFuture<>();
+            attemptAsync(joinPoint, definition, deadline, 1, 0, result);
+            return result;
+        }
 
+        retryBudget.recordCall();
+        long previousBackOffMillis = 0;
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return joinPoint.proceed();
+            } catch (Throwable e) {
+                long backOffMillis = nextBackOff(definition, deadline, attempt, previousBackOffMillis, e);
+                if (backOffMillis < 0) {
+                    throw e;
+                }
+                previousBackOffMillis = backOffMillis;
                 try {
-                    Object result = joinPoint.proceed();
-                    logger.debug("✅ Method {} succeeded on attempt {}", methodName, attempt);
-                    return result;
-                } catch (Throwable e) {
-                    logger.warn("❌ Method {} failed on attempt {}: {}", methodName, attempt, e.getMessage());
-
-                    // 檢查是否是可重試的異常
-                    if (isRetryableException(e, retryable)) {
-                        logger.info("🔄 Retrying method {} due to: {}", methodName, e.getClass().getSimpleName());
-                        throw e; // 重新拋出異常以觸發重試
-                    } else {
-                        logger.warn("🚫 Not retrying method {} for non-retryable exception: {}", methodName, e.getClass().getSimpleName());
-                        throw new RuntimeException(e); // 包裝為 RuntimeException 避免重試
-                    }
+                    Thread.sleep(backOffMillis);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    e.addSuppressed(interrupted);
+                    throw e;
                 }
-            });
-        } catch (Exception e) {
-            logger.error("💥 Method {} failed after all retry attempts: {}", methodName, e.getMessage());
-            throw e.getCause() != null ? e.getCause() : e;
+            }
         }
     }
 
-    private RetryTemplate createRetryTemplate(Retryable retryable) {
-        RetryTemplate retryTemplate = new RetryTemplate();
+    /**
+     * 決定第 attempt 次嘗試失敗後是否重試
+     *
+     * @param deadline 請求期限，沒有時為 null
+     * @return 重試前的退避時間（毫秒），不重試時回傳 -1
+     */
+    private long nextBackOff(RetryDefinition definition, Deadline deadline, int attempt, long previousBackOffMillis,
+                             Throwable failure) {
+        if (!definition.isRetryable(failure)) {
+            logger.warn("🚫 Not retrying method {} for non-retryable exception: {}",
+                    definition.getName(), failure.getClass().getSimpleName());
+            return -1;
+        }
+        if (attempt >= definition.getMaxAttempts()) {
+            logger.error("💥 Method {} failed after all retry attempts: {}", definition.getName(), failure.getMessage());
+            return -1;
+        }
+        long backOffMillis = definition.backOffMillis(attempt, previousBackOffMillis);
+        if (failure instanceof ResilienceException resilienceException && resilienceException.getRetryAfter() != null
+                && resilienceException.getRetryAfter().toMillis() > backOffMillis) {
+            logger.warn("⏳ Not retrying method {} after attempt {}: retry-after {}ms exceeds backoff {}ms",
+                    definition.getName(), attempt, resilienceException.getRetryAfter().toMillis(), backOffMillis);
+            return -1;
+        }
+        if (deadline != null && deadline.remainingNanos() <= TimeUnit.MILLISECONDS.toNanos(backOffMillis)) {
+            logger.warn("⌛ Request deadline reached before next attempt, not retrying method {} after attempt {}: {}",
+                    definition.getName(), attempt, failure.getMessage());
+            return -1;
+        }
+        if (!retryBudget.tryAcquireRetry()) {
+            logger.warn("⛔ Retry budget exhausted, not retrying method {} after attempt {}: {}",
+                    definition.getName(), attempt, failure.getMessage());
+            return -1;
+        }
+        logger.warn("❌ Method {} failed on attempt {}: {}, retrying in {}ms",
+                definition.getName(), attempt, failure.getMessage(), backOffMillis);
+        return backOffMillis;
+    }
 
-        // 配置退避策略
-        ExponentialBackOffPolicy backOffPolicy = new ExponentialBackOffPolicy();
-        backOffPolicy.setInitialInterval(retryable.initialDelay());
-        backOffPolicy.setMultiplier(retryable.multiplier());
-        backOffPolicy.setMaxInterval(retryable.maxDelay());
-        retryTemplate.setBackOffPolicy(backOffPolicy);
+    /**
+     * 響應式重試：錯誤訊號可重試時以 Mono.delay 計時後重新訂閱（重新呼叫方法），
+     * 不可重試、次數或預算用盡時原樣傳遞最後的錯誤；Flux 重新訂閱時從頭開始
+     */
+    private Retry reactiveRetry(RetryDefinition definition, Deadline deadline) {
+        return Retry.from(signals -> {
+            // 每次訂閱各自保存上一次的退避時間（去相關抖動使用）
+            long[] previousBackOffMillis = new long[1];
+            return signals.concatMap(signal -> {
+                long backOffMillis = nextBackOff(definition, deadline, (int) signal.totalRetries() + 1,
+                        previousBackOffMillis[0], signal.failure());
+                if (backOffMillis < 0) {
+                    return Mono.error(signal.failure());
+                }
+                previousBackOffMillis[0] = backOffMillis;
+                return Mono.delay(Duration.ofMillis(backOffMillis));
+            });
+        });
+    }
 
-        // 配置重試策略
-        Map<Class<? extends Throwable>, Boolean> retryableExceptions = new HashMap<>();
-        for (Class<? extends Throwable> exceptionClass : retryable.value()) {
-            retryableExceptions.put(exceptionClass, true);
+    /**
+     * CompletableFuture 重試：同步拋出與非同步失敗皆視為失敗，
+     * 可重試時由排程器於退避時間到達後交給執行器重新呼叫（帶入請求期限），結果被取消時不再重試
+     */
+    private void attemptAsync(ProceedingJoinPoint joinPoint, RetryDefinition definition, Deadline deadline, int attempt,
+                              long previousBackOffMillis, CompletableFuture<Object> result) {
+        if (result.isDone()) {
+            return;
+        }
+        CompletionStage<?> stage;
+        try {
+            stage = (CompletionStage<?>) joinPoint.proceed();
+        } catch (Throwable e) {
+            onAsyncFailure(joinPoint, definition, deadline, attempt, previousBackOffMillis, e, result);
+            return;
         }
+        if (stage == null) {
+            result.complete(null);
+            return;
+        }
+        stage.whenComplete((value, error) -> {
+            if (error == null) {
+                result.complete(value);
+            } else {
+                onAsyncFailure(joinPoint, definition, deadline, attempt, previousBackOffMillis,
+                        ReactiveSupport.unwrapAsyncFailure(error), result);
+            }
+        });
+    }
 
-        SimpleRetryPolicy retryPolicy = new SimpleRetryPolicy(retryable.maxAttempts(), retryableExceptions, true);
-        retryTemplate.setRetryPolicy(retryPolicy);
+    private void onAsyncFailure(ProceedingJoinPoint joinPoint, RetryDefinition definition, Deadline deadline,
+                                int attempt, long previousBackOffMillis, Throwable failure,
+                                CompletableFuture<Object> result) {
+        long backOffMillis = nextBackOff(definition, deadline, attempt, previousBackOffMillis, failure);
+        if (backOffMillis < 0) {
+            result.completeExceptionally(failure);
+            return;
+        }
+        Runnable retry = DeadlineContext.propagate(deadline,
+                () -> attemptAsync(joinPoint, definition, deadline, attempt + 1, backOffMillis, result));
+        execute(() -> retryScheduler.schedule(() -> execute(() -> retryExecutor.execute(retry), failure, result),
+                backOffMillis, TimeUnit.MILLISECONDS), failure, result);
+    }
 
-        return retryTemplate;
+    /**
+     * 排程器或執行器已關閉時以最後的失敗結束
+     */
+    private static void execute(Runnable submission, Throwable failure, CompletableFuture<Object> result) {
+        try {
+            submission.run();
+        } catch (RejectedExecutionException e) {
+            failure.addSuppressed(e);
+            result.completeExceptionally(failure);
+        }
     }
 
-    private boolean isRetryableException(Throwable e, Retryable retryable) {
-        for (Class<? extends Throwable> exceptionClass : retryable.value()) {
-            if (exceptionClass.isAssignableFrom(e.getClass())) {
-                return true;
-            }
+    /**
+     * 取得方法的重試定義，只在第一次呼叫時解析註解
+     */
+    private RetryDefinition definitionOf(ProceedingJoinPoint joinPoint, Retryable retryable) {
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        RetryDefinition definition = definitions.get(method);
+        if (definition == null) {
+            definition = definitions.computeIfAbsent(method,
+                    m -> RetryDefinition.of(joinPoint.getSignature().toShortString(), retryable, defaultJitter));
         }
-        return false;
+        return definition;
     }
 }
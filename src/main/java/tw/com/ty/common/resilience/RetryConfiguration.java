@@ -2,15 +2,26 @@ package tw.com.ty.common.resilience;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.retry.annotation.EnableRetry;
-import org.springframework.retry.backoff.ExponentialBackOffPolicy;
 import org.springframework.retry.policy.SimpleRetryPolicy;
 import org.springframework.retry.support.RetryTemplate;
+import tw.com.ty.common.resilience.ratelimit.NamedRateLimiterRegistry;
+import tw.com.ty.common.resilience.retry.BudgetedRetryPolicy;
+import tw.com.ty.common.resilience.retry.ExponentialBackOff;
+import tw.com.ty.common.resilience.retry.JitteredBackOffPolicy;
+import tw.com.ty.common.resilience.retry.RateLimitedRetryTemplate;
+import tw.com.ty.common.resilience.retry.RetryBudget;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
 
 /**
  * 重試配置類
@@ -23,28 +34,64 @@ public class RetryConfiguration {
 
     private static final Logger logger = LoggerFactory.getLogger(RetryConfiguration.class);
 
+    @Value("${retry.jitter:equal}")
+    private String jitter;
+
+    /**
+     * 全域重試預算，@Retryable 與下列 RetryTemplate 共用
+     * 每次呼叫存入 ratio 次重試額度，另保留每秒 min-retries-per-second 次的最低重試量
+     */
+    @Bean(name = "retryBudget")
+    public RetryBudget retryBudget(@Value("${retry.budget.enabled:true}") boolean enabled,
+                                   @Value("${retry.budget.ratio:0.2}") double ratio,
+                                   @Value("${retry.budget.max-tokens:100}") long maxTokens,
+                                   @Value("${retry.budget.min-retries-per-second:10}") long minRetriesPerSecond) {
+        if (!enabled) {
+            logger.info("⚠️ Retry budget disabled");
+            return RetryBudget.unlimited();
+        }
+        logger.info("✅ Retry budget configured: ratio={}, maxTokens={}, minRetriesPerSecond={}",
+                ratio, maxTokens, minRetriesPerSecond);
+        return new RetryBudget(ratio, maxTokens, minRetriesPerSecond);
+    }
+
+    /**
+     * 非同步重試的退避計時排程器
+     * 僅負責在退避時間到達時觸發重試，不執行業務邏輯
+     */
+    @Bean(name = "retryScheduler", destroyMethod = "shutdown")
+    public ScheduledExecutorService retryScheduler() {
+        return Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("retry-scheduler").daemon().factory());
+    }
+
+    /**
+     * 非同步重試重新呼叫方法使用的執行器（每個任務一條虛擬執行緒）
+     * 方法在回傳 CompletableFuture 前有阻塞工作時也不會佔用排程器或 event loop
+     */
+    @Bean(name = "retryExecutor", destroyMethod = "shutdown")
+    public ExecutorService retryExecutor() {
+        return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("retry-", 0).factory());
+    }
+
     /**
      * 通用重試模板
      */
     @Bean
-    public RetryTemplate defaultRetryTemplate() {
+    public RetryTemplate defaultRetryTemplate(@Qualifier("retryBudget") RetryBudget retryBudget) {
         RetryTemplate retryTemplate = new RetryTemplate();
 
-        // 指數退避策略
-        ExponentialBackOffPolicy backOffPolicy = new ExponentialBackOffPolicy();
-        backOffPolicy.setInitialInterval(1000); // 1秒
-        backOffPolicy.setMultiplier(2.0); // 每次重試間隔翻倍
-        backOffPolicy.setMaxInterval(30000); // 最大間隔30秒
-        retryTemplate.setBackOffPolicy(backOffPolicy);
+        // 指數退避策略：1秒起，每次重試間隔翻倍，最大間隔30秒
+        retryTemplate.setBackOffPolicy(jitteredBackOff(1000, 30000, 2.0));
 
         // 重試策略 - 通用異常
         Map<Class<? extends Throwable>, Boolean> retryableExceptions = new HashMap<>();
         retryableExceptions.put(Exception.class, true); // 所有異常都重試
 
         SimpleRetryPolicy retryPolicy = new SimpleRetryPolicy(3, retryableExceptions, true);
-        retryTemplate.setRetryPolicy(retryPolicy);
+        retryTemplate.setRetryPolicy(new BudgetedRetryPolicy(retryPolicy, retryBudget));
 
-        logger.info("✅ Default RetryTemplate configured: maxAttempts={}, backOff=exponential", 3);
+        logger.info("✅ Default RetryTemplate configured: maxAttempts={}, backOff=exponential, jitter={}", 3, jitter);
         return retryTemplate;
     }
 
@@ -52,15 +99,11 @@ public class RetryConfiguration {
      * 數據庫連接重試模板
      */
     @Bean
-    public RetryTemplate databaseRetryTemplate() {
+    public RetryTemplate databaseRetryTemplate(@Qualifier("retryBudget") RetryBudget retryBudget) {
         RetryTemplate retryTemplate = new RetryTemplate();
 
-        // 指數退避策略 - 更長的等待時間
-        ExponentialBackOffPolicy backOffPolicy = new ExponentialBackOffPolicy();
-        backOffPolicy.setInitialInterval(5000); // 5秒
-        backOffPolicy.setMultiplier(2.0); // 每次重試間隔翻倍
-        backOffPolicy.setMaxInterval(60000); // 最大間隔60秒
-        retryTemplate.setBackOffPolicy(backOffPolicy);
+        // 指數退避策略 - 更長的等待時間：5秒起，每次重試間隔翻倍，最大間隔60秒
+        retryTemplate.setBackOffPolicy(jitteredBackOff(5000, 60000, 2.0));
 
         // 重試策略 - 數據庫連接相關異常
         Map<Class<? extends Throwable>, Boolean> retryableExceptions = new HashMap<>();
@@ -70,25 +113,34 @@ public class RetryConfiguration {
         // R2DBC 異常會動態添加（如果存在）
 
         SimpleRetryPolicy retryPolicy = new SimpleRetryPolicy(10, retryableExceptions, true); // 最多10次重試
-        retryTemplate.setRetryPolicy(retryPolicy);
+        retryTemplate.setRetryPolicy(new BudgetedRetryPolicy(retryPolicy, retryBudget));
 
-        logger.info("✅ Database RetryTemplate configured: maxAttempts={}, backOff=exponential", 10);
+        logger.info("✅ Database RetryTemplate configured: maxAttempts={}, backOff=exponential, jitter={}", 10, jitter);
         return retryTemplate;
     }
 
     /**
      * 網路調用重試模板
+     * 設定 rate-limiter.outbound.network-retry-limiter 時，每次嘗試（包含第一次）前從該具名限流器取得 token，
+     * 與 @RateLimited(outbound = true) 的呼叫共用外部服務配額
      */
     @Bean
-    public RetryTemplate networkRetryTemplate() {
-        RetryTemplate retryTemplate = new RetryTemplate();
-
-        // 指數退避策略 - 網路調用適中的等待時間
-        ExponentialBackOffPolicy backOffPolicy = new ExponentialBackOffPolicy();
-        backOffPolicy.setInitialInterval(2000); // 2秒
-        backOffPolicy.setMultiplier(1.5); // 適中的倍數
-        backOffPolicy.setMaxInterval(15000); // 最大間隔15秒
-        retryTemplate.setBackOffPolicy(backOffPolicy);
+    public RetryTemplate networkRetryTemplate(@Qualifier("retryBudget") RetryBudget retryBudget,
+                                              ObjectProvider<NamedRateLimiterRegistry> namedRegistry,
+                                              @Value("${rate-limiter.outbound.network-retry-limiter:}") String outboundLimiter,
+                                              @Value("${rate-limiter.outbound.max-wait-millis:30000}") long outboundMaxWaitMillis) {
+        RetryTemplate retryTemplate;
+        NamedRateLimiterRegistry registry = namedRegistry.getIfAvailable();
+        if (!outboundLimiter.isBlank() && registry != null) {
+            String target = outboundLimiter.trim();
+            retryTemplate = new RateLimitedRetryTemplate(target, registry.global(target), outboundMaxWaitMillis);
+            logger.info("✅ Network RetryTemplate shares outbound rate limiter: {}", target);
+        } else {
+            retryTemplate = new RetryTemplate();
+        }
+
+        // 指數退避策略 - 網路調用適中的等待時間：2秒起，倍數1.5，最大間隔15秒
+        retryTemplate.setBackOffPolicy(jitteredBackOff(2000, 15000, 1.5));
 
         // 重試策略 - 網路相關異常
         Map<Class<? extends Throwable>, Boolean> retryableExceptions = new HashMap<>();
@@ -98,9 +150,17 @@ public class RetryConfiguration {
         retryableExceptions.put(org.springframework.web.client.ResourceAccessException.class, true);
 
         SimpleRetryPolicy retryPolicy = new SimpleRetryPolicy(5, retryableExceptions, true); // 最多5次重試
-        retryTemplate.setRetryPolicy(retryPolicy);
+        retryTemplate.setRetryPolicy(new BudgetedRetryPolicy(retryPolicy, retryBudget));
 
-        logger.info("✅ Network RetryTemplate configured: maxAttempts={}, backOff=exponential", 5);
+        logger.info("✅ Network RetryTemplate configured: maxAttempts={}, backOff=exponential, jitter={}", 5, jitter);
         return retryTemplate;
     }
+
+    /**
+     * 依 retry.jitter 建立帶抖動的指數退避策略
+     */
+    private JitteredBackOffPolicy jitteredBackOff(long initialInterval, long maxInterval, double multiplier) {
+        return new JitteredBackOffPolicy(new ExponentialBackOff(initialInterval, maxInterval, multiplier,
+                ExponentialBackOff.parseJitter(jitter)));
+    }
 }
@@ -0,0 +1,234 @@
+package tw.com.ty.common.resilience;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import tw.com.ty.common.exception.ResilienceException;
+import tw.com.ty.common.resilience.annotation.TimeLimited;
+import tw.com.ty.common.resilience.deadline.Deadline;
+import tw.com.ty.common.resilience.deadline.DeadlineContext;
+import tw.com.ty.common.resilience.support.ReactiveSupport;
+import tw.com.ty.common.resilience.timelimit.TimeLimitDefinition;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.UndeclaredThrowableException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * 逾時限制 AOP切面
+ *
+ * 處理 @TimeLimited 註解的方法，逾時拋出 EXTERNAL_SERVICE_TIMEOUT
+ * 阻塞方法在 timeLimiterExecutor 的虛擬執行緒上執行（帶入 RequestAttributes），逾時時中斷該執行緒
+ * Mono 以 Mono.timeout 限制整體時間，Flux 限制相鄰元素（含第一個元素）的間隔，逾時時取消上游訂閱
+ * CompletionStage 由 timeLimiterScheduler 計時，逾時時以 Future.cancel(true) 取消
+ * 順序在 CircuitBreakerAspect 之內：逾時計為熔斷器的失敗，每次重試各自計時
+ * 請求有期限（{@link DeadlineContext}）時，實際限制取設定值與剩餘時間的較小者；
+ * 因期限到達而中止時拋出 deadlineExceeded，期限已過則不執行方法
+ */
+@Aspect
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE - 25)
+public class TimeLimiterAspect {
+
+    private static final Logger logger = LoggerFactory.getLogger(TimeLimiterAspect.class);
+
+    private static final String INSTANCE_PREFIX = "time-limiter.instances.";
+
+    private final Environment environment;
+    private final ExecutorService timeLimiterExecutor;
+    private final ScheduledExecutorService timeLimiterScheduler;
+    private final long defaultTimeoutMillis;
+    private final ConcurrentMap<Method, TimeLimitDefinition> definitions = new ConcurrentHashMap<>();
+
+    public TimeLimiterAspect(Environment environment,
+                             @Qualifier("timeLimiterExecutor") ExecutorService timeLimiterExecutor,
+                             @Qualifier("timeLimiterScheduler") ScheduledExecutorService timeLimiterScheduler,
+                             @Value("${time-limiter.timeout-millis:5000}") long defaultTimeoutMillis) {
+        this.environment = environment;
+        this.timeLimiterExecutor = timeLimiterExecutor;
+        this.timeLimiterScheduler = timeLimiterScheduler;
+        this.defaultTimeoutMillis = defaultTimeoutMillis;
+    }
+
+    @Around("@annotation(timeLimited)")
+    public Object timeLimitedMethods(ProceedingJoinPoint joinPoint, TimeLimited timeLimited) throws Throwable {
+        TimeLimitDefinition definition = definitionOf(joinPoint, timeLimited);
+        Class<?> returnType = ReactiveSupport.returnType(joinPoint);
+        if (ReactiveSupport.isMono(returnType)) {
+            return Mono.deferContextual(context -> {
+                Deadline deadline = DeadlineContext.current(context);
+                long limitNanos = limitNanos(definition, deadline);
+                if (limitNanos <= 0) {
+                    return Mono.error(expired(definition, deadline));
+                }
+                return ReactiveSupport.proceedMono(joinPoint).timeout(Duration.ofNanos(limitNanos),
+                        Mono.defer(() -> Mono.error(expired(definition, deadline))));
+            });
+        }
+        if (ReactiveSupport.isFlux(returnType)) {
+            return Flux.deferContextual(context -> {
+                Deadline deadline = DeadlineContext.current(context);
+                Flux<Object> source = ReactiveSupport.proceedFlux(joinPoint);
+                if (deadline == null) {
+                    return source.timeout(definition.getTimeout(), Flux.defer(() -> Flux.error(timeout(definition))));
+                }
+                // 每個元素的間隔限制都重新以剩餘時間計算，整個串流不會超過請求期限
+                return source.timeout(Mono.defer(() -> Mono.delay(Duration.ofNanos(limitNanos(definition, deadline)))),
+                        element -> Mono.delay(Duration.ofNanos(limitNanos(definition, deadline))),
+                        Flux.defer(() -> Flux.error(expired(definition, deadline))));
+            });
+        }
+        if (ReactiveSupport.isCompletionStage(returnType)) {
+            return limitAsync(joinPoint, definition);
+        }
+        return limitBlocking(joinPoint, definition);
+    }
+
+    /**
+     * 阻塞方法：於虛擬執行緒上執行，呼叫端最多等待至逾時
+     */
+    private Object limitBlocking(ProceedingJoinPoint joinPoint, TimeLimitDefinition definition) throws Throwable {
+        Deadline deadline = DeadlineContext.current();
+        long limitNanos = limitNanos(definition, deadline);
+        if (limitNanos <= 0) {
+            throw expired(definition, deadline);
+        }
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        Future<Object> future;
+        try {
+            future = timeLimiterExecutor.submit(DeadlineContext.propagate(deadline, () -> {
+                RequestContextHolder.setRequestAttributes(attributes);
+                try {
+                    return joinPoint.proceed();
+                } catch (Exception | Error e) {
+                    throw e;
+                } catch (Throwable e) {
+                    throw new UndeclaredThrowableException(e);
+                } finally {
+                    RequestContextHolder.resetRequestAttributes();
+                }
+            }));
+        } catch (RejectedExecutionException e) {
+            // 執行器已關閉（應用程式停止中），改在呼叫端執行緒上執行
+            return joinPoint.proceed();
+        }
+
+        try {
+            return future.get(limitNanos, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            if (definition.isCancelRunning()) {
+                future.cancel(true);
+            }
+            throw expired(definition, deadline);
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw e;
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            throw cause instanceof UndeclaredThrowableException undeclared ? undeclared.getUndeclaredThrowable() : cause;
+        }
+    }
+
+    /**
+     * CompletionStage：回傳新的 CompletableFuture，原結果先完成時採用，計時器先觸發時以逾時異常完成
+     */
+    private Object limitAsync(ProceedingJoinPoint joinPoint, TimeLimitDefinition definition) throws Throwable {
+        Deadline deadline = DeadlineContext.current();
+        long limitNanos = limitNanos(definition, deadline);
+        if (limitNanos <= 0) {
+            return CompletableFuture.failedFuture(expired(definition, deadline));
+        }
+        CompletionStage<?> stage = (CompletionStage<?>) joinPoint.proceed();
+        if (stage == null) {
+            return null;
+        }
+        CompletableFuture<Object> result = new CompletableFuture<>();
+        ScheduledFuture<?> timer;
+        try {
+            timer = timeLimiterScheduler.schedule(() -> {
+                if (result.completeExceptionally(expired(definition, deadline))
+                        && definition.isCancelRunning() && stage instanceof Future<?> future) {
+                    future.cancel(true);
+                }
+            }, limitNanos, TimeUnit.NANOSECONDS);
+        } catch (RejectedExecutionException e) {
+            return stage;
+        }
+        stage.whenComplete((value, error) -> {
+            timer.cancel(false);
+            if (error == null) {
+                result.complete(value);
+            } else {
+                result.completeExceptionally(ReactiveSupport.unwrapAsyncFailure(error));
+            }
+        });
+        return result;
+    }
+
+    private TimeLimitDefinition definitionOf(ProceedingJoinPoint joinPoint, TimeLimited timeLimited) {
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        TimeLimitDefinition definition = definitions.get(method);
+        if (definition != null) {
+            return definition;
+        }
+        return definitions.computeIfAbsent(method, m -> {
+            String name = timeLimited.value().isEmpty()
+                    ? joinPoint.getSignature().getDeclaringType().getSimpleName() + '.' + joinPoint.getSignature().getName()
+                    : timeLimited.value();
+            long timeoutMillis = timeLimited.timeoutMillis() > 0
+                    ? timeLimited.timeoutMillis()
+                    : environment.getProperty(INSTANCE_PREFIX + name + ".timeout-millis", Long.class, defaultTimeoutMillis);
+            return new TimeLimitDefinition(name, Duration.ofMillis(Math.max(1, timeoutMillis)),
+                    timeLimited.cancelRunning());
+        });
+    }
+
+    /**
+     * 本次呼叫的限制時間：設定值與請求剩餘時間的較小者，期限已過時為 0
+     */
+    private static long limitNanos(TimeLimitDefinition definition, Deadline deadline) {
+        return DeadlineContext.capNanos(deadline, definition.getTimeout().toNanos());
+    }
+
+    /**
+     * 限制時間到達時的異常：請求期限已過時為 deadlineExceeded，否則為設定的逾時
+     */
+    private static ResilienceException expired(TimeLimitDefinition definition, Deadline deadline) {
+        if (deadline != null && deadline.isExpired()) {
+            logger.warn("⌛ {} aborted, request deadline reached", definition.getName());
+            return ResilienceException.deadlineExceeded(definition.getName());
+        }
+        return timeout(definition);
+    }
+
+    private static ResilienceException timeout(TimeLimitDefinition definition) {
+        logger.warn("⏱️ {} did not complete within {}ms", definition.getName(), definition.getTimeout().toMillis());
+        return ResilienceException.timeout(definition.getName(), definition.getTimeout());
+    }
+}
@@ -0,0 +1,36 @@
+package tw.com.ty.common.resilience;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+/**
+ * 逾時限制配置類別
+ *
+ * 提供 @TimeLimited 使用的執行器與計時器，逾時時間透過 time-limiter.timeout-millis
+ * 與 time-limiter.instances.&lt;name&gt;.timeout-millis 設定
+ */
+@Configuration
+public class TimeLimiterConfiguration {
+
+    /**
+     * 執行阻塞方法的執行器（每個呼叫一條虛擬執行緒）
+     * 逾時中斷虛擬執行緒時，阻塞中的 socket 讀寫會立即結束
+     */
+    @Bean(name = "timeLimiterExecutor", destroyMethod = "shutdown")
+    public ExecutorService timeLimiterExecutor() {
+        return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("time-limiter-", 0).factory());
+    }
+
+    /**
+     * CompletionStage 逾時的計時排程器，僅負責觸發逾時，不執行業務邏輯
+     */
+    @Bean(name = "timeLimiterScheduler", destroyMethod = "shutdown")
+    public ScheduledExecutorService timeLimiterScheduler() {
+        return Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("time-limiter-scheduler").daemon().factory());
+    }
+}
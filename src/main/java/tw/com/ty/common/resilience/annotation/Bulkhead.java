@@ -0,0 +1,43 @@
+package tw.com.ty.common.resilience.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Bulkhead 註解
+ *
+ * 限制方法的同時執行數量，避免單一緩慢的依賴佔用所有請求執行緒
+ * 相同名稱的方法共用同一個 Bulkhead；未設定的參數依序使用
+ * bulkhead.instances.&lt;name&gt;.* 與 bulkhead.* 配置
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Bulkhead {
+
+    /**
+     * Bulkhead 名稱，未指定時使用「類別名稱.方法名稱」
+     */
+    String value() default "";
+
+    /**
+     * 隔離模式
+     */
+    BulkheadType type() default BulkheadType.SEMAPHORE;
+
+    /**
+     * 最大同時執行數量，小於等於 0 表示使用配置
+     */
+    int maxConcurrentCalls() default -1;
+
+    /**
+     * 無可用名額時的最長等待時間（毫秒），小於 0 表示使用配置
+     */
+    long maxWaitMillis() default -1;
+
+    /**
+     * ISOLATED 模式的等待佇列容量，小於 0 表示使用配置
+     */
+    int queueCapacity() default -1;
+}
@@ -0,0 +1,19 @@
+package tw.com.ty.common.resilience.annotation;
+
+/**
+ * Bulkhead 隔離模式枚舉
+ */
+public enum BulkheadType {
+    /**
+     * 信號量模式
+     * 在呼叫端執行緒上執行，僅限制同時執行數量
+     */
+    SEMAPHORE,
+
+    /**
+     * 隔離模式
+     * 在 Bulkhead 專屬的有界執行緒池（虛擬執行緒）上執行，呼叫端等待結果；
+     * 池滿且佇列滿時拒絕
+     */
+    ISOLATED
+}
@@ -0,0 +1,70 @@
+package tw.com.ty.common.resilience.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 熔斷器註解
+ *
+ * 以滑動視窗統計最近呼叫的失敗率與慢呼叫率，超過門檻時熔斷（OPEN），
+ * 熔斷期間直接拋出 CIRCUIT_BREAKER_OPEN 而不呼叫方法；等待時間結束後進入半開（HALF_OPEN），
+ * 以少量試探呼叫決定恢復（CLOSED）或再次熔斷
+ * 相同名稱的方法共用同一個熔斷器；未設定的參數依序使用
+ * circuit-breaker.instances.&lt;name&gt;.* 與 circuit-breaker.* 配置
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface CircuitBreaker {
+
+    /**
+     * 熔斷器名稱，未指定時使用「類別名稱.方法名稱」
+     */
+    String value() default "";
+
+    /**
+     * 熔斷的失敗率門檻（百分比），小於等於 0 表示使用配置
+     */
+    float failureRateThreshold() default -1;
+
+    /**
+     * 熔斷的慢呼叫率門檻（百分比），小於等於 0 表示使用配置
+     */
+    float slowCallRateThreshold() default -1;
+
+    /**
+     * 執行時間達到此值（毫秒）即視為慢呼叫，小於等於 0 表示使用配置
+     */
+    long slowCallDurationMillis() default -1;
+
+    /**
+     * 滑動視窗大小（最近的呼叫次數），小於等於 0 表示使用配置
+     */
+    int slidingWindowSize() default -1;
+
+    /**
+     * 計算失敗率前至少需要的呼叫次數，小於等於 0 表示使用配置
+     */
+    int minimumNumberOfCalls() default -1;
+
+    /**
+     * 熔斷後進入半開前的等待時間（毫秒），小於等於 0 表示使用配置
+     */
+    long waitDurationInOpenStateMillis() default -1;
+
+    /**
+     * 半開狀態允許的試探呼叫次數，小於等於 0 表示使用配置
+     */
+    int permittedCallsInHalfOpenState() default -1;
+
+    /**
+     * 計為失敗的異常類型，空陣列表示所有異常
+     */
+    Class<? extends Throwable>[] recordExceptions() default {};
+
+    /**
+     * 不計入統計的異常類型（如參數錯誤等與依賴健康無關的異常），優先於 recordExceptions
+     */
+    Class<? extends Throwable>[] ignoreExceptions() default {};
+}
@@ -0,0 +1,35 @@
+package tw.com.ty.common.resilience.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 對沖請求註解
+ *
+ * 第一次呼叫超過對沖延遲仍未完成時，再發出一次相同的呼叫，採用最先成功的結果並取消另一個
+ * 用於降低偶發緩慢副本造成的尾端延遲，僅適用於冪等的讀取操作
+ * 支援阻塞方法（兩次呼叫皆在虛擬執行緒上執行）與回傳 Mono 的方法
+ * 相同名稱的方法共用同一份延遲統計；未設定的參數依序使用
+ * hedge.instances.&lt;name&gt;.* 與 hedge.* 配置
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Hedged {
+
+    /**
+     * 對沖名稱，未指定時使用「類別名稱.方法名稱」
+     */
+    String value() default "";
+
+    /**
+     * 固定的對沖延遲（毫秒），0 表示使用觀測到的延遲百分位，小於 0 表示使用配置
+     */
+    long delayMillis() default -1;
+
+    /**
+     * 以觀測延遲決定對沖時機時使用的百分位（如 95），小於等於 0 表示使用配置
+     */
+    double percentile() default -1;
+}
@@ -0,0 +1,33 @@
+package tw.com.ty.common.resilience.annotation;
+
+/**
+ * 重試退避的隨機抖動（jitter）策略
+ *
+ * 多個節點同時失敗時，純指數退避會讓所有重試在同一時間點再次打到下游；加入隨機抖動將重試分散
+ */
+public enum JitterStrategy {
+    /**
+     * 使用 retry.jitter 設定的策略（預設 {@link #EQUAL}）
+     */
+    DEFAULT,
+
+    /**
+     * 不抖動，等待完整的指數退避時間
+     */
+    NONE,
+
+    /**
+     * 完全抖動：在 0 ~ 指數退避時間之間隨機等待，分散效果最好，但可能幾乎不等待
+     */
+    FULL,
+
+    /**
+     * 等量抖動：至少等待指數退避時間的一半，另一半隨機
+     */
+    EQUAL,
+
+    /**
+     * 去相關抖動：在 initialDelay ~ 上一次等待時間 × 3 之間隨機，不使用 multiplier
+     */
+    DECORRELATED
+}
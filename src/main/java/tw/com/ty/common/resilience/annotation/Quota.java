@@ -0,0 +1,35 @@
+package tw.com.ty.common.resilience.annotation;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 階層式配額的單一層級
+ *
+ * 僅用於 {@link RateLimited#quotas()}，每個層級對應一個具名限流器（rate-limiter.limits.&lt;name&gt;.*）
+ */
+@Target({})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Quota {
+
+    /**
+     * 具名限流器名稱
+     */
+    String name();
+
+    /**
+     * 此層級的限流鍵來源，如服務層級為 GLOBAL、租戶層級為 HEADER、使用者層級為 PRINCIPAL
+     */
+    RateLimitKeySource keySource() default RateLimitKeySource.GLOBAL;
+
+    /**
+     * 限流鍵參數，意義同 {@link RateLimited#key()}
+     */
+    String key() default "";
+
+    /**
+     * 回報拒絕層級時使用的名稱，未指定時使用 {@link #name()}
+     */
+    String level() default "";
+}
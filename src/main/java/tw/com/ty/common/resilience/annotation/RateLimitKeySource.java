@@ -0,0 +1,33 @@
+package tw.com.ty.common.resilience.annotation;
+
+/**
+ * Rate Limiter 限流鍵來源枚舉
+ *
+ * 決定請求要計入哪一個 Bucket
+ */
+public enum RateLimitKeySource {
+    /**
+     * 全域共用 Bucket（所有請求共用同一份配額）
+     */
+    GLOBAL,
+
+    /**
+     * JWT subject（透過 JwtTokenProvider 解析），無有效 token 時退回客戶端 IP
+     */
+    PRINCIPAL,
+
+    /**
+     * 客戶端 IP（優先使用 X-Forwarded-For 的第一個位址）
+     */
+    IP,
+
+    /**
+     * 指定請求頭的值，請求頭名稱由 {@link RateLimited#key()} 指定
+     */
+    HEADER,
+
+    /**
+     * 指定方法參數的值，參數名稱或索引由 {@link RateLimited#key()} 指定
+     */
+    ARGUMENT
+}
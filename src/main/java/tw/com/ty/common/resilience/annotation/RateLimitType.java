@@ -12,5 +12,12 @@ public enum RateLimitType {
     /**
      * 批量處理請求
      */
-    BATCH
+    BATCH,
+
+    /**
+     * 自適應並發限制
+     * 不使用 token 速率，改以受保護方法的實際延遲動態調整同時處理中的請求上限；
+     * 每個方法各自一個限制器，不適用 keySource 與 cost
+     */
+    ADAPTIVE
 }
@@ -19,6 +19,76 @@ public @interface RateLimited {
      */
     RateLimitType value() default RateLimitType.API;
 
+    /**
+     * 具名限流器，對應 rate-limiter.limits.&lt;name&gt;.* 配置
+     *
+     * 設定後優先於 {@link #value()}，配置可包含多個頻寬並可即時重新載入
+     */
+    String name() default "";
+
+    /**
+     * 階層式配額，由外而內（如服務 → 租戶 → 使用者）
+     *
+     * 設定後優先於 {@link #name()} 與 {@link #value()}；所有層級皆有足夠 token 才放行，
+     * 任一層級拒絕時已消耗的層級會退回 token
+     */
+    Quota[] quotas() default {};
+
+    /**
+     * 限流鍵來源，預設為全域共用 Bucket
+     */
+    RateLimitKeySource keySource() default RateLimitKeySource.GLOBAL;
+
+    /**
+     * 限流鍵參數
+     *
+     * HEADER 模式為請求頭名稱；ARGUMENT 模式為參數名稱或參數索引（如 "0"），未指定時使用第一個參數
+     */
+    String key() default "";
+
+    /**
+     * 每次呼叫消耗的 token 數量（固定值）
+     */
+    long cost() default 1;
+
+    /**
+     * 依方法參數計算 token 數量的 SpEL 表達式，如 "#people.size()" 或 "#p0.length"
+     *
+     * 設定後優先於 {@link #cost()} 與 {@link #costArgument()}
+     */
+    String costExpression() default "";
+
+    /**
+     * 以指定參數（名稱或索引）的大小作為 token 數量
+     *
+     * 支援 Collection、Map、陣列與 CharSequence，設定後優先於 {@link #cost()}
+     */
+    String costArgument() default "";
+
+    /**
+     * token 不足時的最長等待時間（毫秒），0 表示立即拒絕
+     *
+     * 預估等待時間不超過此值時預約 token 並等待，超過時立即拒絕；
+     * 同步方法停放呼叫執行緒，Mono / Flux 以排程器計時不阻塞。ADAPTIVE 類型不適用
+     */
+    long maxWaitMillis() default 0;
+
+    /**
+     * 請求優先級，啟用負載卸載時系統飽和依優先級由低至高拒絕
+     *
+     * 預設依 {@link #value()} 決定：BATCH 為 BATCH，其餘為 INTERACTIVE
+     */
+    RequestPriority priority() default RequestPriority.DEFAULT;
+
+    /**
+     * 呼叫外部服務的客戶端限流（outbound）
+     *
+     * token 不足時等待而非立即拒絕，最長等待 {@link #maxWaitMillis()}，未設定時使用 rate-limiter.outbound.max-wait-millis；
+     * 不寫入回應標頭。外部服務回應 429 時清空 Bucket，後續呼叫與重試一同等待補充。
+     * 通常搭配 {@link #name()} 指定對方配額，不支援 quotas 與 ADAPTIVE
+     */
+    boolean outbound() default false;
+
     /**
      * 自訂描述
      */
@@ -0,0 +1,33 @@
+package tw.com.ty.common.resilience.annotation;
+
+/**
+ * 請求優先級枚舉
+ *
+ * 系統飽和時由低至高依序卸載：BEST_EFFORT → BATCH → INTERACTIVE，CRITICAL 不卸載
+ */
+public enum RequestPriority {
+    /**
+     * 依 RateLimitType 決定：BATCH 為 {@link #BATCH}，其餘為 {@link #INTERACTIVE}
+     */
+    DEFAULT,
+
+    /**
+     * 關鍵請求（登入、付款、健康檢查等），不因負載卸載
+     */
+    CRITICAL,
+
+    /**
+     * 使用者互動請求
+     */
+    INTERACTIVE,
+
+    /**
+     * 批量處理請求
+     */
+    BATCH,
+
+    /**
+     * 盡力而為的請求（預取、統計、背景同步等），最先卸載
+     */
+    BEST_EFFORT
+}
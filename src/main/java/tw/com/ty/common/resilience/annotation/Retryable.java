@@ -39,6 +39,11 @@ public @interface Retryable {
      */
     double multiplier() default 2.0;
 
+    /**
+     * 退避時間的隨機抖動策略，預設使用 retry.jitter（預設 EQUAL）
+     */
+    JitterStrategy jitter() default JitterStrategy.DEFAULT;
+
     /**
      * 異常處理器類
      */
@@ -0,0 +1,34 @@
+package tw.com.ty.common.resilience.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 逾時限制註解
+ *
+ * 限制方法的執行時間，逾時時拋出 EXTERNAL_SERVICE_TIMEOUT，並中斷（取消）仍在執行的呼叫
+ * 阻塞方法在虛擬執行緒上執行，呼叫端只等待至逾時，不會被卡住的依賴佔住請求執行緒
+ * 回傳 Mono / Flux / CompletionStage 的方法不切換執行緒，以計時器取消
+ * 未設定的參數依序使用 time-limiter.instances.&lt;name&gt;.* 與 time-limiter.* 配置
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface TimeLimited {
+
+    /**
+     * 名稱，用於日誌與配置，未指定時使用「類別名稱.方法名稱」
+     */
+    String value() default "";
+
+    /**
+     * 逾時時間（毫秒），小於等於 0 表示使用配置
+     */
+    long timeoutMillis() default -1;
+
+    /**
+     * 逾時時是否中斷（取消）仍在執行的呼叫
+     */
+    boolean cancelRunning() default true;
+}
@@ -0,0 +1,71 @@
+package tw.com.ty.common.resilience.bulkhead;
+
+import org.springframework.core.env.Environment;
+import tw.com.ty.common.resilience.annotation.Bulkhead;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Bulkhead 註冊表
+ *
+ * <p>依名稱保存 Bulkhead，相同名稱的方法共用同一個實例。設定依序取自：</p>
+ * <ul>
+ *   <li>{@link Bulkhead} 註解上明確設定的值</li>
+ *   <li>bulkhead.instances.&lt;name&gt;.max-concurrent-calls / max-wait-millis / queue-capacity</li>
+ *   <li>註冊表的預設設定（bulkhead.*）</li>
+ * </ul>
+ *
+ * <p>設定只在實例第一次建立時解析。</p>
+ */
+public class BulkheadRegistry {
+
+    private static final String INSTANCE_PREFIX = "bulkhead.instances.";
+
+    private final Environment environment;
+    private final BulkheadSettings defaults;
+    private final ConcurrentMap<String, SemaphoreBulkhead> semaphoreBulkheads = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, IsolatedBulkhead> isolatedBulkheads = new ConcurrentHashMap<>();
+
+    public BulkheadRegistry(Environment environment, BulkheadSettings defaults) {
+        this.environment = environment;
+        this.defaults = defaults;
+    }
+
+    /**
+     * 取得或建立信號量 Bulkhead
+     */
+    public SemaphoreBulkhead semaphore(String name, Bulkhead bulkhead) {
+        return semaphoreBulkheads.computeIfAbsent(name, n -> new SemaphoreBulkhead(n, resolveSettings(n, bulkhead)));
+    }
+
+    /**
+     * 取得或建立隔離 Bulkhead
+     */
+    public IsolatedBulkhead isolated(String name, Bulkhead bulkhead) {
+        return isolatedBulkheads.computeIfAbsent(name, n -> new IsolatedBulkhead(n, resolveSettings(n, bulkhead)));
+    }
+
+    private BulkheadSettings resolveSettings(String name, Bulkhead bulkhead) {
+        String prefix = INSTANCE_PREFIX + name + '.';
+        int maxConcurrentCalls = bulkhead.maxConcurrentCalls() > 0
+                ? bulkhead.maxConcurrentCalls()
+                : environment.getProperty(prefix + "max-concurrent-calls", Integer.class, defaults.maxConcurrentCalls());
+        Long maxWaitMillis = bulkhead.maxWaitMillis() >= 0
+                ? Long.valueOf(bulkhead.maxWaitMillis())
+                : environment.getProperty(prefix + "max-wait-millis", Long.class);
+        long maxWaitNanos = maxWaitMillis != null ? Duration.ofMillis(maxWaitMillis).toNanos() : defaults.maxWaitNanos();
+        int queueCapacity = bulkhead.queueCapacity() >= 0
+                ? bulkhead.queueCapacity()
+                : environment.getProperty(prefix + "queue-capacity", Integer.class, defaults.queueCapacity());
+        return new BulkheadSettings(Math.max(1, maxConcurrentCalls), Math.max(0, maxWaitNanos), Math.max(0, queueCapacity));
+    }
+
+    /**
+     * 關閉所有隔離 Bulkhead 的執行緒池
+     */
+    public void shutdown() {
+        isolatedBulkheads.values().forEach(IsolatedBulkhead::shutdown);
+    }
+}
@@ -0,0 +1,11 @@
+package tw.com.ty.common.resilience.bulkhead;
+
+/**
+ * 單一 Bulkhead 的設定
+ *
+ * @param maxConcurrentCalls 最大同時執行數量
+ * @param maxWaitNanos 無可用名額時的最長等待時間（奈秒）
+ * @param queueCapacity ISOLATED 模式的等待佇列容量
+ */
+public record BulkheadSettings(int maxConcurrentCalls, long maxWaitNanos, int queueCapacity) {
+}
@@ -0,0 +1,93 @@
+package tw.com.ty.common.resilience.bulkhead;
+
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import tw.com.ty.common.resilience.deadline.DeadlineContext;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 隔離 Bulkhead
+ *
+ * <p>每個 Bulkhead 擁有專屬的有界執行緒池：最多 maxConcurrentCalls 個虛擬執行緒、
+ * queueCapacity 個等待中的工作。池與佇列皆滿時，提交端最多等待 maxWait 取得佇列位置，
+ * 逾時則拒絕。閒置執行緒於 60 秒後回收。</p>
+ *
+ * <p>提交時會將呼叫端的 {@link RequestAttributes} 與請求期限（{@link DeadlineContext}）帶入工作執行緒，
+ * 使方法內仍可透過 {@link RequestContextHolder} 取得目前請求，出站呼叫與重試仍受請求期限限制。</p>
+ */
+public class IsolatedBulkhead {
+
+    private final String name;
+    private final ThreadPoolExecutor executor;
+
+    public IsolatedBulkhead(String name, BulkheadSettings settings) {
+        this.name = name;
+        BlockingQueue<Runnable> queue = settings.queueCapacity() > 0
+                ? new ArrayBlockingQueue<>(settings.queueCapacity())
+                : new SynchronousQueue<>();
+        this.executor = new ThreadPoolExecutor(settings.maxConcurrentCalls(), settings.maxConcurrentCalls(),
+                60, TimeUnit.SECONDS, queue,
+                Thread.ofVirtual().name("bulkhead-" + name + "-", 0).factory(),
+                (task, pool) -> waitForQueue(task, pool, settings.maxWaitNanos()));
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * 提交工作至 Bulkhead 執行緒池
+     *
+     * @param task 工作
+     * @return 工作結果
+     * @throws RejectedExecutionException 池與佇列皆滿且等待逾時
+     */
+    public <T> Future<T> submit(Callable<T> task) {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        return executor.submit(DeadlineContext.propagate(DeadlineContext.current(), () -> {
+            RequestContextHolder.setRequestAttributes(attributes);
+            try {
+                return task.call();
+            } finally {
+                RequestContextHolder.resetRequestAttributes();
+            }
+        }));
+    }
+
+    private static void waitForQueue(Runnable task, ThreadPoolExecutor pool, long maxWaitNanos) {
+        if (pool.isShutdown() || maxWaitNanos <= 0) {
+            throw new RejectedExecutionException("Bulkhead 已滿");
+        }
+        try {
+            if (!pool.getQueue().offer(task, maxWaitNanos, TimeUnit.NANOSECONDS)) {
+                throw new RejectedExecutionException("Bulkhead 已滿");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RejectedExecutionException("等待 Bulkhead 時被中斷", e);
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * 目前執行中的工作數量
+     */
+    public int getActiveCount() {
+        return executor.getActiveCount();
+    }
+
+    /**
+     * 關閉執行緒池
+     */
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
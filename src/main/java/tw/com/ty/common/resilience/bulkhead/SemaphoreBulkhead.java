@@ -0,0 +1,59 @@
+package tw.com.ty.common.resilience.bulkhead;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 信號量 Bulkhead
+ *
+ * <p>以公平信號量限制同時執行數量，等待時僅停放呼叫端執行緒（虛擬執行緒不佔用載體執行緒）。</p>
+ */
+public class SemaphoreBulkhead {
+
+    private final String name;
+    private final BulkheadSettings settings;
+    private final Semaphore semaphore;
+
+    public SemaphoreBulkhead(String name, BulkheadSettings settings) {
+        this.name = name;
+        this.settings = settings;
+        this.semaphore = new Semaphore(settings.maxConcurrentCalls(), true);
+    }
+
+    /**
+     * 取得執行名額，最多等待設定的 maxWait
+     *
+     * @return 是否取得成功；成功時呼叫端必須呼叫 {@link #release()}
+     */
+    public boolean tryAcquire() throws InterruptedException {
+        if (settings.maxWaitNanos() <= 0) {
+            return semaphore.tryAcquire();
+        }
+        return semaphore.tryAcquire(settings.maxWaitNanos(), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * 不等待地取得執行名額，供不可阻塞的響應式呼叫使用
+     */
+    public boolean tryAcquireNow() {
+        return semaphore.tryAcquire();
+    }
+
+    /**
+     * 釋放執行名額
+     */
+    public void release() {
+        semaphore.release();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * 目前可用的執行名額
+     */
+    public int getAvailablePermits() {
+        return semaphore.availablePermits();
+    }
+}
@@ -0,0 +1,104 @@
+package tw.com.ty.common.resilience.circuitbreaker;
+
+import org.springframework.core.env.Environment;
+import tw.com.ty.common.resilience.annotation.CircuitBreaker;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 熔斷器註冊表
+ *
+ * <p>依名稱保存熔斷器，相同名稱的方法共用同一個實例。設定依序取自：</p>
+ * <ul>
+ *   <li>{@link CircuitBreaker} 註解上明確設定的值</li>
+ *   <li>circuit-breaker.instances.&lt;name&gt;.*</li>
+ *   <li>註冊表的預設設定（circuit-breaker.*）</li>
+ * </ul>
+ *
+ * <p>設定與異常類型只在實例第一次建立時解析。</p>
+ */
+public class CircuitBreakerRegistry {
+
+    private static final String INSTANCE_PREFIX = "circuit-breaker.instances.";
+
+    private final Environment environment;
+    private final CircuitBreakerSettings defaults;
+    private final ConcurrentMap<String, SlidingWindowCircuitBreaker> circuitBreakers = new ConcurrentHashMap<>();
+
+    public CircuitBreakerRegistry(Environment environment, CircuitBreakerSettings defaults) {
+        this.environment = environment;
+        this.defaults = defaults;
+    }
+
+    /**
+     * 取得或建立熔斷器
+     */
+    public SlidingWindowCircuitBreaker circuitBreaker(String name, CircuitBreaker circuitBreaker) {
+        SlidingWindowCircuitBreaker existing = circuitBreakers.get(name);
+        if (existing != null) {
+            return existing;
+        }
+        return circuitBreakers.computeIfAbsent(name, n -> new SlidingWindowCircuitBreaker(n,
+                resolveSettings(n, circuitBreaker), circuitBreaker.recordExceptions(), circuitBreaker.ignoreExceptions()));
+    }
+
+    /**
+     * 依名稱取得已建立的熔斷器
+     *
+     * @return 熔斷器，尚未建立時回傳 null
+     */
+    public SlidingWindowCircuitBreaker find(String name) {
+        return circuitBreakers.get(name);
+    }
+
+    /**
+     * 所有已建立的熔斷器
+     */
+    public Collection<SlidingWindowCircuitBreaker> getAll() {
+        return circuitBreakers.values();
+    }
+
+    private CircuitBreakerSettings resolveSettings(String name, CircuitBreaker circuitBreaker) {
+        String prefix = INSTANCE_PREFIX + name + '.';
+        float failureRateThreshold = circuitBreaker.failureRateThreshold() > 0
+                ? circuitBreaker.failureRateThreshold()
+                : environment.getProperty(prefix + "failure-rate-threshold", Float.class, defaults.failureRateThreshold());
+        float slowCallRateThreshold = circuitBreaker.slowCallRateThreshold() > 0
+                ? circuitBreaker.slowCallRateThreshold()
+                : environment.getProperty(prefix + "slow-call-rate-threshold", Float.class, defaults.slowCallRateThreshold());
+        long slowCallDurationNanos = circuitBreaker.slowCallDurationMillis() > 0
+                ? Duration.ofMillis(circuitBreaker.slowCallDurationMillis()).toNanos()
+                : millisProperty(prefix + "slow-call-duration-millis", defaults.slowCallDurationNanos());
+        int slidingWindowSize = circuitBreaker.slidingWindowSize() > 0
+                ? circuitBreaker.slidingWindowSize()
+                : environment.getProperty(prefix + "sliding-window-size", Integer.class, defaults.slidingWindowSize());
+        int minimumNumberOfCalls = circuitBreaker.minimumNumberOfCalls() > 0
+                ? circuitBreaker.minimumNumberOfCalls()
+                : environment.getProperty(prefix + "minimum-number-of-calls", Integer.class, defaults.minimumNumberOfCalls());
+        long waitDurationInOpenStateNanos = circuitBreaker.waitDurationInOpenStateMillis() > 0
+                ? Duration.ofMillis(circuitBreaker.waitDurationInOpenStateMillis()).toNanos()
+                : millisProperty(prefix + "wait-duration-in-open-state-millis", defaults.waitDurationInOpenStateNanos());
+        int permittedCallsInHalfOpenState = circuitBreaker.permittedCallsInHalfOpenState() > 0
+                ? circuitBreaker.permittedCallsInHalfOpenState()
+                : environment.getProperty(prefix + "permitted-calls-in-half-open-state", Integer.class,
+                        defaults.permittedCallsInHalfOpenState());
+
+        slidingWindowSize = Math.min(Math.max(1, slidingWindowSize), SlidingWindow.MAX_SIZE);
+        return new CircuitBreakerSettings(
+                Math.min(100, Math.max(0, failureRateThreshold)),
+                Math.min(100, Math.max(0, slowCallRateThreshold)),
+                Math.max(1, slowCallDurationNanos),
+                slidingWindowSize,
+                Math.min(Math.max(1, minimumNumberOfCalls), slidingWindowSize),
+                Math.max(0, waitDurationInOpenStateNanos),
+                Math.min(Math.max(1, permittedCallsInHalfOpenState), SlidingWindow.MAX_SIZE));
+    }
+
+    private long millisProperty(String key, long defaultNanos) {
+        Long millis = environment.getProperty(key, Long.class);
+        return millis != null ? Duration.ofMillis(millis).toNanos() : defaultNanos;
+    }
+}
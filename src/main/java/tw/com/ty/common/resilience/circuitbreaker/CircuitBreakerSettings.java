@@ -0,0 +1,17 @@
+package tw.com.ty.common.resilience.circuitbreaker;
+
+/**
+ * 單一熔斷器的設定
+ *
+ * @param failureRateThreshold 熔斷的失敗率門檻（百分比）
+ * @param slowCallRateThreshold 熔斷的慢呼叫率門檻（百分比）
+ * @param slowCallDurationNanos 視為慢呼叫的執行時間（奈秒）
+ * @param slidingWindowSize 滑動視窗大小（呼叫次數）
+ * @param minimumNumberOfCalls 計算失敗率前至少需要的呼叫次數
+ * @param waitDurationInOpenStateNanos 熔斷後進入半開前的等待時間（奈秒）
+ * @param permittedCallsInHalfOpenState 半開狀態允許的試探呼叫次數
+ */
+public record CircuitBreakerSettings(float failureRateThreshold, float slowCallRateThreshold, long slowCallDurationNanos,
+                                     int slidingWindowSize, int minimumNumberOfCalls, long waitDurationInOpenStateNanos,
+                                     int permittedCallsInHalfOpenState) {
+}
@@ -0,0 +1,21 @@
+package tw.com.ty.common.resilience.circuitbreaker;
+
+/**
+ * 熔斷器狀態枚舉
+ */
+public enum CircuitBreakerState {
+    /**
+     * 關閉：正常呼叫，並以滑動視窗統計結果
+     */
+    CLOSED,
+
+    /**
+     * 熔斷：不呼叫方法，直接拒絕
+     */
+    OPEN,
+
+    /**
+     * 半開：允許少量試探呼叫，依結果恢復或再次熔斷
+     */
+    HALF_OPEN
+}
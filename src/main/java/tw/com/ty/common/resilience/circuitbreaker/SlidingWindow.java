@@ -0,0 +1,69 @@
+package tw.com.ty.common.resilience.circuitbreaker;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 以呼叫次數計算的無鎖滑動視窗
+ *
+ * <p>環狀陣列保存最近 size 次呼叫的結果，總計以單一 long 打包呼叫數、失敗數與慢呼叫數（各 21 bits），
+ * 一次讀取即為一致的快照。記錄一次呼叫只需兩次原子加法與一次 getAndSet，不加鎖也不配置物件。</p>
+ *
+ * <p>新結果先加入總計再寫入槽位，被覆蓋的結果寫入後才扣除，因此各計數不會為負；
+ * 並行記錄時呼叫數可能短暫超過 size（至多多出同時記錄的執行緒數）。</p>
+ */
+final class SlidingWindow {
+
+    /**
+     * 視窗大小上限，保留打包欄位的餘裕
+     */
+    static final int MAX_SIZE = 1 << 19;
+
+    private static final int FIELD_BITS = 21;
+    private static final long FIELD_MASK = (1L << FIELD_BITS) - 1;
+    private static final long CALL = 1;
+    private static final long FAILURE = 1L << FIELD_BITS;
+    private static final long SLOW = 1L << (2 * FIELD_BITS);
+
+    private final int size;
+    private final AtomicLongArray slots;
+    private final AtomicLong cursor = new AtomicLong();
+    private final AtomicLong totals = new AtomicLong();
+
+    SlidingWindow(int size) {
+        this.size = Math.min(Math.max(1, size), MAX_SIZE);
+        this.slots = new AtomicLongArray(this.size);
+    }
+
+    /**
+     * 記錄一次呼叫結果
+     *
+     * @return 記錄後的總計快照，以 {@link #calls}、{@link #failures}、{@link #slowCalls} 解讀
+     */
+    long record(boolean failure, boolean slow) {
+        long outcome = CALL + (failure ? FAILURE : 0) + (slow ? SLOW : 0);
+        totals.addAndGet(outcome);
+        int index = (int) ((cursor.getAndIncrement() & Long.MAX_VALUE) % size);
+        long evicted = slots.getAndSet(index, outcome);
+        return evicted == 0 ? totals.get() : totals.addAndGet(-evicted);
+    }
+
+    /**
+     * 目前的總計快照
+     */
+    long snapshot() {
+        return totals.get();
+    }
+
+    static int calls(long snapshot) {
+        return (int) (snapshot & FIELD_MASK);
+    }
+
+    static int failures(long snapshot) {
+        return (int) ((snapshot >>> FIELD_BITS) & FIELD_MASK);
+    }
+
+    static int slowCalls(long snapshot) {
+        return (int) ((snapshot >>> (2 * FIELD_BITS)) & FIELD_MASK);
+    }
+}
@@ -0,0 +1,224 @@
+package tw.com.ty.common.resilience.circuitbreaker;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import tw.com.ty.common.resilience.support.ExceptionClassifier;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 以滑動視窗統計的熔斷器
+ *
+ * <p>狀態轉換：</p>
+ * <ul>
+ *   <li>CLOSED → OPEN：視窗內呼叫數達到 minimumNumberOfCalls，且失敗率或慢呼叫率達到門檻</li>
+ *   <li>OPEN → HALF_OPEN：熔斷等待時間結束後的第一個呼叫觸發</li>
+ *   <li>HALF_OPEN → CLOSED / OPEN：permittedCallsInHalfOpenState 次試探呼叫完成後依門檻決定</li>
+ * </ul>
+ *
+ * <p>每個狀態以不可變的 {@link Permit} 表示，狀態轉換為對 {@link AtomicReference} 的 CAS，
+ * 只有轉換時才配置物件。CLOSED 狀態取得許可只讀取一次 volatile 欄位，熔斷時拒絕呼叫不需任何寫入。
+ * 呼叫完成時若熔斷器已轉換到其他狀態，該結果不計入新狀態的統計。</p>
+ */
+public class SlidingWindowCircuitBreaker {
+
+    private static final Logger logger = LoggerFactory.getLogger(SlidingWindowCircuitBreaker.class);
+
+    /**
+     * 未指定 recordExceptions 時所有異常皆計為失敗
+     */
+    @SuppressWarnings("unchecked")
+    private static final Class<? extends Throwable>[] ALL_EXCEPTIONS =
+            (Class<? extends Throwable>[]) new Class<?>[]{Throwable.class};
+
+    private final String name;
+    private final CircuitBreakerSettings settings;
+    private final ExceptionClassifier recordedExceptions;
+    private final AtomicReference<Permit> phase;
+
+    public SlidingWindowCircuitBreaker(String name, CircuitBreakerSettings settings,
+                                       Class<? extends Throwable>[] recordExceptions,
+                                       Class<? extends Throwable>[] ignoreExceptions) {
+        this.name = name;
+        this.settings = settings;
+        this.recordedExceptions = new ExceptionClassifier(
+                recordExceptions.length == 0 ? ALL_EXCEPTIONS : recordExceptions, ignoreExceptions);
+        this.phase = new AtomicReference<>(closed());
+    }
+
+    /**
+     * 取得呼叫許可
+     *
+     * @return 許可，呼叫完成後必須以 {@link #onSuccess}、{@link #onError} 或 {@link #release} 回報；熔斷中回傳 null
+     */
+    public Permit tryAcquirePermission() {
+        while (true) {
+            Permit current = phase.get();
+            switch (current.state) {
+                case CLOSED:
+                    return current;
+                case OPEN:
+                    if (System.nanoTime() - current.openUntilNanos < 0) {
+                        return null;
+                    }
+                    transition(current, halfOpen());
+                    break;
+                default:
+                    int permits = current.halfOpenPermits.get();
+                    if (permits <= 0) {
+                        return null;
+                    }
+                    if (current.halfOpenPermits.compareAndSet(permits, permits - 1)) {
+                        return current;
+                    }
+                    break;
+            }
+        }
+    }
+
+    /**
+     * 回報呼叫成功
+     *
+     * @param permit 取得的許可
+     * @param durationNanos 呼叫執行時間
+     */
+    public void onSuccess(Permit permit, long durationNanos) {
+        record(permit, false, durationNanos);
+    }
+
+    /**
+     * 回報呼叫失敗，不計入統計的異常視同放棄許可
+     *
+     * @param permit 取得的許可
+     * @param durationNanos 呼叫執行時間
+     * @param error 呼叫拋出的異常
+     */
+    public void onError(Permit permit, long durationNanos, Throwable error) {
+        if (!isRecorded(error)) {
+            release(permit);
+            return;
+        }
+        record(permit, true, durationNanos);
+    }
+
+    /**
+     * 放棄許可而不記錄結果（如呼叫被取消），半開狀態時歸還試探名額
+     */
+    public void release(Permit permit) {
+        if (permit.state == CircuitBreakerState.HALF_OPEN && phase.get() == permit) {
+            permit.halfOpenPermits.incrementAndGet();
+        }
+    }
+
+    /**
+     * 異常是否計為失敗，依異常類別快取判斷結果
+     */
+    public boolean isRecorded(Throwable error) {
+        return recordedExceptions.matches(error);
+    }
+
+    private void record(Permit permit, boolean failure, long durationNanos) {
+        if (phase.get() != permit) {
+            return;
+        }
+        long snapshot = permit.window.record(failure, durationNanos >= settings.slowCallDurationNanos());
+        int calls = SlidingWindow.calls(snapshot);
+        if (permit.state == CircuitBreakerState.CLOSED) {
+            if (calls >= settings.minimumNumberOfCalls() && exceedsThresholds(snapshot)) {
+                transition(permit, open());
+            }
+        } else if (calls >= settings.permittedCallsInHalfOpenState()) {
+            transition(permit, exceedsThresholds(snapshot) ? open() : closed());
+        }
+    }
+
+    private boolean exceedsThresholds(long snapshot) {
+        float calls = SlidingWindow.calls(snapshot);
+        return SlidingWindow.failures(snapshot) * 100f >= settings.failureRateThreshold() * calls
+                || SlidingWindow.slowCalls(snapshot) * 100f >= settings.slowCallRateThreshold() * calls;
+    }
+
+    private void transition(Permit from, Permit to) {
+        if (!phase.compareAndSet(from, to)) {
+            return;
+        }
+        if (to.state == CircuitBreakerState.OPEN) {
+            long snapshot = from.window.snapshot();
+            logger.warn("🔌 Circuit breaker {} {} -> OPEN: calls={}, failures={}, slowCalls={}, waiting {}ms",
+                    name, from.state, SlidingWindow.calls(snapshot), SlidingWindow.failures(snapshot),
+                    SlidingWindow.slowCalls(snapshot), Duration.ofNanos(settings.waitDurationInOpenStateNanos()).toMillis());
+        } else {
+            logger.info("🔌 Circuit breaker {} {} -> {}", name, from.state, to.state);
+        }
+    }
+
+    private Permit closed() {
+        return new Permit(CircuitBreakerState.CLOSED, 0, new SlidingWindow(settings.slidingWindowSize()), null);
+    }
+
+    private Permit open() {
+        return new Permit(CircuitBreakerState.OPEN, System.nanoTime() + settings.waitDurationInOpenStateNanos(),
+                null, null);
+    }
+
+    private Permit halfOpen() {
+        int permitted = settings.permittedCallsInHalfOpenState();
+        return new Permit(CircuitBreakerState.HALF_OPEN, 0, new SlidingWindow(permitted), new AtomicInteger(permitted));
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public CircuitBreakerState getState() {
+        return phase.get().state;
+    }
+
+    /**
+     * 熔斷狀態下距離進入半開的剩餘時間，其他狀態為 0
+     */
+    public Duration getRemainingOpenDuration() {
+        Permit current = phase.get();
+        if (current.state != CircuitBreakerState.OPEN) {
+            return Duration.ZERO;
+        }
+        return Duration.ofNanos(Math.max(0, current.openUntilNanos - System.nanoTime()));
+    }
+
+    /**
+     * 目前狀態視窗內的失敗率（百分比），呼叫數未達 minimumNumberOfCalls 或熔斷中時回傳 -1
+     */
+    public float getFailureRate() {
+        Permit current = phase.get();
+        if (current.window == null) {
+            return -1;
+        }
+        long snapshot = current.window.snapshot();
+        int calls = SlidingWindow.calls(snapshot);
+        if (calls == 0 || (current.state == CircuitBreakerState.CLOSED && calls < settings.minimumNumberOfCalls())) {
+            return -1;
+        }
+        return SlidingWindow.failures(snapshot) * 100f / calls;
+    }
+
+    /**
+     * 呼叫許可，同時代表取得許可時的熔斷器狀態
+     */
+    public static final class Permit {
+
+        private final CircuitBreakerState state;
+        private final long openUntilNanos;
+        private final SlidingWindow window;
+        private final AtomicInteger halfOpenPermits;
+
+        private Permit(CircuitBreakerState state, long openUntilNanos, SlidingWindow window,
+                       AtomicInteger halfOpenPermits) {
+            this.state = state;
+            this.openUntilNanos = openUntilNanos;
+            this.window = window;
+            this.halfOpenPermits = halfOpenPermits;
+        }
+    }
+}
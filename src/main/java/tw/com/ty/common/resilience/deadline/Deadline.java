@@ -0,0 +1,100 @@
+package tw.com.ty.common.resilience.deadline;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 請求期限
+ *
+ * <p>以 {@link System#nanoTime()} 表示的絕對時間點，不受系統時鐘調整影響。跨服務傳遞時只傳遞剩餘毫秒數
+ * （{@value #HEADER} 標頭），不依賴兩端時鐘同步；網路傳輸時間因此不計入，下游的期限略為寬鬆。</p>
+ */
+public final class Deadline {
+
+    /**
+     * 傳遞剩餘時間（毫秒）的請求標頭
+     */
+    public static final String HEADER = "X-Request-Timeout-Ms";
+
+    /**
+     * 期限的最大長度：nanoTime 的差值只在 2^63 內有意義，保留一半避免相加後繞回成過去的時間點
+     */
+    private static final long MAX_TIMEOUT_NANOS = Long.MAX_VALUE / 2;
+
+    private final long deadlineNanos;
+
+    private Deadline(long deadlineNanos) {
+        this.deadlineNanos = deadlineNanos;
+    }
+
+    /**
+     * 從現在起經過 timeout 後到期的期限
+     */
+    public static Deadline after(Duration timeout) {
+        return afterNanos(timeout.toNanos());
+    }
+
+    /**
+     * 從現在起經過 timeoutNanos 奈秒後到期的期限
+     * 負數視為已到期，過大的值限制在 {@link #MAX_TIMEOUT_NANOS}，相加不會溢位成過去的時間點
+     */
+    public static Deadline afterNanos(long timeoutNanos) {
+        return new Deadline(System.nanoTime() + Math.max(0, Math.min(timeoutNanos, MAX_TIMEOUT_NANOS)));
+    }
+
+    /**
+     * 解析 {@value #HEADER} 標頭
+     *
+     * @param headerValue 剩餘毫秒數，0 或負數表示已到期
+     * @param maxTimeoutNanos 採信的最大剩餘時間，標頭的值較大時以此為準
+     * @return 期限，標頭不存在或格式錯誤時回傳 null
+     */
+    public static Deadline parse(String headerValue, long maxTimeoutNanos) {
+        if (headerValue == null || headerValue.isBlank()) {
+            return null;
+        }
+        try {
+            long timeoutNanos = TimeUnit.MILLISECONDS.toNanos(Long.parseLong(headerValue.trim()));
+            return afterNanos(Math.min(timeoutNanos, maxTimeoutNanos));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * 剩餘時間（奈秒），已到期時為 0 或負數
+     */
+    public long remainingNanos() {
+        return deadlineNanos - System.nanoTime();
+    }
+
+    /**
+     * 剩餘時間，已到期時為 0
+     */
+    public Duration remaining() {
+        return Duration.ofNanos(Math.max(0, remainingNanos()));
+    }
+
+    public boolean isExpired() {
+        return remainingNanos() <= 0;
+    }
+
+    /**
+     * 是否早於另一個期限
+     */
+    public boolean isBefore(Deadline other) {
+        return deadlineNanos - other.deadlineNanos < 0;
+    }
+
+    /**
+     * 轉為 {@value #HEADER} 標頭的值（剩餘毫秒數，不小於 0）
+     */
+    public String toHeaderValue() {
+        return String.valueOf(TimeUnit.NANOSECONDS.toMillis(Math.max(0, remainingNanos())));
+    }
+
+    @Override
+    public String toString() {
+        return "Deadline[remaining=" + TimeUnit.NANOSECONDS.toMillis(remainingNanos()) + "ms]";
+    }
+}
@@ -0,0 +1,111 @@
+package tw.com.ty.common.resilience.deadline;
+
+import reactor.util.context.Context;
+import reactor.util.context.ContextView;
+
+import java.util.concurrent.Callable;
+
+/**
+ * 目前請求的期限
+ *
+ * <p>阻塞呼叫鏈以 ThreadLocal 保存（由 DeadlineServletFilter 設定），響應式呼叫鏈以 Reactor Context 的
+ * {@code Deadline.class} 鍵保存（由 DeadlineWebFilter 寫入）。切換執行緒執行工作時以 {@link #propagate}
+ * 帶入期限，與 RequestAttributes 的處理方式相同。沒有期限時各方法回傳 null 或原值，行為與未啟用時相同。</p>
+ */
+public final class DeadlineContext {
+
+    private static final ThreadLocal<Deadline> CURRENT = new ThreadLocal<>();
+
+    private DeadlineContext() {
+        // 工具類不允許實例化
+    }
+
+    /**
+     * 目前執行緒上的期限
+     *
+     * @return 期限，沒有時回傳 null
+     */
+    public static Deadline current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * 響應式呼叫鏈的期限，Context 中沒有時退回目前執行緒上的期限（組裝時即訂閱的情況）
+     */
+    public static Deadline current(ContextView context) {
+        Deadline deadline = context.getOrDefault(Deadline.class, null);
+        return deadline != null ? deadline : CURRENT.get();
+    }
+
+    /**
+     * 設定目前執行緒上的期限，null 表示清除
+     */
+    public static void set(Deadline deadline) {
+        if (deadline == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(deadline);
+        }
+    }
+
+    public static void clear() {
+        CURRENT.remove();
+    }
+
+    /**
+     * 將期限寫入 Reactor Context
+     */
+    public static Context put(Context context, Deadline deadline) {
+        return deadline != null ? context.put(Deadline.class, deadline) : context;
+    }
+
+    /**
+     * 以剩餘時間限制等待時間
+     *
+     * @param deadline 期限，null 表示不限制
+     * @param maxWaitNanos 原本的等待上限
+     * @return 不超過剩餘時間的等待上限，已到期時為 0
+     */
+    public static long capNanos(Deadline deadline, long maxWaitNanos) {
+        if (deadline == null) {
+            return maxWaitNanos;
+        }
+        return Math.max(0, Math.min(maxWaitNanos, deadline.remainingNanos()));
+    }
+
+    /**
+     * 包裝在其他執行緒上執行的工作，執行期間帶入 deadline
+     */
+    public static <T> Callable<T> propagate(Deadline deadline, Callable<T> task) {
+        if (deadline == null) {
+            return task;
+        }
+        return () -> {
+            Deadline previous = CURRENT.get();
+            CURRENT.set(deadline);
+            try {
+                return task.call();
+            } finally {
+                set(previous);
+            }
+        };
+    }
+
+    /**
+     * 包裝在其他執行緒上執行的工作，執行期間帶入 deadline
+     */
+    public static Runnable propagate(Deadline deadline, Runnable task) {
+        if (deadline == null) {
+            return task;
+        }
+        return () -> {
+            Deadline previous = CURRENT.get();
+            CURRENT.set(deadline);
+            try {
+                task.run();
+            } finally {
+                set(previous);
+            }
+        };
+    }
+}
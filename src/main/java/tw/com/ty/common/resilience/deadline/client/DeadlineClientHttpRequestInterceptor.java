@@ -0,0 +1,44 @@
+package tw.com.ty.common.resilience.deadline.client;
+
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import tw.com.ty.common.exception.ResilienceException;
+import tw.com.ty.common.resilience.deadline.Deadline;
+import tw.com.ty.common.resilience.deadline.DeadlineContext;
+
+import java.io.IOException;
+
+/**
+ * RestTemplate 的請求期限傳遞
+ *
+ * 目前請求有期限時，以剩餘時間寫入下游請求的 X-Request-Timeout-Ms 標頭（僅限 {@link DeadlinePropagationHosts} 列出的主機）；
+ * 期限已過時不送出請求，直接拋出 EXTERNAL_SERVICE_TIMEOUT
+ */
+public class DeadlineClientHttpRequestInterceptor implements ClientHttpRequestInterceptor {
+
+    private final DeadlinePropagationHosts propagationHosts;
+
+    /**
+     * @param propagationHosts 允許帶上期限標頭的下游主機
+     */
+    public DeadlineClientHttpRequestInterceptor(DeadlinePropagationHosts propagationHosts) {
+        this.propagationHosts = propagationHosts;
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+            throws IOException {
+        Deadline deadline = DeadlineContext.current();
+        if (deadline != null) {
+            if (deadline.isExpired()) {
+                throw ResilienceException.deadlineExceeded(request.getMethod() + " " + request.getURI().getHost());
+            }
+            if (propagationHosts.matches(request.getURI().getHost())) {
+                request.getHeaders().set(Deadline.HEADER, deadline.toHeaderValue());
+            }
+        }
+        return execution.execute(request, body);
+    }
+}
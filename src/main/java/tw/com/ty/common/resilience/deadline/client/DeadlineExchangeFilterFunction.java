@@ -0,0 +1,47 @@
+package tw.com.ty.common.resilience.deadline.client;
+
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import reactor.core.publisher.Mono;
+import tw.com.ty.common.exception.ResilienceException;
+import tw.com.ty.common.resilience.deadline.Deadline;
+import tw.com.ty.common.resilience.deadline.DeadlineContext;
+
+/**
+ * WebClient 的請求期限傳遞
+ *
+ * 於訂閱時從 Reactor Context（沒有時為目前執行緒）取得期限，以剩餘時間寫入 X-Request-Timeout-Ms 標頭
+ * （僅限 {@link DeadlinePropagationHosts} 列出的主機）；期限已過時不送出請求，發出 EXTERNAL_SERVICE_TIMEOUT 錯誤訊號
+ */
+public class DeadlineExchangeFilterFunction implements ExchangeFilterFunction {
+
+    private final DeadlinePropagationHosts propagationHosts;
+
+    /**
+     * @param propagationHosts 允許帶上期限標頭的下游主機
+     */
+    public DeadlineExchangeFilterFunction(DeadlinePropagationHosts propagationHosts) {
+        this.propagationHosts = propagationHosts;
+    }
+
+    @Override
+    public Mono<ClientResponse> filter(ClientRequest request, ExchangeFunction next) {
+        return Mono.deferContextual(context -> {
+            Deadline deadline = DeadlineContext.current(context);
+            if (deadline == null) {
+                return next.exchange(request);
+            }
+            if (deadline.isExpired()) {
+                return Mono.error(ResilienceException.deadlineExceeded(request.method() + " " + request.url().getHost()));
+            }
+            if (!propagationHosts.matches(request.url().getHost())) {
+                return next.exchange(request);
+            }
+            return next.exchange(ClientRequest.from(request)
+                    .headers(headers -> headers.set(Deadline.HEADER, deadline.toHeaderValue()))
+                    .build());
+        });
+    }
+}
@@ -0,0 +1,61 @@
+package tw.com.ty.common.resilience.deadline.client;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * 允許帶上 X-Request-Timeout-Ms 標頭的下游主機
+ *
+ * <p>標頭的值源自呼叫端，不應轉送給第三方服務；只有列在 deadline.propagate-hosts 的主機才會收到。
+ * 項目為完整主機名稱（不分大小寫），或以 "*." 開頭比對所有子網域（如 "*.svc.cluster.local"）。
+ * 未設定時不傳遞標頭，期限已過時不送出請求的行為仍適用於所有主機。</p>
+ */
+public final class DeadlinePropagationHosts {
+
+    private final List<String> exactHosts;
+    private final List<String> domainSuffixes;
+
+    private DeadlinePropagationHosts(List<String> exactHosts, List<String> domainSuffixes) {
+        this.exactHosts = exactHosts;
+        this.domainSuffixes = domainSuffixes;
+    }
+
+    /**
+     * @param patterns 主機名稱或 "*." 開頭的網域，空白項目略過
+     * @return DeadlinePropagationHosts 實例
+     */
+    public static DeadlinePropagationHosts of(String... patterns) {
+        List<String> normalized = Arrays.stream(patterns)
+                .map(pattern -> pattern.trim().toLowerCase(Locale.ROOT))
+                .filter(pattern -> !pattern.isEmpty())
+                .toList();
+        return new DeadlinePropagationHosts(
+                normalized.stream().filter(pattern -> !pattern.startsWith("*.")).toList(),
+                normalized.stream()
+                        .filter(pattern -> pattern.startsWith("*."))
+                        .map(pattern -> pattern.substring(1))
+                        .toList());
+    }
+
+    /**
+     * 是否將期限標頭傳遞給該主機
+     *
+     * @param host 請求的主機名稱，可為 null
+     */
+    public boolean matches(String host) {
+        if (host == null || (exactHosts.isEmpty() && domainSuffixes.isEmpty())) {
+            return false;
+        }
+        String normalized = host.toLowerCase(Locale.ROOT);
+        if (exactHosts.contains(normalized)) {
+            return true;
+        }
+        for (String suffix : domainSuffixes) {
+            if (normalized.endsWith(suffix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
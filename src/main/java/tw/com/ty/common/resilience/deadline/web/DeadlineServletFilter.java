@@ -0,0 +1,60 @@
+package tw.com.ty.common.resilience.deadline.web;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.Ordered;
+import org.springframework.web.filter.OncePerRequestFilter;
+import tw.com.ty.common.resilience.deadline.Deadline;
+import tw.com.ty.common.resilience.deadline.DeadlineContext;
+
+import java.io.IOException;
+
+/**
+ * Backend（Servlet）的請求期限 Filter
+ *
+ * 依 X-Request-Timeout-Ms 標頭（沒有時依 deadline.default-timeout-millis）建立請求期限，
+ * 請求處理期間放在 DeadlineContext，結束時清除
+ */
+public class DeadlineServletFilter extends OncePerRequestFilter implements Ordered {
+
+    private final long defaultTimeoutNanos;
+    private final long maxTimeoutNanos;
+    private final int order;
+
+    /**
+     * @param defaultTimeoutNanos 沒有標頭時的期限，小於等於 0 表示不設定期限
+     * @param maxTimeoutNanos 標頭採信的最大剩餘時間，避免呼叫端以過大的值取消期限
+     * @param order Filter 順序
+     */
+    public DeadlineServletFilter(long defaultTimeoutNanos, long maxTimeoutNanos, int order) {
+        this.defaultTimeoutNanos = defaultTimeoutNanos;
+        this.maxTimeoutNanos = maxTimeoutNanos;
+        this.order = order;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        Deadline deadline = Deadline.parse(request.getHeader(Deadline.HEADER), maxTimeoutNanos);
+        if (deadline == null && defaultTimeoutNanos > 0) {
+            deadline = Deadline.afterNanos(defaultTimeoutNanos);
+        }
+        if (deadline == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        DeadlineContext.set(deadline);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            DeadlineContext.clear();
+        }
+    }
+
+    @Override
+    public int getOrder() {
+        return order;
+    }
+}
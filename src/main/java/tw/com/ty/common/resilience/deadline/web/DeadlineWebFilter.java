@@ -0,0 +1,54 @@
+package tw.com.ty.common.resilience.deadline.web;
+
+import org.springframework.core.Ordered;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+import tw.com.ty.common.resilience.deadline.Deadline;
+import tw.com.ty.common.resilience.deadline.DeadlineContext;
+
+/**
+ * Gateway（WebFlux）的請求期限 WebFilter
+ *
+ * 依 X-Request-Timeout-Ms 標頭（沒有時依 deadline.default-timeout-millis）建立請求期限，
+ * 於訂閱時寫入 Reactor Context，下游的 WebClient 與響應式切面由 Context 讀取
+ */
+public class DeadlineWebFilter implements WebFilter, Ordered {
+
+    private final long defaultTimeoutNanos;
+    private final long maxTimeoutNanos;
+    private final int order;
+
+    /**
+     * @param defaultTimeoutNanos 沒有標頭時的期限，小於等於 0 表示不設定期限
+     * @param maxTimeoutNanos 標頭採信的最大剩餘時間，避免呼叫端以過大的值取消期限
+     * @param order Filter 順序
+     */
+    public DeadlineWebFilter(long defaultTimeoutNanos, long maxTimeoutNanos, int order) {
+        this.defaultTimeoutNanos = defaultTimeoutNanos;
+        this.maxTimeoutNanos = maxTimeoutNanos;
+        this.order = order;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        String header = exchange.getRequest().getHeaders().getFirst(Deadline.HEADER);
+        if (header == null && defaultTimeoutNanos <= 0) {
+            return chain.filter(exchange);
+        }
+        // 期限於訂閱時才開始計算
+        return chain.filter(exchange).contextWrite(context -> {
+            Deadline deadline = Deadline.parse(header, maxTimeoutNanos);
+            if (deadline == null && defaultTimeoutNanos > 0) {
+                deadline = Deadline.afterNanos(defaultTimeoutNanos);
+            }
+            return DeadlineContext.put(context, deadline);
+        });
+    }
+
+    @Override
+    public int getOrder() {
+        return order;
+    }
+}
@@ -0,0 +1,44 @@
+package tw.com.ty.common.resilience.hedge;
+
+/**
+ * 單一對沖策略：決定對沖延遲並累積延遲統計
+ */
+public class HedgePolicy {
+
+    private final String name;
+    private final HedgeSettings settings;
+    private final LatencyTracker latencyTracker;
+
+    public HedgePolicy(String name, HedgeSettings settings) {
+        this.name = name;
+        this.settings = settings;
+        this.latencyTracker = new LatencyTracker(settings.percentile());
+    }
+
+    /**
+     * 目前的對沖延遲（奈秒）：固定延遲，或觀測延遲的百分位（樣本不足時為 initialDelay），不低於 minDelay
+     */
+    public long hedgeDelayNanos() {
+        long delay = settings.delayNanos();
+        if (delay <= 0) {
+            long observed = latencyTracker.getPercentileNanos();
+            delay = observed >= 0 ? observed : settings.initialDelayNanos();
+        }
+        return Math.max(settings.minDelayNanos(), delay);
+    }
+
+    /**
+     * 記錄一次成功的第一次呼叫延遲；對沖呼叫勝出時為第一次呼叫被取消前已經過的時間（延遲下限）
+     */
+    public void recordLatency(long latencyNanos) {
+        latencyTracker.record(latencyNanos);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public HedgeSettings getSettings() {
+        return settings;
+    }
+}
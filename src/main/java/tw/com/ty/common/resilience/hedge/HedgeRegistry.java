@@ -0,0 +1,60 @@
+package tw.com.ty.common.resilience.hedge;
+
+import org.springframework.core.env.Environment;
+import tw.com.ty.common.resilience.annotation.Hedged;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 對沖策略註冊表
+ *
+ * <p>依名稱保存對沖策略，相同名稱的方法共用同一份延遲統計。設定依序取自：</p>
+ * <ul>
+ *   <li>{@link Hedged} 註解上明確設定的值</li>
+ *   <li>hedge.instances.&lt;name&gt;.delay-millis / percentile / initial-delay-millis / min-delay-millis</li>
+ *   <li>註冊表的預設設定（hedge.*）</li>
+ * </ul>
+ *
+ * <p>設定只在實例第一次建立時解析。</p>
+ */
+public class HedgeRegistry {
+
+    private static final String INSTANCE_PREFIX = "hedge.instances.";
+
+    private final Environment environment;
+    private final HedgeSettings defaults;
+    private final ConcurrentMap<String, HedgePolicy> policies = new ConcurrentHashMap<>();
+
+    public HedgeRegistry(Environment environment, HedgeSettings defaults) {
+        this.environment = environment;
+        this.defaults = defaults;
+    }
+
+    /**
+     * 取得或建立對沖策略
+     */
+    public HedgePolicy policy(String name, Hedged hedged) {
+        return policies.computeIfAbsent(name, n -> new HedgePolicy(n, resolveSettings(n, hedged)));
+    }
+
+    private HedgeSettings resolveSettings(String name, Hedged hedged) {
+        String prefix = INSTANCE_PREFIX + name + '.';
+        long delayNanos = hedged.delayMillis() >= 0
+                ? Duration.ofMillis(hedged.delayMillis()).toNanos()
+                : millisProperty(prefix + "delay-millis", defaults.delayNanos());
+        double percentile = hedged.percentile() > 0
+                ? hedged.percentile()
+                : environment.getProperty(prefix + "percentile", Double.class, defaults.percentile());
+        long initialDelayNanos = millisProperty(prefix + "initial-delay-millis", defaults.initialDelayNanos());
+        long minDelayNanos = millisProperty(prefix + "min-delay-millis", defaults.minDelayNanos());
+        return new HedgeSettings(Math.max(0, delayNanos), Math.min(100, Math.max(1, percentile)),
+                Math.max(0, initialDelayNanos), Math.max(0, minDelayNanos));
+    }
+
+    private long millisProperty(String key, long defaultNanos) {
+        Long millis = environment.getProperty(key, Long.class);
+        return millis != null ? Duration.ofMillis(millis).toNanos() : defaultNanos;
+    }
+}
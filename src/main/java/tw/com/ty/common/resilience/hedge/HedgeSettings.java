@@ -0,0 +1,12 @@
+package tw.com.ty.common.resilience.hedge;
+
+/**
+ * 單一對沖策略的設定
+ *
+ * @param delayNanos 固定的對沖延遲（奈秒），0 表示使用觀測到的延遲百分位
+ * @param percentile 觀測延遲的百分位
+ * @param initialDelayNanos 延遲樣本不足時使用的對沖延遲（奈秒）
+ * @param minDelayNanos 對沖延遲下限（奈秒），避免延遲極短時幾乎每次都對沖
+ */
+public record HedgeSettings(long delayNanos, double percentile, long initialDelayNanos, long minDelayNanos) {
+}
@@ -0,0 +1,58 @@
+package tw.com.ty.common.resilience.hedge;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 最近呼叫延遲的百分位統計
+ *
+ * <p>以環狀陣列保存最近 {@value #SAMPLES} 次呼叫的延遲，記錄只需一次原子遞增與一次寫入。
+ * 每記錄 {@value #RECOMPUTE_INTERVAL} 次由當次記錄的執行緒重新計算百分位並快取，
+ * 讀取百分位只讀取 volatile 欄位。樣本不足 {@value #RECOMPUTE_INTERVAL} 次前回傳 -1。</p>
+ */
+public class LatencyTracker {
+
+    private static final int SAMPLES = 1024;
+    private static final int RECOMPUTE_INTERVAL = 128;
+
+    private final double percentile;
+    private final AtomicLongArray samples = new AtomicLongArray(SAMPLES);
+    private final AtomicLong count = new AtomicLong();
+    private volatile long percentileNanos = -1;
+
+    /**
+     * @param percentile 統計的百分位（0 ~ 100）
+     */
+    public LatencyTracker(double percentile) {
+        this.percentile = Math.min(100, Math.max(0, percentile));
+    }
+
+    /**
+     * 記錄一次呼叫的延遲
+     */
+    public void record(long latencyNanos) {
+        long recorded = count.getAndIncrement() + 1;
+        samples.set((int) ((recorded - 1) & (SAMPLES - 1)), latencyNanos);
+        if (recorded % RECOMPUTE_INTERVAL == 0) {
+            recompute((int) Math.min(recorded, SAMPLES));
+        }
+    }
+
+    /**
+     * 快取的延遲百分位（奈秒），樣本不足時回傳 -1
+     */
+    public long getPercentileNanos() {
+        return percentileNanos;
+    }
+
+    private void recompute(int size) {
+        long[] sorted = new long[size];
+        for (int i = 0; i < size; i++) {
+            sorted[i] = samples.get(i);
+        }
+        Arrays.sort(sorted);
+        int rank = (int) Math.ceil(percentile / 100 * size);
+        percentileNanos = sorted[Math.min(size - 1, Math.max(0, rank - 1))];
+    }
+}
@@ -0,0 +1,158 @@
+package tw.com.ty.common.resilience.ratelimit;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 自適應並發限制器（梯度演算法）
+ *
+ * <p>固定的 token 速率在資料庫變慢時過鬆、系統閒置時過緊。此限制器限制的是同時處理中的請求數，
+ * 並依受保護方法的實際延遲調整上限：</p>
+ * <ul>
+ *   <li>shortRtt：最近一個取樣視窗的平均延遲</li>
+ *   <li>longRtt：延遲基準，shortRtt 較低時立即跟上、較高時僅緩慢上移，代表無排隊時的延遲</li>
+ *   <li>gradient = clamp(tolerance × longRtt / shortRtt, 0.5, 1.0)：延遲上升時小於 1，上限隨之下降</li>
+ *   <li>newLimit = limit × gradient + √limit：延遲穩定時以 √limit 的幅度探索更高的並發</li>
+ *   <li>視窗內最高並發未達上限一半時不調升，避免閒置時上限無限成長</li>
+ * </ul>
+ *
+ * <p>取得與釋放只使用原子計數；視窗結算由單一執行緒以 tryLock 完成，其他執行緒不等待。</p>
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    /**
+     * 自適應並發限制器設定
+     *
+     * @param initialLimit 初始並發上限
+     * @param minLimit 並發上限下限
+     * @param maxLimit 並發上限上限
+     * @param windowNanos 取樣視窗長度（奈秒）
+     * @param minSamples 視窗結算所需的最少樣本數
+     * @param smoothing 每次結算向新上限移動的比例（0~1）
+     * @param tolerance 容許的延遲上升倍數，超過時開始降低上限
+     */
+    public record Settings(int initialLimit, int minLimit, int maxLimit, long windowNanos,
+                           int minSamples, double smoothing, double tolerance) {
+    }
+
+    private static final double BASELINE_DRIFT = 0.01;
+
+    private final Settings settings;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+    private final LongAdder rttSum = new LongAdder();
+    private final LongAdder rttCount = new LongAdder();
+    private final ReentrantLock windowLock = new ReentrantLock();
+
+    private volatile int limit;
+    private volatile long windowStartNanos;
+    private double estimatedLimit;
+    private double longRttNanos;
+
+    public AdaptiveConcurrencyLimiter(Settings settings) {
+        this.settings = settings;
+        this.limit = settings.initialLimit();
+        this.estimatedLimit = settings.initialLimit();
+        this.windowStartNanos = System.nanoTime();
+    }
+
+    /**
+     * 嘗試取得一個並發名額
+     *
+     * @return 是否取得成功；成功時呼叫端必須在完成後呼叫 {@link #release}
+     */
+    public boolean tryAcquire() {
+        int current;
+        do {
+            current = inFlight.get();
+            if (current >= limit) {
+                return false;
+            }
+        } while (!inFlight.compareAndSet(current, current + 1));
+
+        int concurrent = current + 1;
+        if (concurrent > maxInFlight.get()) {
+            maxInFlight.accumulateAndGet(concurrent, Math::max);
+        }
+        return true;
+    }
+
+    /**
+     * 釋放並發名額並記錄延遲
+     *
+     * @param rttNanos 呼叫耗時（奈秒）；小於 0 表示不記錄（如取消）
+     */
+    public void release(long rttNanos) {
+        inFlight.decrementAndGet();
+        if (rttNanos < 0) {
+            return;
+        }
+        rttSum.add(rttNanos);
+        rttCount.increment();
+
+        long now = System.nanoTime();
+        if (now - windowStartNanos >= settings.windowNanos() && windowLock.tryLock()) {
+            try {
+                if (now - windowStartNanos >= settings.windowNanos()) {
+                    closeWindow(now);
+                }
+            } finally {
+                windowLock.unlock();
+            }
+        }
+    }
+
+    /**
+     * 結算取樣視窗並調整並發上限，僅由持有 windowLock 的執行緒呼叫
+     *
+     * <p>總和與樣本數各以 sumThenReset 連續取出，兩者的差異只限於正在 release 的呼叫（已加入其中一項），
+     * 不再包含讀取之間完成的所有呼叫；樣本不足時將取出的值加回，延至下一次結算。</p>
+     */
+    private void closeWindow(long now) {
+        if (rttCount.sum() < settings.minSamples()) {
+            return;
+        }
+        long sum = rttSum.sumThenReset();
+        long count = rttCount.sumThenReset();
+        if (count < Math.max(1, settings.minSamples())) {
+            rttSum.add(sum);
+            rttCount.add(count);
+            return;
+        }
+        int peakInFlight = maxInFlight.getAndSet(inFlight.get());
+        windowStartNanos = now;
+
+        double shortRtt = (double) sum / count;
+        if (longRttNanos == 0 || shortRtt < longRttNanos) {
+            // 延遲下降時基準立即跟上，代表目前可達的最低延遲
+            longRttNanos = shortRtt;
+        } else {
+            // 延遲上升時基準只緩慢上移，避免持續過載被誤認為新的正常值
+            longRttNanos = longRttNanos * (1 - BASELINE_DRIFT) + shortRtt * BASELINE_DRIFT;
+        }
+
+        double gradient = Math.max(0.5, Math.min(1.0, settings.tolerance() * longRttNanos / shortRtt));
+        double newLimit = estimatedLimit * gradient + Math.sqrt(estimatedLimit);
+        if (peakInFlight < estimatedLimit / 2) {
+            newLimit = Math.min(newLimit, estimatedLimit);
+        }
+        newLimit = estimatedLimit * (1 - settings.smoothing()) + newLimit * settings.smoothing();
+        estimatedLimit = Math.max(settings.minLimit(), Math.min(settings.maxLimit(), newLimit));
+        limit = (int) estimatedLimit;
+    }
+
+    /**
+     * 目前的並發上限
+     */
+    public int getLimit() {
+        return limit;
+    }
+
+    /**
+     * 目前處理中的請求數
+     */
+    public int getInFlight() {
+        return inFlight.get();
+    }
+}
@@ -0,0 +1,152 @@
+package tw.com.ty.common.resilience.ratelimit;
+
+import io.github.bucket4j.Bucket;
+import io.github.bucket4j.ConsumptionProbe;
+import io.github.bucket4j.distributed.AsyncBucketProxy;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
+
+/**
+ * 以 bucket4j {@link Bucket} 實作的 Rate Limiter
+ *
+ * <p>每次消耗都直接作用在 Bucket 上，分散式 Bucket 會產生一次網路往返。</p>
+ *
+ * <p>非同步消耗：有 {@link AsyncBucketProxy} 時使用 bucket4j 非同步 API；
+ * 分散式 Bucket 不支援非同步時交由 executor 執行；本地 Bucket 為無鎖操作，直接同步執行。</p>
+ *
+ * <p>等待模式使用 bucket4j 的預約語意：預估等待時間不超過上限時先預約 token，
+ * 同步呼叫以停放（park）等待，非同步呼叫由 scheduler 於預約時間到達時計時，
+ * 提供 completionExecutor 時下游改在該執行器上執行，不佔用 scheduler 執行緒。</p>
+ */
+public class BucketRateLimiter implements RateLimiter {
+
+    private final Bucket bucket;
+    private final AsyncBucketProxy asyncBucket;
+    private final Executor blockingExecutor;
+    private final ScheduledExecutorService scheduler;
+    private final Executor completionExecutor;
+
+    /**
+     * 建立本地 Bucket 的 Rate Limiter
+     *
+     * @param bucket 本地 Bucket
+     * @param scheduler 非同步等待計時用的排程器
+     */
+    public BucketRateLimiter(Bucket bucket, ScheduledExecutorService scheduler) {
+        this(bucket, null, null, scheduler, null);
+    }
+
+    /**
+     * 建立本地 Bucket 的 Rate Limiter
+     *
+     * @param bucket 本地 Bucket
+     * @param scheduler 非同步等待計時用的排程器
+     * @param completionExecutor 完成非同步等待並執行下游的執行器，null 表示在 scheduler 執行緒上完成
+     */
+    public BucketRateLimiter(Bucket bucket, ScheduledExecutorService scheduler, Executor completionExecutor) {
+        this(bucket, null, null, scheduler, completionExecutor);
+    }
+
+    /**
+     * @param bucket 同步 Bucket
+     * @param asyncBucket 對應同一狀態的非同步 Bucket，可為 null
+     * @param blockingExecutor 無非同步 Bucket 時執行同步呼叫的執行器，本地 Bucket 為 null
+     * @param scheduler 非同步等待計時用的排程器
+     */
+    public BucketRateLimiter(Bucket bucket, AsyncBucketProxy asyncBucket, Executor blockingExecutor,
+                             ScheduledExecutorService scheduler) {
+        this(bucket, asyncBucket, blockingExecutor, scheduler, blockingExecutor);
+    }
+
+    private BucketRateLimiter(Bucket bucket, AsyncBucketProxy asyncBucket, Executor blockingExecutor,
+                              ScheduledExecutorService scheduler, Executor completionExecutor) {
+        this.bucket = bucket;
+        this.asyncBucket = asyncBucket;
+        this.blockingExecutor = blockingExecutor;
+        this.scheduler = scheduler;
+        this.completionExecutor = completionExecutor;
+    }
+
+    @Override
+    public ConsumptionProbe tryConsumeAndReturnRemaining(long tokens) {
+        return bucket.tryConsumeAndReturnRemaining(tokens);
+    }
+
+    @Override
+    public CompletableFuture<ConsumptionProbe> tryConsumeAndReturnRemainingAsync(long tokens) {
+        if (asyncBucket != null) {
+            return asyncBucket.tryConsumeAndReturnRemaining(tokens);
+        }
+        if (blockingExecutor != null) {
+            return CompletableFuture.supplyAsync(() -> bucket.tryConsumeAndReturnRemaining(tokens), blockingExecutor);
+        }
+        return CompletableFuture.completedFuture(bucket.tryConsumeAndReturnRemaining(tokens));
+    }
+
+    @Override
+    public boolean tryConsume(long tokens, long maxWaitNanos) throws InterruptedException {
+        return bucket.asBlocking().tryConsume(tokens, maxWaitNanos);
+    }
+
+    @Override
+    public CompletableFuture<Boolean> tryConsumeAsync(long tokens, long maxWaitNanos) {
+        CompletableFuture<Boolean> consumed;
+        if (asyncBucket != null) {
+            consumed = asyncBucket.asScheduler().tryConsume(tokens, maxWaitNanos, scheduler);
+        } else if (blockingExecutor != null) {
+            consumed = CompletableFuture.supplyAsync(
+                    () -> bucket.asScheduler().tryConsume(tokens, maxWaitNanos, scheduler), blockingExecutor)
+                    .thenCompose(result -> result);
+        } else {
+            consumed = bucket.asScheduler().tryConsume(tokens, maxWaitNanos, scheduler);
+        }
+        return TimerCompletion.completeOn(consumed, completionExecutor);
+    }
+
+    @Override
+    public void refund(long tokens) {
+        if (asyncBucket != null) {
+            asyncBucket.addTokens(tokens);
+        } else if (blockingExecutor != null) {
+            blockingExecutor.execute(() -> bucket.addTokens(tokens));
+        } else {
+            bucket.addTokens(tokens);
+        }
+    }
+
+    @Override
+    public long getAvailableTokens() {
+        return bucket.getAvailableTokens();
+    }
+
+    @Override
+    public void consumeIgnoringRateLimits(long tokens) {
+        bucket.consumeIgnoringRateLimits(tokens);
+    }
+
+    @Override
+    public void drain() {
+        bucket.tryConsumeAsMuchAsPossible();
+    }
+
+    @Override
+    public CompletableFuture<Void> drainAsync() {
+        if (asyncBucket != null) {
+            return asyncBucket.tryConsumeAsMuchAsPossible().thenAccept(drained -> { });
+        }
+        if (blockingExecutor != null) {
+            return CompletableFuture.runAsync(bucket::tryConsumeAsMuchAsPossible, blockingExecutor);
+        }
+        drain();
+        return CompletableFuture.completedFuture(null);
+    }
+
+    /**
+     * 取得底層 Bucket
+     */
+    public Bucket getBucket() {
+        return bucket;
+    }
+}
@@ -0,0 +1,155 @@
+package tw.com.ty.common.resilience.ratelimit;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * 有上限、可淘汰的分段 Bucket 註冊表
+ *
+ * <p>以限流鍵（如使用者、IP）為單位保存 Bucket：</p>
+ * <ul>
+ *   <li>鍵依雜湊分散到多個分段，每個分段各自加鎖，避免全域鎖競爭</li>
+ *   <li>每個分段為存取順序的 LinkedHashMap，超過容量時淘汰最久未使用的鍵</li>
+ *   <li>閒置超過 idleTimeout 的 Bucket 會在寫入時順帶淘汰，不需要背景執行緒</li>
+ * </ul>
+ *
+ * <p>idleTimeout 應不小於 Bucket 由空補滿所需時間，
+ * 如此淘汰閒置 Bucket 後重新建立的滿額 Bucket 與原狀態等價。</p>
+ *
+ * @param <T> Bucket 類型
+ */
+public class BucketRegistry<T> {
+
+    private final Segment<T>[] segments;
+    private final int segmentMask;
+
+    /**
+     * @param maxKeys 最多保存的鍵數量
+     * @param idleTimeoutNanos 閒置淘汰時間（奈秒）
+     * @param concurrencyLevel 預期並發程度，決定分段數量
+     */
+    @SuppressWarnings("unchecked")
+    public BucketRegistry(long maxKeys, long idleTimeoutNanos, int concurrencyLevel) {
+        if (maxKeys <= 0) {
+            throw new IllegalArgumentException("maxKeys must be positive");
+        }
+        int segmentCount = Integer.highestOneBit(Math.max(1, concurrencyLevel - 1)) << 1;
+        segmentCount = Math.min(segmentCount, Integer.highestOneBit((int) Math.min(maxKeys, 1 << 30)));
+        int segmentCapacity = (int) Math.max(1, Math.min(Integer.MAX_VALUE, maxKeys / segmentCount));
+
+        this.segments = (Segment<T>[]) new Segment<?>[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            segments[i] = new Segment<>(segmentCapacity, idleTimeoutNanos);
+        }
+        this.segmentMask = segmentCount - 1;
+    }
+
+    /**
+     * 取得鍵對應的 Bucket，不存在或已閒置過期時以 factory 建立
+     *
+     * @param key 限流鍵
+     * @param factory Bucket 建立函式
+     * @return Bucket 實例
+     */
+    public T getOrCreate(String key, Function<? super String, ? extends T> factory) {
+        int hash = key.hashCode();
+        hash ^= (hash >>> 16);
+        return segments[hash & segmentMask].getOrCreate(key, factory, System.nanoTime());
+    }
+
+    /**
+     * 目前保存的鍵數量
+     */
+    public long size() {
+        long size = 0;
+        for (Segment<T> segment : segments) {
+            size += segment.size();
+        }
+        return size;
+    }
+
+    /**
+     * 清除所有鍵
+     */
+    public void clear() {
+        for (Segment<T> segment : segments) {
+            segment.clear();
+        }
+    }
+
+    private static final class Entry<T> {
+        final T value;
+        long lastAccessNanos;
+
+        Entry(T value, long now) {
+            this.value = value;
+            this.lastAccessNanos = now;
+        }
+    }
+
+    private static final class Segment<T> {
+
+        private final ReentrantLock lock = new ReentrantLock();
+        private final LinkedHashMap<String, Entry<T>> entries = new LinkedHashMap<>(16, 0.75f, true);
+        private final int capacity;
+        private final long idleTimeoutNanos;
+
+        Segment(int capacity, long idleTimeoutNanos) {
+            this.capacity = capacity;
+            this.idleTimeoutNanos = idleTimeoutNanos;
+        }
+
+        T getOrCreate(String key, Function<? super String, ? extends T> factory, long now) {
+            lock.lock();
+            try {
+                Entry<T> entry = entries.get(key);
+                if (entry == null || now - entry.lastAccessNanos > idleTimeoutNanos) {
+                    entry = new Entry<>(factory.apply(key), now);
+                    entries.put(key, entry);
+                    evict(now);
+                } else {
+                    entry.lastAccessNanos = now;
+                }
+                return entry.value;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * 由最久未使用的一端開始淘汰：超出容量或閒置過期的鍵
+         */
+        private void evict(long now) {
+            Iterator<Map.Entry<String, Entry<T>>> iterator = entries.entrySet().iterator();
+            while (iterator.hasNext()) {
+                Entry<T> eldest = iterator.next().getValue();
+                if (entries.size() > capacity || now - eldest.lastAccessNanos > idleTimeoutNanos) {
+                    iterator.remove();
+                } else {
+                    break;
+                }
+            }
+        }
+
+        int size() {
+            lock.lock();
+            try {
+                return entries.size();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void clear() {
+            lock.lock();
+            try {
+                entries.clear();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
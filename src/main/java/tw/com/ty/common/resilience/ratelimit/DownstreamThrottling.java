@@ -0,0 +1,83 @@
+package tw.com.ty.common.resilience.ratelimit;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.util.ClassUtils;
+import org.springframework.web.client.RestClientResponseException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 外部服務限流回應的處理
+ *
+ * <p>客戶端限流的配額只是對方配額的估計。外部服務仍回應 429 時，代表估計偏高或有其他呼叫者共用配額，
+ * 此時清空對應的 Bucket，後續呼叫與重試一同等待補充，而不是各自立刻再試。
+ * 清空由 {@link RateLimiter#drain()} 實作，分散式預取時同時捨棄本地租用的 token 並清空共享 Bucket。</p>
+ */
+public final class DownstreamThrottling {
+
+    private static final boolean WEB_CLIENT_PRESENT = ClassUtils.isPresent(
+            "org.springframework.web.reactive.function.client.WebClientResponseException",
+            DownstreamThrottling.class.getClassLoader());
+
+    private static final int MAX_CAUSE_DEPTH = 8;
+
+    private DownstreamThrottling() {
+        // 工具類不允許實例化
+    }
+
+    /**
+     * 異常（或其原因鏈）是否為外部服務的 429 回應
+     *
+     * 支援 RestTemplate / RestClient 的 {@link RestClientResponseException}，
+     * 以及存在 WebFlux 時 WebClient 的 {@link WebClientResponseException}
+     */
+    public static boolean isThrottled(Throwable throwable) {
+        Throwable current = throwable;
+        for (int depth = 0; current != null && depth < MAX_CAUSE_DEPTH; depth++) {
+            if (current instanceof RestClientResponseException restClientException
+                    && restClientException.getStatusCode().value() == HttpStatus.TOO_MANY_REQUESTS.value()) {
+                return true;
+            }
+            if (WEB_CLIENT_PRESENT && isWebClientThrottled(current)) {
+                return true;
+            }
+            current = current.getCause();
+        }
+        return false;
+    }
+
+    /**
+     * 外部服務回應 429 時清空 Bucket
+     *
+     * @param rateLimiter 外部服務對應的客戶端 Rate Limiter
+     * @param throwable 呼叫拋出的異常
+     * @return 是否為 429 回應
+     */
+    public static boolean drainIfThrottled(RateLimiter rateLimiter, Throwable throwable) {
+        if (!isThrottled(throwable)) {
+            return false;
+        }
+        rateLimiter.drain();
+        return true;
+    }
+
+    /**
+     * 外部服務回應 429 時以非同步 API 清空 Bucket，供響應式呼叫使用，不阻塞 event loop
+     *
+     * @param rateLimiter 外部服務對應的客戶端 Rate Limiter
+     * @param throwable 呼叫拋出的異常
+     * @return 清空完成後完成的 future，值為是否為 429 回應
+     */
+    public static CompletableFuture<Boolean> drainIfThrottledAsync(RateLimiter rateLimiter, Throwable throwable) {
+        if (!isThrottled(throwable)) {
+            return CompletableFuture.completedFuture(false);
+        }
+        return rateLimiter.drainAsync().thenApply(drained -> true);
+    }
+
+    private static boolean isWebClientThrottled(Throwable throwable) {
+        return throwable instanceof WebClientResponseException webClientException
+                && webClientException.getStatusCode().value() == HttpStatus.TOO_MANY_REQUESTS.value();
+    }
+}
@@ -0,0 +1,236 @@
+package tw.com.ty.common.resilience.ratelimit;
+
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.ConsumptionProbe;
+import io.github.bucket4j.TimeMeter;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 以 GCRA（Generic Cell Rate Algorithm / virtual scheduling）實作的無鎖 Rate Limiter
+ *
+ * <p>全部狀態為一個 long：理論到達時間 TAT（theoretical arrival time）。
+ * 每個 token 代表 emissionInterval 的時間，容量代表可預支的時間 tolerance = capacity × emissionInterval：</p>
+ * <ul>
+ *   <li>newTat = max(TAT, now) + tokens × emissionInterval</li>
+ *   <li>newTat - now ≤ tolerance 時以一次 CAS 寫入 newTat 並放行，否則拒絕且不修改狀態</li>
+ *   <li>剩餘 token = (tolerance - (newTat - now)) / emissionInterval</li>
+ * </ul>
+ *
+ * <p>等同 bucket4j 的單一頻寬平滑補充（greedy），初始為滿容量。{@link #tryConsume(long)} 與
+ * {@link #tryConsumeRemaining(long)} 不配置任何物件；需要等待時間時才建立 {@link ConsumptionProbe}。</p>
+ *
+ * <p>時間來源預設為 {@link TimeMeter#SYSTEM_NANOTIME}，離線模擬時可傳入虛擬時鐘。</p>
+ */
+public class GcraRateLimiter implements RateLimiter {
+
+    private final long emissionIntervalNanos;
+    private final long toleranceNanos;
+    private final ScheduledExecutorService scheduler;
+    private final Executor completionExecutor;
+    private final TimeMeter timeMeter;
+    private final AtomicLong theoreticalArrivalTime;
+
+    /**
+     * @param bandwidth 頻寬設定（容量與補充速率）
+     * @param scheduler 非同步等待計時用的排程器
+     */
+    public GcraRateLimiter(Bandwidth bandwidth, ScheduledExecutorService scheduler) {
+        this(bandwidth.getCapacity(), bandwidth.getRefillTokens(), bandwidth.getRefillPeriodNanos(), scheduler);
+    }
+
+    /**
+     * @param bandwidth 頻寬設定（容量與補充速率）
+     * @param scheduler 非同步等待計時用的排程器
+     * @param completionExecutor 完成非同步等待並執行下游的執行器，null 表示在排程器執行緒上完成
+     */
+    public GcraRateLimiter(Bandwidth bandwidth, ScheduledExecutorService scheduler, Executor completionExecutor) {
+        this(bandwidth.getCapacity(), bandwidth.getRefillTokens(), bandwidth.getRefillPeriodNanos(),
+                TimeMeter.SYSTEM_NANOTIME, scheduler, completionExecutor);
+    }
+
+    /**
+     * @param capacity 容量
+     * @param refillTokens 每個補充週期補充的 token 數量
+     * @param refillPeriodNanos 補充週期（奈秒）
+     * @param scheduler 非同步等待計時用的排程器
+     */
+    public GcraRateLimiter(long capacity, long refillTokens, long refillPeriodNanos, ScheduledExecutorService scheduler) {
+        this(capacity, refillTokens, refillPeriodNanos, TimeMeter.SYSTEM_NANOTIME, scheduler, null);
+    }
+
+    /**
+     * @param bandwidth 頻寬設定（容量與補充速率）
+     * @param timeMeter 時間來源
+     * @param scheduler 非同步等待計時用的排程器
+     */
+    public GcraRateLimiter(Bandwidth bandwidth, TimeMeter timeMeter, ScheduledExecutorService scheduler) {
+        this(bandwidth.getCapacity(), bandwidth.getRefillTokens(), bandwidth.getRefillPeriodNanos(), timeMeter, scheduler, null);
+    }
+
+    private GcraRateLimiter(long capacity, long refillTokens, long refillPeriodNanos, TimeMeter timeMeter,
+                            ScheduledExecutorService scheduler, Executor completionExecutor) {
+        if (capacity <= 0 || refillTokens <= 0 || refillPeriodNanos <= 0) {
+            throw new IllegalArgumentException("capacity, refillTokens and refillPeriodNanos must be positive");
+        }
+        this.emissionIntervalNanos = Math.max(1, refillPeriodNanos / refillTokens);
+        this.toleranceNanos = Math.multiplyExact(capacity, emissionIntervalNanos);
+        this.scheduler = scheduler;
+        this.completionExecutor = completionExecutor;
+        this.timeMeter = timeMeter;
+        this.theoreticalArrivalTime = new AtomicLong(timeMeter.currentTimeNanos());
+    }
+
+    @Override
+    public boolean tryConsume(long tokens) {
+        long increment = tokens * emissionIntervalNanos;
+        while (true) {
+            long now = timeMeter.currentTimeNanos();
+            long tat = theoreticalArrivalTime.get();
+            long newTat = Math.max(tat - now, 0) + now + increment;
+            if (newTat - now > toleranceNanos) {
+                return false;
+            }
+            if (theoreticalArrivalTime.compareAndSet(tat, newTat)) {
+                return true;
+            }
+        }
+    }
+
+    @Override
+    public ConsumptionProbe tryConsumeAndReturnRemaining(long tokens) {
+        long increment = tokens * emissionIntervalNanos;
+        while (true) {
+            long now = timeMeter.currentTimeNanos();
+            long tat = theoreticalArrivalTime.get();
+            long base = Math.max(tat - now, 0);
+            long newTat = base + now + increment;
+            long ahead = newTat - now;
+            if (ahead > toleranceNanos) {
+                return ConsumptionProbe.rejected(remaining(base), ahead - toleranceNanos, base);
+            }
+            if (theoreticalArrivalTime.compareAndSet(tat, newTat)) {
+                return ConsumptionProbe.consumed(remaining(ahead), ahead);
+            }
+        }
+    }
+
+    /**
+     * 剩餘量直接由 TAT 計算，放行與拒絕皆不配置物件
+     */
+    @Override
+    public long tryConsumeRemaining(long tokens) {
+        long increment = tokens * emissionIntervalNanos;
+        while (true) {
+            long now = timeMeter.currentTimeNanos();
+            long tat = theoreticalArrivalTime.get();
+            long newTat = Math.max(tat - now, 0) + now + increment;
+            long ahead = newTat - now;
+            if (ahead > toleranceNanos) {
+                return -1;
+            }
+            if (theoreticalArrivalTime.compareAndSet(tat, newTat)) {
+                return remaining(ahead);
+            }
+        }
+    }
+
+    @Override
+    public CompletableFuture<ConsumptionProbe> tryConsumeAndReturnRemainingAsync(long tokens) {
+        return CompletableFuture.completedFuture(tryConsumeAndReturnRemaining(tokens));
+    }
+
+    @Override
+    public boolean tryConsume(long tokens, long maxWaitNanos) throws InterruptedException {
+        long waitNanos = reserve(tokens, maxWaitNanos);
+        if (waitNanos < 0) {
+            return false;
+        }
+        long deadline = System.nanoTime() + waitNanos;
+        long remaining = waitNanos;
+        while (remaining > 0) {
+            LockSupport.parkNanos(remaining);
+            if (Thread.interrupted()) {
+                refund(tokens);
+                throw new InterruptedException();
+            }
+            remaining = deadline - System.nanoTime();
+        }
+        return true;
+    }
+
+    @Override
+    public CompletableFuture<Boolean> tryConsumeAsync(long tokens, long maxWaitNanos) {
+        long waitNanos = reserve(tokens, maxWaitNanos);
+        if (waitNanos <= 0) {
+            return CompletableFuture.completedFuture(waitNanos == 0);
+        }
+        CompletableFuture<Boolean> result = new CompletableFuture<>();
+        scheduler.schedule(() -> result.complete(true), waitNanos, TimeUnit.NANOSECONDS);
+        return TimerCompletion.completeOn(result, completionExecutor);
+    }
+
+    /**
+     * 將 TAT 往回移，最多回到目前時間（即滿容量）
+     */
+    @Override
+    public void refund(long tokens) {
+        long decrement = tokens * emissionIntervalNanos;
+        while (true) {
+            long now = timeMeter.currentTimeNanos();
+            long tat = theoreticalArrivalTime.get();
+            if (tat - now <= 0) {
+                return;
+            }
+            long newTat = now + Math.max(tat - now - decrement, 0);
+            if (theoreticalArrivalTime.compareAndSet(tat, newTat)) {
+                return;
+            }
+        }
+    }
+
+    @Override
+    public long getAvailableTokens() {
+        return remaining(Math.max(theoreticalArrivalTime.get() - timeMeter.currentTimeNanos(), 0));
+    }
+
+    @Override
+    public void consumeIgnoringRateLimits(long tokens) {
+        long increment = tokens * emissionIntervalNanos;
+        while (true) {
+            long now = timeMeter.currentTimeNanos();
+            long tat = theoreticalArrivalTime.get();
+            if (theoreticalArrivalTime.compareAndSet(tat, Math.max(tat - now, 0) + now + increment)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * 預約 token：可在 maxWaitNanos 內取得時寫入狀態並回傳需等待的時間，否則回傳 -1
+     */
+    private long reserve(long tokens, long maxWaitNanos) {
+        long increment = tokens * emissionIntervalNanos;
+        while (true) {
+            long now = timeMeter.currentTimeNanos();
+            long tat = theoreticalArrivalTime.get();
+            long newTat = Math.max(tat - now, 0) + now + increment;
+            long waitNanos = Math.max(0, newTat - now - toleranceNanos);
+            if (waitNanos > maxWaitNanos) {
+                return -1;
+            }
+            if (theoreticalArrivalTime.compareAndSet(tat, newTat)) {
+                return waitNanos;
+            }
+        }
+    }
+
+    private long remaining(long aheadNanos) {
+        return Math.max(0, (toleranceNanos - aheadNanos) / emissionIntervalNanos);
+    }
+}
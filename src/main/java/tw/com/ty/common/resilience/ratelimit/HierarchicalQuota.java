@@ -0,0 +1,112 @@
+package tw.com.ty.common.resilience.ratelimit;
+
+import io.github.bucket4j.ConsumptionProbe;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 階層式配額（服務 → 租戶 → 使用者）
+ *
+ * <p>請求必須同時通過所有層級。由最內層（最具選擇性、最常拒絕）開始依序消耗，
+ * 任一層級拒絕時退回已消耗層級的 token，因此不會留下部分消耗：</p>
+ * <ul>
+ *   <li>使用者超限時不會消耗租戶與服務層級的配額</li>
+ *   <li>租戶超限時退回該使用者已消耗的 token</li>
+ * </ul>
+ *
+ * <p>bucket4j 無法跨 Bucket 交易，退回是補償而非鎖定：退回前其他請求可能短暫看到較少的 token，
+ * 但不會有 token 被永久扣除。</p>
+ */
+public final class HierarchicalQuota {
+
+    private HierarchicalQuota() {
+        // 工具類不允許實例化
+    }
+
+    /**
+     * 配額層級
+     *
+     * @param level 層級名稱（回報拒絕層級用）
+     * @param rateLimiter 此層級目前請求對應的 Rate Limiter
+     * @param limit 此層級的容量
+     */
+    public record Level(String level, RateLimiter rateLimiter, long limit) {
+    }
+
+    /**
+     * 階層式消耗結果
+     *
+     * @param probe 放行時為剩餘 token 最少的層級結果，拒絕時為拒絕層級的結果
+     * @param limit probe 所屬層級的容量
+     * @param rejectedLevel 拒絕的層級名稱，放行時為 null
+     */
+    public record Result(ConsumptionProbe probe, long limit, String rejectedLevel) {
+
+        public boolean isConsumed() {
+            return rejectedLevel == null;
+        }
+    }
+
+    /**
+     * 依序消耗所有層級
+     *
+     * @param levels 由外而內的層級
+     * @param tokens token 數量
+     * @return 消耗結果
+     */
+    public static Result tryConsume(List<Level> levels, long tokens) {
+        Result tightest = null;
+        for (int i = levels.size() - 1; i >= 0; i--) {
+            Level level = levels.get(i);
+            ConsumptionProbe probe = level.rateLimiter().tryConsumeAndReturnRemaining(tokens);
+            if (!probe.isConsumed()) {
+                refund(levels, i + 1, tokens);
+                return new Result(probe, level.limit(), level.level());
+            }
+            tightest = tighter(tightest, probe, level);
+        }
+        return tightest;
+    }
+
+    /**
+     * 非同步依序消耗所有層級，不阻塞呼叫執行緒
+     *
+     * @param levels 由外而內的層級
+     * @param tokens token 數量
+     * @return 消耗結果
+     */
+    public static CompletableFuture<Result> tryConsumeAsync(List<Level> levels, long tokens) {
+        return consumeFrom(levels, levels.size() - 1, tokens, null);
+    }
+
+    private static CompletableFuture<Result> consumeFrom(List<Level> levels, int index, long tokens, Result tightest) {
+        if (index < 0) {
+            return CompletableFuture.completedFuture(tightest);
+        }
+        Level level = levels.get(index);
+        return level.rateLimiter().tryConsumeAndReturnRemainingAsync(tokens).thenCompose(probe -> {
+            if (!probe.isConsumed()) {
+                refund(levels, index + 1, tokens);
+                return CompletableFuture.completedFuture(new Result(probe, level.limit(), level.level()));
+            }
+            return consumeFrom(levels, index - 1, tokens, tighter(tightest, probe, level));
+        });
+    }
+
+    /**
+     * 退回 fromIndex 之後（較內層、已消耗）的層級
+     */
+    private static void refund(List<Level> levels, int fromIndex, long tokens) {
+        for (int i = fromIndex; i < levels.size(); i++) {
+            levels.get(i).rateLimiter().refund(tokens);
+        }
+    }
+
+    private static Result tighter(Result current, ConsumptionProbe probe, Level level) {
+        if (current == null || probe.getRemainingTokens() < current.probe().getRemainingTokens()) {
+            return new Result(probe, level.limit(), null);
+        }
+        return current;
+    }
+}
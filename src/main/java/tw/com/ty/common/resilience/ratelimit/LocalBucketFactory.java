@@ -0,0 +1,28 @@
+package tw.com.ty.common.resilience.ratelimit;
+
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.Bucket;
+import io.github.bucket4j.BucketConfiguration;
+import io.github.bucket4j.local.LocalBucketBuilder;
+
+/**
+ * 本地 Bucket 工廠
+ *
+ * Bucket 狀態保存在 JVM 內，每個節點各自計算配額
+ */
+public class LocalBucketFactory implements RateLimitBucketFactory {
+
+    @Override
+    public Bucket create(String key, BucketConfiguration configuration) {
+        LocalBucketBuilder builder = Bucket.builder();
+        for (Bandwidth bandwidth : configuration.getBandwidths()) {
+            builder.addLimit(bandwidth);
+        }
+        return builder.build();
+    }
+
+    @Override
+    public boolean isDistributed() {
+        return false;
+    }
+}
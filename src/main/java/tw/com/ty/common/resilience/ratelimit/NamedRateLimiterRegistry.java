@@ -0,0 +1,130 @@
+package tw.com.ty.common.resilience.ratelimit;
+
+import io.github.bucket4j.BucketConfiguration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.core.env.Environment;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 具名 Rate Limiter 註冊表
+ *
+ * <p>從 rate-limiter.limits.&lt;name&gt;.* 載入具名限流器定義，供 {@code @RateLimited(name = "...")} 使用。
+ * {@link #reload()} 重新綁定屬性，配置有變動的定義會被替換，既有 Bucket 於下一次使用時就地套用，
+ * 可在不重新部署的情況下調整限流。</p>
+ *
+ * <p>重新載入時：</p>
+ * <ul>
+ *   <li>新增的名稱立即可用</li>
+ *   <li>設定無效的名稱保留原配置並記錄錯誤</li>
+ *   <li>從屬性中移除的名稱保留最後的配置，避免正在使用的方法失去保護</li>
+ * </ul>
+ */
+public final class NamedRateLimiterRegistry {
+
+    private static final Logger logger = LoggerFactory.getLogger(NamedRateLimiterRegistry.class);
+
+    private static final String PROPERTY_PREFIX = "rate-limiter.limits";
+    private static final String BUCKET_KEY_PREFIX = "limit:";
+
+    private final Environment environment;
+    private final RateLimiterFactory rateLimiterFactory;
+    private final ConcurrentMap<String, RateLimitDefinition> definitions = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, RateLimiter> globalLimiters = new ConcurrentHashMap<>();
+
+    public NamedRateLimiterRegistry(Environment environment, RateLimiterFactory rateLimiterFactory) {
+        this.environment = environment;
+        this.rateLimiterFactory = rateLimiterFactory;
+        reload();
+    }
+
+    /**
+     * 取得具名限流器定義
+     *
+     * @param name 限流器名稱
+     * @return 限流器定義
+     * @throws IllegalStateException 未配置該名稱
+     */
+    public RateLimitDefinition definition(String name) {
+        RateLimitDefinition definition = definitions.get(name);
+        if (definition == null) {
+            throw new IllegalStateException("找不到 Rate Limiter 配置: " + PROPERTY_PREFIX + "." + name);
+        }
+        return definition;
+    }
+
+    /**
+     * 取得具名限流器的全域（所有請求共用）Rate Limiter
+     */
+    public RateLimiter global(String name) {
+        RateLimitDefinition definition = definition(name);
+        return globalLimiters.computeIfAbsent(name, n -> create(BUCKET_KEY_PREFIX + n, definition));
+    }
+
+    /**
+     * 取得具名限流器在指定限流鍵下使用的 Bucket 鍵
+     */
+    public String bucketKey(String name, String key) {
+        return BUCKET_KEY_PREFIX + name + ':' + key;
+    }
+
+    /**
+     * 建立隨定義重新配置的 Rate Limiter
+     *
+     * @param bucketKey Bucket 鍵
+     * @param definition 具名限流器定義
+     * @return RateLimiter 實例
+     */
+    public RateLimiter create(String bucketKey, RateLimitDefinition definition) {
+        return rateLimiterFactory.createReconfigurable(bucketKey, definition);
+    }
+
+    /**
+     * 重新綁定 rate-limiter.limits.* 並替換有變動的定義
+     *
+     * @return 新增或變動的定義數量
+     */
+    public synchronized int reload() {
+        Map<String, RateLimitProperties> bound;
+        try {
+            bound = Binder.get(environment)
+                    .bind(PROPERTY_PREFIX, Bindable.mapOf(String.class, RateLimitProperties.class))
+                    .orElse(Map.of());
+        } catch (RuntimeException e) {
+            logger.error("Rate Limiter 配置綁定失敗，沿用目前配置: {}", e.getMessage());
+            return 0;
+        }
+
+        int changed = 0;
+        for (Map.Entry<String, RateLimitProperties> entry : bound.entrySet()) {
+            String name = entry.getKey();
+            BucketConfiguration configuration;
+            try {
+                configuration = entry.getValue().toBucketConfiguration(name);
+            } catch (RuntimeException e) {
+                logger.error("Rate Limiter {} 配置無效，沿用目前配置: {}", name, e.getMessage());
+                continue;
+            }
+            RateLimitDefinition existing = definitions.get(name);
+            if (existing == null) {
+                definitions.put(name, new RateLimitDefinition(name, configuration));
+                changed++;
+            } else if (!existing.getConfiguration().equals(configuration)) {
+                existing.update(configuration);
+                logger.info("Rate Limiter {} 配置已更新: {}", name, configuration);
+                changed++;
+            }
+        }
+        for (String name : definitions.keySet()) {
+            if (!bound.containsKey(name)) {
+                logger.warn("Rate Limiter {} 已從配置移除，沿用最後的配置", name);
+            }
+        }
+        return changed;
+    }
+}
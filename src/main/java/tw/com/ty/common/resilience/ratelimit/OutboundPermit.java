@@ -0,0 +1,52 @@
+package tw.com.ty.common.resilience.ratelimit;
+
+/**
+ * 已預先取得的客戶端限流 token
+ *
+ * <p>RetryTemplate 於每次嘗試前取得一個 token 並在執行緒上標記，嘗試中第一次呼叫同一個 Rate Limiter 的
+ * {@code @RateLimited(outbound = true)} 方法直接使用該 token，不再另外消耗，每次嘗試只計費一次。
+ * 標記只使用一次，同一次嘗試中後續的呼叫照常消耗。</p>
+ */
+public final class OutboundPermit {
+
+    private static final ThreadLocal<RateLimiter> HELD = new ThreadLocal<>();
+
+    private OutboundPermit() {
+        // 工具類不允許實例化
+    }
+
+    /**
+     * 標記目前執行緒已為 rateLimiter 取得一個 token
+     *
+     * @return 先前的標記，結束時以 {@link #restore} 還原
+     */
+    public static RateLimiter hold(RateLimiter rateLimiter) {
+        RateLimiter previous = HELD.get();
+        HELD.set(rateLimiter);
+        return previous;
+    }
+
+    /**
+     * 還原先前的標記
+     */
+    public static void restore(RateLimiter previous) {
+        if (previous == null) {
+            HELD.remove();
+        } else {
+            HELD.set(previous);
+        }
+    }
+
+    /**
+     * 目前執行緒持有 rateLimiter 的 token 時取用並清除標記
+     *
+     * @return 是否取用了預先取得的 token
+     */
+    public static boolean take(RateLimiter rateLimiter) {
+        if (HELD.get() != rateLimiter) {
+            return false;
+        }
+        HELD.remove();
+        return true;
+    }
+}
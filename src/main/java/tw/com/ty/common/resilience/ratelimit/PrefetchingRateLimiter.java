@@ -0,0 +1,257 @@
+package tw.com.ty.common.resilience.ratelimit;
+
+import io.github.bucket4j.Bucket;
+import io.github.bucket4j.ConsumptionProbe;
+import io.github.bucket4j.distributed.AsyncBucketProxy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 本地預取 token 的 Rate Limiter
+ *
+ * <p>分散式 Bucket 每次消耗都需要一次網路往返，此類別在本地保存一批向共享 Bucket
+ * 租用的 token，請求只需對本地計數器做一次 CAS：</p>
+ * <ul>
+ *   <li>本地 token 低於批次量一半時，在背景執行緒向共享 Bucket 補租一批</li>
+ *   <li>補租尚未完成時，允許本地計數器透支至 -maxOverAdmission（樂觀放行），
+ *       透支額度由下一次租用的 token 償還</li>
+ *   <li>透支額度用盡時才同步向共享 Bucket 消耗；共享 Bucket 也不足時，
+ *       依回傳的等待時間暫停同步嘗試，避免耗盡時每個請求都產生網路往返</li>
+ * </ul>
+ *
+ * <p>非同步消耗時，本地路徑直接完成；同步向共享 Bucket 消耗的路徑改用 {@link AsyncBucketProxy}，
+ * 不支援時交由 executor 執行，不阻塞呼叫執行緒。</p>
+ *
+ * <p>等待模式：本地 token 與透支額度不足時，直接以預約語意向共享 Bucket 消耗並等待，不受暫停嘗試限制。</p>
+ *
+ * <p>每個節點對每個限流鍵最多多放行 maxOverAdmission 個請求；
+ * 節點上未用完的租用 token（最多 batchSize 個）對其他節點而言暫時不可用。</p>
+ */
+public class PrefetchingRateLimiter implements RateLimiter {
+
+    private static final Logger logger = LoggerFactory.getLogger(PrefetchingRateLimiter.class);
+
+    private final Bucket sharedBucket;
+    private final AsyncBucketProxy asyncSharedBucket;
+    private final long batchSize;
+    private final long lowWatermark;
+    private final long maxOverAdmission;
+    private final Executor executor;
+    private final ScheduledExecutorService scheduler;
+
+    private final AtomicLong localTokens = new AtomicLong();
+    private final AtomicBoolean leasing = new AtomicBoolean();
+    private volatile long backoffUntilNanos;
+
+    /**
+     * @param sharedBucket 共享（分散式）Bucket
+     * @param asyncSharedBucket 對應同一狀態的非同步 Bucket，可為 null
+     * @param batchSize 每次向共享 Bucket 租用的 token 數量
+     * @param maxOverAdmission 補租完成前允許本地透支的 token 數量
+     * @param executor 執行背景補租的執行器
+     * @param scheduler 非同步等待計時用的排程器
+     */
+    public PrefetchingRateLimiter(Bucket sharedBucket, AsyncBucketProxy asyncSharedBucket,
+                                  long batchSize, long maxOverAdmission, Executor executor,
+                                  ScheduledExecutorService scheduler) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("batchSize must be positive");
+        }
+        this.sharedBucket = sharedBucket;
+        this.asyncSharedBucket = asyncSharedBucket;
+        this.batchSize = batchSize;
+        this.lowWatermark = batchSize / 2;
+        this.maxOverAdmission = Math.max(0, maxOverAdmission);
+        this.executor = executor;
+        this.scheduler = scheduler;
+        this.backoffUntilNanos = System.nanoTime();
+    }
+
+    @Override
+    public ConsumptionProbe tryConsumeAndReturnRemaining(long tokens) {
+        if (tryConsumeLocally(tokens)) {
+            return localProbe();
+        }
+        if (isBackingOff()) {
+            return backoffProbe();
+        }
+        return onSharedProbe(sharedBucket.tryConsumeAndReturnRemaining(tokens));
+    }
+
+    @Override
+    public long tryConsumeRemaining(long tokens) {
+        if (tryConsumeLocally(tokens)) {
+            return Math.max(0, localTokens.get());
+        }
+        ConsumptionProbe probe = tryConsumeAndReturnRemaining(tokens);
+        return probe.isConsumed() ? probe.getRemainingTokens() : -1;
+    }
+
+    @Override
+    public CompletableFuture<ConsumptionProbe> tryConsumeAndReturnRemainingAsync(long tokens) {
+        if (tryConsumeLocally(tokens)) {
+            return CompletableFuture.completedFuture(localProbe());
+        }
+        if (isBackingOff()) {
+            return CompletableFuture.completedFuture(backoffProbe());
+        }
+        CompletableFuture<ConsumptionProbe> probe = asyncSharedBucket != null
+                ? asyncSharedBucket.tryConsumeAndReturnRemaining(tokens)
+                : CompletableFuture.supplyAsync(() -> sharedBucket.tryConsumeAndReturnRemaining(tokens), executor);
+        return probe.thenApply(this::onSharedProbe);
+    }
+
+    @Override
+    public boolean tryConsume(long tokens, long maxWaitNanos) throws InterruptedException {
+        if (tryConsumeLocally(tokens)) {
+            return true;
+        }
+        if (sharedBucket.asBlocking().tryConsume(tokens, maxWaitNanos)) {
+            scheduleLease();
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public CompletableFuture<Boolean> tryConsumeAsync(long tokens, long maxWaitNanos) {
+        if (tryConsumeLocally(tokens)) {
+            return CompletableFuture.completedFuture(true);
+        }
+        CompletableFuture<Boolean> consumed = asyncSharedBucket != null
+                ? asyncSharedBucket.asScheduler().tryConsume(tokens, maxWaitNanos, scheduler)
+                : CompletableFuture.supplyAsync(
+                        () -> sharedBucket.asScheduler().tryConsume(tokens, maxWaitNanos, scheduler), executor)
+                        .thenCompose(result -> result);
+        return TimerCompletion.completeOn(consumed, executor).thenApply(result -> {
+            if (result) {
+                scheduleLease();
+            }
+            return result;
+        });
+    }
+
+    /**
+     * 退回至本地計數器，由後續請求或租用抵用，不產生網路往返
+     */
+    @Override
+    public void refund(long tokens) {
+        localTokens.addAndGet(tokens);
+    }
+
+    /**
+     * 捨棄本地租用的 token（保留透支額度）並清空共享 Bucket
+     *
+     * 狀態不在本地，{@link #getAvailableTokens()} 回傳 -1，因此不使用預設實作
+     */
+    @Override
+    public void drain() {
+        discardLocalTokens();
+        sharedBucket.tryConsumeAsMuchAsPossible();
+    }
+
+    @Override
+    public CompletableFuture<Void> drainAsync() {
+        discardLocalTokens();
+        return asyncSharedBucket != null
+                ? asyncSharedBucket.tryConsumeAsMuchAsPossible().thenAccept(drained -> { })
+                : CompletableFuture.runAsync(sharedBucket::tryConsumeAsMuchAsPossible, executor);
+    }
+
+    private void discardLocalTokens() {
+        localTokens.getAndUpdate(current -> Math.min(current, 0));
+    }
+
+    /**
+     * 從本地計數器消耗，允許透支至 -maxOverAdmission
+     */
+    private boolean tryConsumeLocally(long tokens) {
+        long current;
+        long next;
+        do {
+            current = localTokens.get();
+            next = current - tokens;
+            if (next < -maxOverAdmission) {
+                return false;
+            }
+        } while (!localTokens.compareAndSet(current, next));
+
+        if (next < lowWatermark) {
+            scheduleLease();
+        }
+        return true;
+    }
+
+    /**
+     * 本地 token 與透支額度皆不足時，依同步向共享 Bucket 消耗的結果決定是否暫停嘗試
+     */
+    private ConsumptionProbe onSharedProbe(ConsumptionProbe probe) {
+        if (probe.isConsumed()) {
+            scheduleLease();
+        } else {
+            backoffUntilNanos = System.nanoTime() + probe.getNanosToWaitForRefill();
+        }
+        return probe;
+    }
+
+    /**
+     * 本地放行的消耗結果，剩餘 token 為本節點租用中的數量（非共享 Bucket 的剩餘量）
+     */
+    private ConsumptionProbe localProbe() {
+        return ConsumptionProbe.consumed(Math.max(0, localTokens.get()), 0);
+    }
+
+    /**
+     * 暫停嘗試期間的拒絕結果，等待時間為距離暫停結束的時間
+     */
+    private ConsumptionProbe backoffProbe() {
+        long nanosToWait = Math.max(0, backoffUntilNanos - System.nanoTime());
+        return ConsumptionProbe.rejected(0, nanosToWait, nanosToWait);
+    }
+
+    private boolean isBackingOff() {
+        return System.nanoTime() - backoffUntilNanos < 0;
+    }
+
+    private void scheduleLease() {
+        if (isBackingOff() || !leasing.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            executor.execute(this::lease);
+        } catch (RuntimeException e) {
+            leasing.set(false);
+            logger.warn("無法排程 Rate Limiter token 預取: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 向共享 Bucket 租用一批 token，優先償還透支額度
+     */
+    private void lease() {
+        try {
+            long wanted = batchSize - Math.min(localTokens.get(), 0);
+            long leased = sharedBucket.tryConsumeAsMuchAsPossible(wanted);
+            if (leased > 0) {
+                localTokens.addAndGet(leased);
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Rate Limiter token 預取失敗: {}", e.getMessage());
+        } finally {
+            leasing.set(false);
+        }
+    }
+
+    /**
+     * 目前本地可用的 token 數量（可能為負，表示透支中）
+     */
+    public long getLocalTokens() {
+        return localTokens.get();
+    }
+}
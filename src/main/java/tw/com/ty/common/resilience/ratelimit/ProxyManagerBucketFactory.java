@@ -0,0 +1,60 @@
+package tw.com.ty.common.resilience.ratelimit;
+
+import io.github.bucket4j.Bucket;
+import io.github.bucket4j.BucketConfiguration;
+import io.github.bucket4j.distributed.AsyncBucketProxy;
+import io.github.bucket4j.distributed.proxy.ProxyManager;
+
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * 分散式 Bucket 工廠
+ *
+ * <p>透過 bucket4j {@link ProxyManager} 建立 Bucket，狀態保存在共享儲存（如 Redis），
+ * 所有節點共用同一份配額。</p>
+ *
+ * @param <K> ProxyManager 的鍵類型
+ */
+public class ProxyManagerBucketFactory<K> implements RateLimitBucketFactory {
+
+    private final ProxyManager<K> proxyManager;
+    private final Function<String, K> keyMapper;
+    private final String keyPrefix;
+
+    /**
+     * @param proxyManager bucket4j ProxyManager
+     * @param keyMapper 將字串鍵轉為 ProxyManager 鍵類型
+     * @param keyPrefix 共享儲存中的鍵前綴，用於區分服務
+     */
+    public ProxyManagerBucketFactory(ProxyManager<K> proxyManager, Function<String, K> keyMapper, String keyPrefix) {
+        this.proxyManager = proxyManager;
+        this.keyMapper = keyMapper;
+        this.keyPrefix = keyPrefix;
+    }
+
+    @Override
+    public Bucket create(String key, BucketConfiguration configuration) {
+        return proxyManager.builder().build(keyMapper.apply(keyPrefix + key), configuration);
+    }
+
+    @Override
+    public Optional<AsyncBucketProxy> createAsync(String key, BucketConfiguration configuration) {
+        if (!proxyManager.isAsyncModeSupported()) {
+            return Optional.empty();
+        }
+        return Optional.of(proxyManager.asAsync().builder().build(keyMapper.apply(keyPrefix + key), configuration));
+    }
+
+    @Override
+    public boolean isDistributed() {
+        return true;
+    }
+
+    /**
+     * 取得底層 ProxyManager
+     */
+    public ProxyManager<K> getProxyManager() {
+        return proxyManager;
+    }
+}
@@ -0,0 +1,40 @@
+package tw.com.ty.common.resilience.ratelimit;
+
+import io.github.bucket4j.Bucket;
+import io.github.bucket4j.BucketConfiguration;
+import io.github.bucket4j.distributed.AsyncBucketProxy;
+
+import java.util.Optional;
+
+/**
+ * Rate Limiter Bucket 工廠介面
+ *
+ * 依限流鍵與配置建立 Bucket，實作決定 Bucket 狀態保存在本地或共享儲存
+ */
+public interface RateLimitBucketFactory {
+
+    /**
+     * 建立限流鍵對應的 Bucket
+     *
+     * @param key 限流鍵
+     * @param configuration Bucket 配置
+     * @return Bucket 實例
+     */
+    Bucket create(String key, BucketConfiguration configuration);
+
+    /**
+     * 建立限流鍵對應的非同步 Bucket，供響應式呼叫使用
+     *
+     * @param key 限流鍵
+     * @param configuration Bucket 配置
+     * @return 非同步 Bucket；本地 Bucket 或後端不支援非同步時為空
+     */
+    default Optional<AsyncBucketProxy> createAsync(String key, BucketConfiguration configuration) {
+        return Optional.empty();
+    }
+
+    /**
+     * 是否為跨節點共享的分散式 Bucket
+     */
+    boolean isDistributed();
+}
@@ -0,0 +1,133 @@
+package tw.com.ty.common.resilience.ratelimit;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.core.DefaultParameterNameDiscoverer;
+import org.springframework.core.ParameterNameDiscoverer;
+import org.springframework.expression.Expression;
+import org.springframework.expression.spel.SpelCompilerMode;
+import org.springframework.expression.spel.SpelParserConfiguration;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+import org.springframework.expression.spel.support.StandardEvaluationContext;
+import org.springframework.stereotype.Component;
+import tw.com.ty.common.resilience.annotation.RateLimited;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Method;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Rate Limiter token 消耗量解析器
+ *
+ * <p>依 {@link RateLimited} 的設定計算每次呼叫消耗的 token 數量：</p>
+ * <ul>
+ *   <li>costExpression：SpEL 表達式，可使用 #參數名稱、#p0 / #a0</li>
+ *   <li>costArgument：指定參數的大小（Collection、Map、陣列、CharSequence）</li>
+ *   <li>cost：固定值</li>
+ * </ul>
+ *
+ * <p>每個方法只在第一次呼叫時解析註解、參數名稱並編譯表達式，之後僅執行計算。
+ * 計算結果小於 1 時以 1 計算（請求本身仍有成本）。</p>
+ */
+@Component
+public class RateLimitCostResolver {
+
+    private static final SpelExpressionParser PARSER = new SpelExpressionParser(
+            new SpelParserConfiguration(SpelCompilerMode.MIXED, RateLimitCostResolver.class.getClassLoader()));
+
+    private final ParameterNameDiscoverer parameterNameDiscoverer = new DefaultParameterNameDiscoverer();
+    private final ConcurrentMap<Method, CostFunction> costFunctions = new ConcurrentHashMap<>();
+
+    /**
+     * 計算本次呼叫消耗的 token 數量
+     *
+     * @param joinPoint 切點
+     * @param rateLimited 註解
+     * @return token 數量，至少為 1
+     */
+    public long resolve(ProceedingJoinPoint joinPoint, RateLimited rateLimited) {
+        if (rateLimited.costExpression().isEmpty() && rateLimited.costArgument().isEmpty()) {
+            return Math.max(1, rateLimited.cost());
+        }
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        CostFunction costFunction = costFunctions.computeIfAbsent(method, m -> compile(m, rateLimited));
+        return Math.max(1, costFunction.apply(joinPoint.getArgs()));
+    }
+
+    private CostFunction compile(Method method, RateLimited rateLimited) {
+        String[] parameterNames = parameterNameDiscoverer.getParameterNames(method);
+        if (!rateLimited.costExpression().isEmpty()) {
+            return new ExpressionCostFunction(PARSER.parseExpression(rateLimited.costExpression()),
+                    method.getParameterCount(), parameterNames);
+        }
+        int index = RateLimitKeyResolver.argumentIndex(parameterNames, rateLimited.costArgument());
+        if (index < 0 || index >= method.getParameterCount()) {
+            throw new IllegalStateException("找不到 @RateLimited costArgument 指定的參數: "
+                    + rateLimited.costArgument() + " (" + method + ")");
+        }
+        return args -> sizeOf(args[index]);
+    }
+
+    private static long sizeOf(Object argument) {
+        if (argument == null) {
+            return 0;
+        }
+        if (argument instanceof Collection<?> collection) {
+            return collection.size();
+        }
+        if (argument instanceof Map<?, ?> map) {
+            return map.size();
+        }
+        if (argument instanceof CharSequence sequence) {
+            return sequence.length();
+        }
+        if (argument.getClass().isArray()) {
+            return Array.getLength(argument);
+        }
+        if (argument instanceof Number number) {
+            return number.longValue();
+        }
+        return 1;
+    }
+
+    /**
+     * 已編譯的 token 消耗量計算函式
+     */
+    @FunctionalInterface
+    private interface CostFunction {
+        long apply(Object[] args);
+    }
+
+    /**
+     * SpEL 表達式計算函式，表達式以 MIXED 模式編譯為位元組碼
+     */
+    private static final class ExpressionCostFunction implements CostFunction {
+
+        private final Expression expression;
+        private final String[][] variableNames;
+
+        ExpressionCostFunction(Expression expression, int parameterCount, String[] parameterNames) {
+            this.expression = expression;
+            this.variableNames = new String[parameterCount][];
+            for (int i = 0; i < parameterCount; i++) {
+                variableNames[i] = parameterNames != null && i < parameterNames.length
+                        ? new String[] {"p" + i, "a" + i, parameterNames[i]}
+                        : new String[] {"p" + i, "a" + i};
+            }
+        }
+
+        @Override
+        public long apply(Object[] args) {
+            StandardEvaluationContext context = new StandardEvaluationContext(args);
+            for (int i = 0; i < variableNames.length; i++) {
+                for (String name : variableNames[i]) {
+                    context.setVariable(name, args[i]);
+                }
+            }
+            return sizeOf(expression.getValue(context));
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package tw.com.ty.common.resilience.ratelimit;
+
+import io.github.bucket4j.BucketConfiguration;
+
+/**
+ * 具名 Rate Limiter 的目前配置
+ *
+ * <p>同名的所有 Bucket（全域與各限流鍵）共用同一個定義；重新載入時只替換此處的配置，
+ * 各 Bucket 在下一次使用時由 {@link ReconfigurableRateLimiter} 套用。</p>
+ */
+public final class RateLimitDefinition {
+
+    private final String name;
+    private volatile BucketConfiguration configuration;
+    private volatile long limit;
+
+    public RateLimitDefinition(String name, BucketConfiguration configuration) {
+        this.name = name;
+        update(configuration);
+    }
+
+    /**
+     * 替換配置
+     */
+    void update(BucketConfiguration configuration) {
+        this.configuration = configuration;
+        this.limit = RateLimitHeaders.limitOf(configuration);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public BucketConfiguration getConfiguration() {
+        return configuration;
+    }
+
+    /**
+     * 配置的容量（多個頻寬時取最小值）
+     */
+    public long getLimit() {
+        return limit;
+    }
+}
@@ -0,0 +1,16 @@
+package tw.com.ty.common.resilience.ratelimit;
+
+/**
+ * 本地 Rate Limiter 引擎枚舉（rate-limiter.engine）
+ */
+public enum RateLimitEngine {
+    /**
+     * bucket4j 本地 Bucket（預設），支援多頻寬與就地重新配置
+     */
+    BUCKET4J,
+
+    /**
+     * {@link GcraRateLimiter}：狀態為單一 long、每次消耗一次 CAS，僅適用單一頻寬配置
+     */
+    GCRA
+}
@@ -0,0 +1,78 @@
+package tw.com.ty.common.resilience.ratelimit;
+
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.BucketConfiguration;
+import io.github.bucket4j.ConsumptionProbe;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+/**
+ * Rate Limit 回應標頭
+ *
+ * <p>以消耗 token 時取得的剩餘數量（{@link RateLimiter#tryConsumeRemaining(long)}，拒絕時為 {@link ConsumptionProbe}）
+ * 設定回應標頭，不另外查詢 Bucket：</p>
+ * <ul>
+ *   <li>X-RateLimit-Limit：Bucket 容量（多個頻寬時取最小值）</li>
+ *   <li>X-RateLimit-Remaining：消耗後剩餘的 token 數量</li>
+ *   <li>X-RateLimit-Scope：階層式配額被拒絕時的層級名稱</li>
+ * </ul>
+ *
+ * <p>Retry-After 由 {@code GlobalExceptionHandler} 依異常攜帶的重試時間設定。
+ * 僅在 Servlet 請求中生效，無請求上下文（如 WebFlux、非同步執行緒）時略過。</p>
+ */
+public final class RateLimitHeaders {
+
+    public static final String LIMIT = "X-RateLimit-Limit";
+    public static final String REMAINING = "X-RateLimit-Remaining";
+    public static final String SCOPE = "X-RateLimit-Scope";
+
+    private RateLimitHeaders() {
+        // 工具類不允許實例化
+    }
+
+    /**
+     * 取得 Bucket 配置的容量（多個頻寬時取最小值）
+     */
+    public static long limitOf(BucketConfiguration configuration) {
+        long limit = Long.MAX_VALUE;
+        for (Bandwidth bandwidth : configuration.getBandwidths()) {
+            limit = Math.min(limit, bandwidth.getCapacity());
+        }
+        return limit;
+    }
+
+    /**
+     * 將消耗結果寫入目前 Servlet 回應的標頭
+     *
+     * @param limit Bucket 容量
+     * @param remainingTokens 剩餘 token 數量
+     */
+    public static void write(long limit, long remainingTokens) {
+        write(limit, remainingTokens, null);
+    }
+
+    /**
+     * 將消耗結果寫入目前 Servlet 回應的標頭
+     *
+     * @param limit Bucket 容量
+     * @param remainingTokens 剩餘 token 數量
+     * @param rejectedScope 拒絕的配額層級，放行時為 null
+     */
+    public static void write(long limit, long remainingTokens, String rejectedScope) {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (!(attributes instanceof ServletRequestAttributes servletAttributes)) {
+            return;
+        }
+        HttpServletResponse response = servletAttributes.getResponse();
+        if (response == null || response.isCommitted()) {
+            return;
+        }
+        response.setHeader(LIMIT, String.valueOf(limit));
+        response.setHeader(REMAINING, String.valueOf(Math.max(0, remainingTokens)));
+        if (rejectedScope != null) {
+            response.setHeader(SCOPE, rejectedScope);
+        }
+    }
+}
@@ -0,0 +1,234 @@
+package tw.com.ty.common.resilience.ratelimit;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import tw.com.ty.common.resilience.annotation.RateLimitKeySource;
+import tw.com.ty.common.resilience.annotation.RateLimited;
+import tw.com.ty.common.security.jwt.JwtTokenProvider;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static tw.com.ty.common.security.config.BaseSecurityConfig.SecurityConstants.JWT_HEADER;
+
+/**
+ * Rate Limiter 限流鍵解析器
+ *
+ * <p>依 {@link RateLimited#keySource()} 從當前請求或方法參數解析限流鍵，
+ * Filter 層級的限流則直接以請求頭與來源位址解析：</p>
+ * <ul>
+ *   <li>PRINCIPAL：JWT subject，無有效 token 時退回客戶端 IP</li>
+ *   <li>IP：remoteAddr；來源為受信任的 Proxy 時，取 X-Forwarded-For 由右往左第一個非受信任 Proxy 的位址</li>
+ *   <li>HEADER：指定請求頭的值</li>
+ *   <li>ARGUMENT：指定方法參數的值；參數名稱或索引於每個方法第一次呼叫時解析並快取，找不到時拋出 IllegalStateException</li>
+ * </ul>
+ *
+ * <p>無法解析時回傳 {@link #UNKNOWN_KEY}，所有無法辨識的請求共用同一個 Bucket。</p>
+ *
+ * <p>X-Forwarded-For 由客戶端自行設定，最左側的位址不可信任：每次請求更換位址即可取得新的 Bucket。
+ * 經由反向代理部署時，建議以 server.forward-headers-strategy（ForwardedHeaderFilter / RemoteIpValve）
+ * 還原 remoteAddr；或以 rate-limiter.trusted-proxies 列出 Proxy 位址，只採信這些 Proxy 附加的位址。</p>
+ */
+@Component
+public class RateLimitKeyResolver {
+
+    private static final Logger logger = LoggerFactory.getLogger(RateLimitKeyResolver.class);
+
+    /**
+     * 無法解析限流鍵時使用的鍵
+     */
+    public static final String UNKNOWN_KEY = "unknown";
+
+    private static final String FORWARDED_FOR_HEADER = "X-Forwarded-For";
+
+    private final ObjectProvider<JwtTokenProvider> jwtTokenProvider;
+    private final Set<String> trustedProxies;
+    private final ConcurrentMap<ArgumentKey, Integer> argumentIndexes = new ConcurrentHashMap<>();
+
+    /**
+     * @param jwtTokenProvider JWT 解析器，PRINCIPAL 限流鍵使用
+     * @param trustedProxies 受信任的反向代理位址（完整位址比對），空陣列表示不採信 X-Forwarded-For
+     */
+    public RateLimitKeyResolver(ObjectProvider<JwtTokenProvider> jwtTokenProvider,
+                                @Value("${rate-limiter.trusted-proxies:}") String[] trustedProxies) {
+        this.jwtTokenProvider = jwtTokenProvider;
+        this.trustedProxies = Arrays.stream(trustedProxies)
+                .map(String::trim)
+                .filter(address -> !address.isEmpty())
+                .collect(Collectors.toUnmodifiableSet());
+    }
+
+    /**
+     * 解析限流鍵
+     *
+     * @param joinPoint 切點
+     * @param rateLimited 註解
+     * @return 限流鍵，帶有來源前綴（如 "ip:10.0.0.1"）
+     */
+    public String resolve(ProceedingJoinPoint joinPoint, RateLimited rateLimited) {
+        return resolve(joinPoint, rateLimited.keySource(), rateLimited.key());
+    }
+
+    /**
+     * 解析限流鍵
+     *
+     * @param joinPoint 切點
+     * @param keySource 限流鍵來源
+     * @param keyParameter 限流鍵參數（請求頭名稱、參數名稱或索引）
+     * @return 限流鍵，帶有來源前綴（如 "ip:10.0.0.1"）
+     */
+    public String resolve(ProceedingJoinPoint joinPoint, RateLimitKeySource keySource, String keyParameter) {
+        if (keySource == RateLimitKeySource.ARGUMENT) {
+            String key = prefixed("arg:", resolveArgument(joinPoint, keyParameter));
+            return key != null ? key : UNKNOWN_KEY;
+        }
+        HttpServletRequest request = currentRequest();
+        if (request == null) {
+            return keySource == RateLimitKeySource.GLOBAL ? "global" : UNKNOWN_KEY;
+        }
+        return resolve(keySource, keyParameter, request::getHeader, request.getRemoteAddr());
+    }
+
+    /**
+     * 依請求頭與來源位址解析限流鍵，供尚未進入方法呼叫的情境（Servlet Filter、WebFilter）使用
+     *
+     * @param keySource 限流鍵來源，不支援 ARGUMENT
+     * @param keyParameter 限流鍵參數（請求頭名稱）
+     * @param headers 依名稱取得請求頭的函式
+     * @param remoteAddress 連線來源位址，可為 null
+     * @return 限流鍵，帶有來源前綴（如 "ip:10.0.0.1"）
+     */
+    public String resolve(RateLimitKeySource keySource, String keyParameter,
+                          Function<String, String> headers, String remoteAddress) {
+        String key = switch (keySource) {
+            case GLOBAL -> "global";
+            case PRINCIPAL -> resolvePrincipal(headers, remoteAddress);
+            case IP -> prefixed("ip:", resolveClientIp(headers, remoteAddress));
+            case HEADER -> prefixed("header:", keyParameter.isEmpty() ? null : headers.apply(keyParameter));
+            case ARGUMENT -> null;
+        };
+        return key != null ? key : UNKNOWN_KEY;
+    }
+
+    private String resolvePrincipal(Function<String, String> headers, String remoteAddress) {
+        JwtTokenProvider provider = jwtTokenProvider.getIfAvailable();
+        if (provider != null) {
+            String token = provider.extractTokenFromHeader(headers.apply(JWT_HEADER));
+            if (token != null) {
+                try {
+                    String subject = provider.extractUsername(token);
+                    if (subject != null) {
+                        return "sub:" + subject;
+                    }
+                } catch (Exception e) {
+                    logger.debug("無法從 JWT 解析限流鍵，改用客戶端 IP: {}", e.getMessage());
+                }
+            }
+        }
+        return prefixed("ip:", resolveClientIp(headers, remoteAddress));
+    }
+
+    private String resolveArgument(ProceedingJoinPoint joinPoint, String argumentKey) {
+        MethodSignature signature = (MethodSignature) joinPoint.getSignature();
+        int index = argumentIndexes.computeIfAbsent(new ArgumentKey(signature.getMethod(), argumentKey),
+                key -> argumentIndex(signature, argumentKey));
+        Object argument = joinPoint.getArgs()[index];
+        return argument != null ? String.valueOf(argument) : null;
+    }
+
+    private static int argumentIndex(MethodSignature signature, String argumentKey) {
+        int index = argumentKey.isEmpty() ? 0 : argumentIndex(signature.getParameterNames(), argumentKey);
+        if (index < 0 || index >= signature.getParameterTypes().length) {
+            String parameter = argumentKey.isEmpty() ? "（未指定，使用第一個參數）" : argumentKey;
+            throw new IllegalStateException("找不到 @RateLimited key 指定的參數: "
+                    + parameter + " (" + signature.getMethod() + ")");
+        }
+        return index;
+    }
+
+    /**
+     * 解析參數名稱或索引：整個字串皆為數字時視為索引，否則依參數名稱比對
+     *
+     * @param parameterNames 方法的參數名稱，可為 null
+     * @param argumentKey 參數名稱或索引
+     * @return 參數索引，找不到或索引超出 int 範圍時回傳 -1
+     */
+    static int argumentIndex(String[] parameterNames, String argumentKey) {
+        if (!argumentKey.isEmpty() && argumentKey.chars().allMatch(c -> c >= '0' && c <= '9')) {
+            try {
+                return Integer.parseInt(argumentKey);
+            } catch (NumberFormatException e) {
+                return -1;
+            }
+        }
+        if (parameterNames != null) {
+            for (int i = 0; i < parameterNames.length; i++) {
+                if (argumentKey.equals(parameterNames[i])) {
+                    return i;
+                }
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 客戶端位址：連線來源不是受信任的 Proxy 時即為 remoteAddr，
+     * 否則由右往左略過受信任的 Proxy，取第一個由 Proxy 附加（而非客戶端自行填寫）的位址
+     */
+    private String resolveClientIp(Function<String, String> headers, String remoteAddress) {
+        if (remoteAddress == null || !trustedProxies.contains(remoteAddress)) {
+            return remoteAddress;
+        }
+        String forwardedFor = headers.apply(FORWARDED_FOR_HEADER);
+        if (forwardedFor == null || forwardedFor.isBlank()) {
+            return remoteAddress;
+        }
+        String client = remoteAddress;
+        int end = forwardedFor.length();
+        while (end > 0) {
+            int comma = forwardedFor.lastIndexOf(',', end - 1);
+            String hop = forwardedFor.substring(comma + 1, end).trim();
+            end = comma;
+            if (hop.isEmpty()) {
+                continue;
+            }
+            client = hop;
+            if (!trustedProxies.contains(hop)) {
+                break;
+            }
+        }
+        return client;
+    }
+
+    private static HttpServletRequest currentRequest() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes instanceof ServletRequestAttributes servletAttributes) {
+            return servletAttributes.getRequest();
+        }
+        return null;
+    }
+
+    private static String prefixed(String prefix, String value) {
+        return value != null ? prefix + value : null;
+    }
+
+    /**
+     * 參數索引快取的鍵：同一方法可有多個層級以不同參數作為限流鍵
+     */
+    private record ArgumentKey(Method method, String name) {
+    }
+}
@@ -0,0 +1,127 @@
+package tw.com.ty.common.resilience.ratelimit;
+
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.BucketConfiguration;
+import io.github.bucket4j.ConfigurationBuilder;
+import io.github.bucket4j.Refill;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 具名 Rate Limiter 的配置（rate-limiter.limits.&lt;name&gt;.*）
+ *
+ * <pre>
+ * rate-limiter:
+ *   limits:
+ *     people-search:
+ *       bandwidths:
+ *         - capacity: 20
+ *           refill-period: 1s
+ *         - capacity: 600
+ *           refill-period: 1m
+ * </pre>
+ */
+public class RateLimitProperties {
+
+    /**
+     * 頻寬列表，請求需同時滿足所有頻寬
+     */
+    private List<BandwidthProperties> bandwidths = new ArrayList<>();
+
+    public List<BandwidthProperties> getBandwidths() {
+        return bandwidths;
+    }
+
+    public void setBandwidths(List<BandwidthProperties> bandwidths) {
+        this.bandwidths = bandwidths;
+    }
+
+    /**
+     * 轉換為 bucket4j Bucket 配置
+     *
+     * @param name 限流器名稱（錯誤訊息用）
+     * @return BucketConfiguration 實例
+     * @throws IllegalStateException 未設定任何頻寬或頻寬設定無效
+     */
+    public BucketConfiguration toBucketConfiguration(String name) {
+        if (bandwidths == null || bandwidths.isEmpty()) {
+            throw new IllegalStateException("rate-limiter.limits." + name + ".bandwidths 未設定");
+        }
+        ConfigurationBuilder builder = BucketConfiguration.builder();
+        for (int i = 0; i < bandwidths.size(); i++) {
+            // 以索引作為頻寬 id，重新配置時 bucket4j 才能對應新舊頻寬並保留剩餘 token
+            builder.addLimit(bandwidths.get(i).toBandwidth(name).withId(String.valueOf(i)));
+        }
+        return builder.build();
+    }
+
+    /**
+     * 單一頻寬配置
+     */
+    public static class BandwidthProperties {
+
+        /**
+         * Bucket 容量
+         */
+        private long capacity;
+
+        /**
+         * 每個補充週期補充的 token 數量，未設定時等於容量
+         */
+        private Long refillTokens;
+
+        /**
+         * 補充週期
+         */
+        private Duration refillPeriod = Duration.ofSeconds(1);
+
+        /**
+         * 是否在週期結束時一次補充（預設為平滑補充）
+         */
+        private boolean intervally;
+
+        public long getCapacity() {
+            return capacity;
+        }
+
+        public void setCapacity(long capacity) {
+            this.capacity = capacity;
+        }
+
+        public Long getRefillTokens() {
+            return refillTokens;
+        }
+
+        public void setRefillTokens(Long refillTokens) {
+            this.refillTokens = refillTokens;
+        }
+
+        public Duration getRefillPeriod() {
+            return refillPeriod;
+        }
+
+        public void setRefillPeriod(Duration refillPeriod) {
+            this.refillPeriod = refillPeriod;
+        }
+
+        public boolean isIntervally() {
+            return intervally;
+        }
+
+        public void setIntervally(boolean intervally) {
+            this.intervally = intervally;
+        }
+
+        Bandwidth toBandwidth(String name) {
+            if (capacity <= 0 || refillPeriod == null || refillPeriod.isZero() || refillPeriod.isNegative()) {
+                throw new IllegalStateException("rate-limiter.limits." + name + " 的頻寬設定無效: capacity="
+                        + capacity + ", refill-period=" + refillPeriod);
+            }
+            long tokens = refillTokens != null ? refillTokens : capacity;
+            Refill refill = intervally ? Refill.intervally(tokens, refillPeriod) : Refill.greedy(tokens, refillPeriod);
+            return Bandwidth.classic(capacity, refill);
+        }
+    }
+}
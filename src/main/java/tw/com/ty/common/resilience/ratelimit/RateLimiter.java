@@ -0,0 +1,142 @@
+package tw.com.ty.common.resilience.ratelimit;
+
+import io.github.bucket4j.ConsumptionProbe;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Rate Limiter 介面
+ *
+ * RateLimiterAspect 只依賴此介面，底層可為本地 Bucket、分散式 Bucket 或其他限流實作
+ */
+public interface RateLimiter {
+
+    /**
+     * 嘗試消耗指定數量的 token，並回傳剩餘 token 與需等待的時間
+     *
+     * 一次操作同時取得是否通過與回應標頭所需的資訊，不需要再次查詢 Bucket
+     *
+     * @param tokens token 數量
+     * @return 消耗結果
+     */
+    ConsumptionProbe tryConsumeAndReturnRemaining(long tokens);
+
+    /**
+     * 嘗試消耗指定數量的 token，並回傳消耗後剩餘的 token 數量
+     *
+     * 放行路徑不需要等待時間，實作可不建立 {@link ConsumptionProbe}；拒絕時不消耗，
+     * 需要建議重試時間的呼叫端再以 {@link #tryConsumeAndReturnRemaining(long)} 取得
+     *
+     * @param tokens token 數量
+     * @return 消耗成功時為剩餘 token 數量（不小於 0），不足時為 -1
+     */
+    default long tryConsumeRemaining(long tokens) {
+        ConsumptionProbe probe = tryConsumeAndReturnRemaining(tokens);
+        return probe.isConsumed() ? probe.getRemainingTokens() : -1;
+    }
+
+    /**
+     * 非同步嘗試消耗指定數量的 token，並回傳剩餘 token 與需等待的時間
+     *
+     * 實作不得阻塞呼叫執行緒，供響應式呼叫（event loop）使用
+     *
+     * @param tokens token 數量
+     * @return 消耗結果
+     */
+    CompletableFuture<ConsumptionProbe> tryConsumeAndReturnRemainingAsync(long tokens);
+
+    /**
+     * 嘗試消耗指定數量的 token
+     *
+     * @param tokens token 數量
+     * @return 是否消耗成功
+     */
+    default boolean tryConsume(long tokens) {
+        return tryConsumeAndReturnRemaining(tokens).isConsumed();
+    }
+
+    /**
+     * 非同步嘗試消耗指定數量的 token
+     *
+     * @param tokens token 數量
+     * @return 是否消耗成功
+     */
+    default CompletableFuture<Boolean> tryConsumeAsync(long tokens) {
+        return tryConsumeAndReturnRemainingAsync(tokens).thenApply(ConsumptionProbe::isConsumed);
+    }
+
+    /**
+     * 嘗試消耗指定數量的 token，不足時最多等待 maxWaitNanos
+     *
+     * 預估等待時間不超過 maxWaitNanos 時預約 token 並停放呼叫執行緒直到可用（虛擬執行緒不佔用載體執行緒），
+     * 超過時立即回傳 false 且不消耗
+     *
+     * @param tokens token 數量
+     * @param maxWaitNanos 最長等待時間（奈秒）
+     * @return 是否消耗成功
+     * @throws InterruptedException 等待期間被中斷
+     */
+    boolean tryConsume(long tokens, long maxWaitNanos) throws InterruptedException;
+
+    /**
+     * 非同步嘗試消耗指定數量的 token，不足時最多等待 maxWaitNanos
+     *
+     * 等待以排程器計時完成，不阻塞呼叫執行緒
+     *
+     * @param tokens token 數量
+     * @param maxWaitNanos 最長等待時間（奈秒）
+     * @return 是否消耗成功
+     */
+    CompletableFuture<Boolean> tryConsumeAsync(long tokens, long maxWaitNanos);
+
+    /**
+     * 退回先前消耗的 token（不超過 Bucket 容量）
+     *
+     * 用於多個限流器須同時通過的情境，後續限流器拒絕時退回已消耗的部分；實作不得阻塞呼叫執行緒
+     *
+     * @param tokens token 數量
+     */
+    void refund(long tokens);
+
+    /**
+     * 目前可用的 token 數量，供狀態快照使用
+     *
+     * 狀態不在本地（如分散式預取）或無法取得時回傳 -1
+     *
+     * @return 可用 token 數量
+     */
+    default long getAvailableTokens() {
+        return -1;
+    }
+
+    /**
+     * 不受限流限制地消耗 token（可用量可低於 0），供還原狀態快照使用
+     *
+     * @param tokens token 數量
+     */
+    default void consumeIgnoringRateLimits(long tokens) {
+        // 預設不支援狀態還原
+    }
+
+    /**
+     * 清空目前可用的 token，供外部服務回應 429 時使後續呼叫等待補充
+     *
+     * 預設以 {@link #getAvailableTokens()} 與 {@link #consumeIgnoringRateLimits(long)} 實作，只適用於狀態在本地的實作
+     */
+    default void drain() {
+        long available = getAvailableTokens();
+        if (available > 0) {
+            consumeIgnoringRateLimits(available);
+        }
+    }
+
+    /**
+     * 非同步清空目前可用的 token，供響應式呼叫使用；實作不得阻塞呼叫執行緒
+     *
+     * @return 清空完成時完成的 future
+     */
+    default CompletableFuture<Void> drainAsync() {
+        drain();
+        return CompletableFuture.completedFuture(null);
+    }
+}
@@ -0,0 +1,126 @@
+package tw.com.ty.common.resilience.ratelimit;
+
+import io.github.bucket4j.Bucket;
+import io.github.bucket4j.BucketConfiguration;
+import io.github.bucket4j.distributed.AsyncBucketProxy;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
+
+/**
+ * Rate Limiter 工廠
+ *
+ * <p>透過 {@link RateLimitBucketFactory} 建立 Bucket，再包裝為 {@link RateLimiter}：</p>
+ * <ul>
+ *   <li>本地 Bucket：直接包裝為 {@link BucketRateLimiter}</li>
+ *   <li>分散式 Bucket：包裝為 {@link BucketRateLimiter}，並附上非同步 Bucket 供響應式呼叫使用</li>
+ *   <li>分散式 Bucket 且啟用預取：包裝為 {@link PrefetchingRateLimiter}</li>
+ * </ul>
+ *
+ * <p>本地模式且引擎為 {@link RateLimitEngine#GCRA} 時，單一頻寬的配置改用 {@link GcraRateLimiter}，
+ * 不建立 Bucket；多頻寬配置與具名限流器（需就地重新配置）仍使用 bucket4j。</p>
+ *
+ * <p>本地模式且提供 {@link RateLimiterSnapshotStore} 時，建立的 Rate Limiter 會登記至快照並還原重啟前的狀態。</p>
+ */
+public class RateLimiterFactory {
+
+    private final RateLimitBucketFactory bucketFactory;
+    private final boolean prefetchEnabled;
+    private final boolean gcraEnabled;
+    private final long prefetchBatchSize;
+    private final long maxOverAdmission;
+    private final Executor executor;
+    private final ScheduledExecutorService scheduler;
+    private final RateLimiterSnapshotStore snapshotStore;
+
+    /**
+     * @param bucketFactory Bucket 工廠
+     * @param prefetchBatchSize 每次預取的 token 數量，0 表示不預取
+     * @param maxOverAdmission 預取完成前允許本地透支的 token 數量
+     * @param executor 執行背景預取、分散式同步呼叫與完成非同步等待的執行器
+     * @param scheduler 非同步等待計時用的排程器（只負責計時）
+     * @param engine 本地 Rate Limiter 引擎
+     * @param snapshotStore 本地狀態快照，null 表示不快照
+     */
+    public RateLimiterFactory(RateLimitBucketFactory bucketFactory, long prefetchBatchSize,
+                              long maxOverAdmission, Executor executor, ScheduledExecutorService scheduler,
+                              RateLimitEngine engine, RateLimiterSnapshotStore snapshotStore) {
+        this.bucketFactory = bucketFactory;
+        this.prefetchEnabled = bucketFactory.isDistributed() && prefetchBatchSize > 0;
+        this.gcraEnabled = !bucketFactory.isDistributed() && engine == RateLimitEngine.GCRA;
+        this.prefetchBatchSize = prefetchBatchSize;
+        this.maxOverAdmission = maxOverAdmission;
+        this.executor = executor;
+        this.scheduler = scheduler;
+        this.snapshotStore = bucketFactory.isDistributed() ? null : snapshotStore;
+    }
+
+    /**
+     * 建立限流鍵對應的 Rate Limiter
+     *
+     * @param key 限流鍵
+     * @param configuration Bucket 配置
+     * @return RateLimiter 實例
+     */
+    public RateLimiter create(String key, BucketConfiguration configuration) {
+        if (isGcra(configuration)) {
+            return restore(key, new GcraRateLimiter(configuration.getBandwidths()[0], scheduler, executor), configuration);
+        }
+        return restore(key, wrapBucket(bucketFactory.create(key, configuration), asyncBucketOf(key, configuration)),
+                configuration);
+    }
+
+    /**
+     * 建立具名限流器的 Rate Limiter，定義的配置變動時就地套用至 Bucket
+     *
+     * @param key 限流鍵
+     * @param definition 具名限流器定義
+     * @return RateLimiter 實例
+     */
+    public RateLimiter createReconfigurable(String key, RateLimitDefinition definition) {
+        BucketConfiguration configuration = definition.getConfiguration();
+        Bucket bucket = bucketFactory.create(key, configuration);
+        AsyncBucketProxy asyncBucket = asyncBucketOf(key, configuration);
+        return restore(key, new ReconfigurableRateLimiter(wrapBucket(bucket, asyncBucket), bucket, asyncBucket,
+                bucketFactory.isDistributed() ? executor : null, definition, configuration), configuration);
+    }
+
+    /**
+     * 將既有 Bucket 包裝為 Rate Limiter
+     *
+     * 使用 GCRA 引擎時回傳以相同配置建立的 {@link GcraRateLimiter}，不使用傳入的 Bucket
+     *
+     * @param key 建立 Bucket 時使用的限流鍵
+     * @param bucket 由 {@link RateLimitBucketFactory} 建立的 Bucket
+     * @param configuration Bucket 配置
+     * @return RateLimiter 實例
+     */
+    public RateLimiter wrap(String key, Bucket bucket, BucketConfiguration configuration) {
+        if (isGcra(configuration)) {
+            return restore(key, new GcraRateLimiter(configuration.getBandwidths()[0], scheduler, executor), configuration);
+        }
+        return restore(key, wrapBucket(bucket, asyncBucketOf(key, configuration)), configuration);
+    }
+
+    private RateLimiter wrapBucket(Bucket bucket, AsyncBucketProxy asyncBucket) {
+        if (!bucketFactory.isDistributed()) {
+            return new BucketRateLimiter(bucket, scheduler, executor);
+        }
+        if (prefetchEnabled) {
+            return new PrefetchingRateLimiter(bucket, asyncBucket, prefetchBatchSize, maxOverAdmission, executor, scheduler);
+        }
+        return new BucketRateLimiter(bucket, asyncBucket, executor, scheduler);
+    }
+
+    private AsyncBucketProxy asyncBucketOf(String key, BucketConfiguration configuration) {
+        return bucketFactory.isDistributed() ? bucketFactory.createAsync(key, configuration).orElse(null) : null;
+    }
+
+    private RateLimiter restore(String key, RateLimiter rateLimiter, BucketConfiguration configuration) {
+        return snapshotStore != null ? snapshotStore.restore(key, rateLimiter, configuration) : rateLimiter;
+    }
+
+    private boolean isGcra(BucketConfiguration configuration) {
+        return gcraEnabled && configuration.getBandwidths().length == 1;
+    }
+}
@@ -0,0 +1,234 @@
+package tw.com.ty.common.resilience.ratelimit;
+
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.BucketConfiguration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.lang.ref.WeakReference;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 本地 Rate Limiter 狀態快照
+ *
+ * <p>本地 Bucket 只存在於 JVM 內，滾動部署重啟後每個限流鍵都回到滿容量，客戶端可在部署期間突發超額。
+ * 此類別定期將未滿的限流鍵狀態寫入本地檔案，啟動時載入，限流鍵第一次建立時還原：</p>
+ * <ul>
+ *   <li>只記錄可用 token 低於容量的限流鍵，閒置（已補滿）的鍵不佔空間</li>
+ *   <li>還原時依快照後經過的時間補回 token（以容量最小的頻寬計算），停機期間同樣計入補充</li>
+ *   <li>快照超過 maxAge 時整份忽略，尚未還原的項目於 maxAge 後釋放</li>
+ * </ul>
+ *
+ * <p>檔案格式（big-endian）：magic(int)、快照時間 epoch 毫秒(long)、筆數(int)，
+ * 其後每筆為 鍵長度(short)、UTF-8 鍵、可用 token(long)。寫入時以記憶體映射寫入暫存檔並 force，
+ * 再以原子搬移取代舊檔，寫入中途當機不會留下不完整的快照。</p>
+ */
+public class RateLimiterSnapshotStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(RateLimiterSnapshotStore.class);
+
+    private static final int MAGIC = 0x524C5331;
+    private static final int HEADER_BYTES = Integer.BYTES + Long.BYTES + Integer.BYTES;
+    private static final int ENTRY_OVERHEAD_BYTES = Short.BYTES + Long.BYTES;
+
+    private final Path path;
+    private final long maxAgeMillis;
+    private final ConcurrentMap<String, TrackedLimiter> tracked = new ConcurrentHashMap<>();
+    private volatile ConcurrentMap<String, Long> pending;
+    private volatile long restoredSnapshotMillis;
+
+    /**
+     * @param path 快照檔案路徑
+     * @param maxAge 快照有效期限，超過時不還原
+     */
+    public RateLimiterSnapshotStore(Path path, Duration maxAge) {
+        this.path = path;
+        this.maxAgeMillis = maxAge.toMillis();
+        load();
+    }
+
+    /**
+     * 記錄新建立的 Rate Limiter，快照中有此限流鍵時還原其狀態
+     *
+     * @param key 限流鍵
+     * @param rateLimiter 新建立（滿容量）的 Rate Limiter
+     * @param configuration Bucket 配置
+     * @return 傳入的 Rate Limiter
+     */
+    public RateLimiter restore(String key, RateLimiter rateLimiter, BucketConfiguration configuration) {
+        long limit = RateLimitHeaders.limitOf(configuration);
+        tracked.put(key, new TrackedLimiter(rateLimiter, limit));
+
+        ConcurrentMap<String, Long> restored = pending;
+        if (restored == null) {
+            return rateLimiter;
+        }
+        long elapsedMillis = Math.max(0, System.currentTimeMillis() - restoredSnapshotMillis);
+        if (elapsedMillis > maxAgeMillis) {
+            pending = null;
+            return rateLimiter;
+        }
+        Long available = restored.remove(key);
+        if (available == null) {
+            return rateLimiter;
+        }
+        long target = Math.min(limit, available + refilledTokens(configuration, elapsedMillis));
+        long current = rateLimiter.getAvailableTokens();
+        if (current > target) {
+            rateLimiter.consumeIgnoringRateLimits(current - target);
+        }
+        return rateLimiter;
+    }
+
+    /**
+     * 將目前未滿的限流鍵狀態寫入快照檔案
+     *
+     * @return 寫入的限流鍵數量
+     * @throws IOException 寫入失敗
+     */
+    public synchronized int snapshot() throws IOException {
+        List<byte[]> keys = new ArrayList<>();
+        List<Long> availableTokens = new ArrayList<>();
+        long size = HEADER_BYTES;
+        for (Map.Entry<String, TrackedLimiter> entry : tracked.entrySet()) {
+            TrackedLimiter trackedLimiter = entry.getValue();
+            RateLimiter rateLimiter = trackedLimiter.get();
+            if (rateLimiter == null) {
+                tracked.remove(entry.getKey(), trackedLimiter);
+                continue;
+            }
+            long available = rateLimiter.getAvailableTokens();
+            if (available < 0 || available >= trackedLimiter.limit) {
+                continue;
+            }
+            byte[] key = entry.getKey().getBytes(StandardCharsets.UTF_8);
+            if (key.length > Short.MAX_VALUE) {
+                continue;
+            }
+            keys.add(key);
+            availableTokens.add(available);
+            size += ENTRY_OVERHEAD_BYTES + key.length;
+        }
+
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            buffer.putInt(MAGIC).putLong(System.currentTimeMillis()).putInt(keys.size());
+            for (int i = 0; i < keys.size(); i++) {
+                byte[] key = keys.get(i);
+                buffer.putShort((short) key.length).put(key).putLong(availableTokens.get(i));
+            }
+            buffer.force();
+        }
+        Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return keys.size();
+    }
+
+    /**
+     * 寫入快照，失敗時只記錄警告，供排程與關閉時呼叫
+     */
+    public void snapshotQuietly() {
+        try {
+            int count = snapshot();
+            logger.debug("Rate Limiter 狀態快照已寫入 {}: {} 個限流鍵", path, count);
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Rate Limiter 狀態快照寫入失敗 {}: {}", path, e.getMessage());
+        }
+    }
+
+    /**
+     * 關閉前寫入最後一次快照
+     */
+    public void close() {
+        snapshotQuietly();
+    }
+
+    /**
+     * 尚未還原的限流鍵數量
+     */
+    public int pendingSize() {
+        ConcurrentMap<String, Long> restored = pending;
+        return restored != null ? restored.size() : 0;
+    }
+
+    private void load() {
+        if (!Files.isRegularFile(path)) {
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.remaining() < HEADER_BYTES || buffer.getInt() != MAGIC) {
+                logger.warn("Rate Limiter 狀態快照格式不符，略過: {}", path);
+                return;
+            }
+            long snapshotMillis = buffer.getLong();
+            int count = buffer.getInt();
+            if (System.currentTimeMillis() - snapshotMillis > maxAgeMillis) {
+                logger.info("Rate Limiter 狀態快照已過期，略過: {}", path);
+                return;
+            }
+            ConcurrentMap<String, Long> restored = new ConcurrentHashMap<>(Math.max(16, count * 4 / 3 + 1));
+            for (int i = 0; i < count; i++) {
+                byte[] key = new byte[buffer.getShort()];
+                buffer.get(key);
+                restored.put(new String(key, StandardCharsets.UTF_8), buffer.getLong());
+            }
+            this.restoredSnapshotMillis = snapshotMillis;
+            this.pending = restored;
+            logger.info("已載入 Rate Limiter 狀態快照 {}: {} 個限流鍵", path, count);
+        } catch (IOException | BufferUnderflowException | NegativeArraySizeException e) {
+            logger.warn("Rate Limiter 狀態快照讀取失敗，略過 {}: {}", path, e.getMessage());
+        }
+    }
+
+    /**
+     * 經過 elapsedMillis 補充的 token 數量（以容量最小的頻寬計算）
+     */
+    private static long refilledTokens(BucketConfiguration configuration, long elapsedMillis) {
+        Bandwidth narrowest = null;
+        for (Bandwidth bandwidth : configuration.getBandwidths()) {
+            if (narrowest == null || bandwidth.getCapacity() < narrowest.getCapacity()) {
+                narrowest = bandwidth;
+            }
+        }
+        if (narrowest == null) {
+            return 0;
+        }
+        double refilled = (double) Duration.ofMillis(elapsedMillis).toNanos()
+                * narrowest.getRefillTokens() / narrowest.getRefillPeriodNanos();
+        return (long) Math.min(refilled, Long.MAX_VALUE / 2);
+    }
+
+    /**
+     * 以弱參照記錄的 Rate Limiter，註冊表淘汰後可被回收，於下次快照時移除
+     */
+    private static final class TrackedLimiter extends WeakReference<RateLimiter> {
+
+        final long limit;
+
+        TrackedLimiter(RateLimiter rateLimiter, long limit) {
+            super(rateLimiter);
+            this.limit = limit;
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package tw.com.ty.common.resilience.ratelimit;
+
+import io.github.bucket4j.Bucket;
+import io.github.bucket4j.BucketConfiguration;
+import io.github.bucket4j.ConsumptionProbe;
+import io.github.bucket4j.TokensInheritanceStrategy;
+import io.github.bucket4j.distributed.AsyncBucketProxy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+/**
+ * 可即時重新配置的 Rate Limiter
+ *
+ * <p>包裝具名限流器的 Bucket，每次消耗前比對 {@link RateLimitDefinition} 的配置是否已更新，
+ * 更新時以 {@link Bucket#replaceConfiguration} 就地替換（剩餘 token 依比例保留），
+ * 不需重建 Bucket 也不會清空既有狀態。未更新時只多一次 volatile 讀取。</p>
+ *
+ * <p>非同步消耗不在呼叫執行緒上替換配置：有 {@link AsyncBucketProxy} 時使用其非同步 replaceConfiguration，
+ * 分散式但無非同步 API 時交由執行器執行，完成後才消耗。同一份新配置同時只送出一次替換，
+ * 期間的其他非同步呼叫等待同一個結果，不阻塞 event loop。</p>
+ */
+public class ReconfigurableRateLimiter implements RateLimiter {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReconfigurableRateLimiter.class);
+
+    private static final CompletableFuture<Void> APPLIED = CompletableFuture.completedFuture(null);
+
+    private final RateLimiter delegate;
+    private final Bucket bucket;
+    private final AsyncBucketProxy asyncBucket;
+    private final Executor blockingExecutor;
+    private final RateLimitDefinition definition;
+    private volatile BucketConfiguration appliedConfiguration;
+    private BucketConfiguration pendingConfiguration;
+    private CompletableFuture<Void> pendingReplacement;
+
+    /**
+     * @param delegate 實際執行消耗的 Rate Limiter
+     * @param bucket delegate 使用的 Bucket
+     * @param asyncBucket 對應同一狀態的非同步 Bucket，可為 null
+     * @param blockingExecutor 無非同步 Bucket 時執行分散式替換的執行器，null 表示本地 Bucket（替換不涉及 I/O）
+     * @param definition 具名限流器定義
+     * @param appliedConfiguration 建立 Bucket 時使用的配置
+     */
+    public ReconfigurableRateLimiter(RateLimiter delegate, Bucket bucket, AsyncBucketProxy asyncBucket,
+                                     Executor blockingExecutor, RateLimitDefinition definition,
+                                     BucketConfiguration appliedConfiguration) {
+        this.delegate = delegate;
+        this.bucket = bucket;
+        this.asyncBucket = asyncBucket;
+        this.blockingExecutor = blockingExecutor;
+        this.definition = definition;
+        this.appliedConfiguration = appliedConfiguration;
+    }
+
+    @Override
+    public ConsumptionProbe tryConsumeAndReturnRemaining(long tokens) {
+        applyLatestConfiguration();
+        return delegate.tryConsumeAndReturnRemaining(tokens);
+    }
+
+    @Override
+    public long tryConsumeRemaining(long tokens) {
+        applyLatestConfiguration();
+        return delegate.tryConsumeRemaining(tokens);
+    }
+
+    @Override
+    public CompletableFuture<ConsumptionProbe> tryConsumeAndReturnRemainingAsync(long tokens) {
+        return applyLatestConfigurationAsync()
+                .thenCompose(ignored -> delegate.tryConsumeAndReturnRemainingAsync(tokens));
+    }
+
+    @Override
+    public boolean tryConsume(long tokens, long maxWaitNanos) throws InterruptedException {
+        applyLatestConfiguration();
+        return delegate.tryConsume(tokens, maxWaitNanos);
+    }
+
+    @Override
+    public CompletableFuture<Boolean> tryConsumeAsync(long tokens, long maxWaitNanos) {
+        return applyLatestConfigurationAsync()
+                .thenCompose(ignored -> delegate.tryConsumeAsync(tokens, maxWaitNanos));
+    }
+
+    @Override
+    public void refund(long tokens) {
+        delegate.refund(tokens);
+    }
+
+    @Override
+    public long getAvailableTokens() {
+        return delegate.getAvailableTokens();
+    }
+
+    @Override
+    public void consumeIgnoringRateLimits(long tokens) {
+        applyLatestConfiguration();
+        delegate.consumeIgnoringRateLimits(tokens);
+    }
+
+    @Override
+    public void drain() {
+        delegate.drain();
+    }
+
+    @Override
+    public CompletableFuture<Void> drainAsync() {
+        return delegate.drainAsync();
+    }
+
+    private void applyLatestConfiguration() {
+        BucketConfiguration latest = definition.getConfiguration();
+        if (latest == appliedConfiguration) {
+            return;
+        }
+        synchronized (this) {
+            if (latest == appliedConfiguration) {
+                return;
+            }
+            try {
+                bucket.replaceConfiguration(latest, TokensInheritanceStrategy.PROPORTIONALLY);
+                appliedConfiguration = latest;
+            } catch (RuntimeException e) {
+                // 替換失敗（如分散式後端暫時無法連線）時沿用舊配置，下次使用再試
+                logger.warn("Rate Limiter {} 套用新配置失敗: {}", definition.getName(), e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * 非同步套用最新配置，配置未變動時回傳已完成的 future；替換失敗時沿用舊配置，不讓消耗失敗
+     */
+    private CompletableFuture<Void> applyLatestConfigurationAsync() {
+        BucketConfiguration latest = definition.getConfiguration();
+        if (latest == appliedConfiguration) {
+            return APPLIED;
+        }
+        synchronized (this) {
+            if (latest == appliedConfiguration) {
+                return APPLIED;
+            }
+            if (latest == pendingConfiguration) {
+                return pendingReplacement;
+            }
+            CompletableFuture<Void> replacement = replaceConfigurationAsync(latest)
+                    .handle((ignored, e) -> {
+                        replaced(latest, e);
+                        return null;
+                    });
+            if (!replacement.isDone()) {
+                pendingConfiguration = latest;
+                pendingReplacement = replacement;
+            }
+            return replacement;
+        }
+    }
+
+    private CompletableFuture<Void> replaceConfigurationAsync(BucketConfiguration latest) {
+        try {
+            if (asyncBucket != null) {
+                return asyncBucket.replaceConfiguration(latest, TokensInheritanceStrategy.PROPORTIONALLY);
+            }
+            if (blockingExecutor != null) {
+                return CompletableFuture.runAsync(
+                        () -> bucket.replaceConfiguration(latest, TokensInheritanceStrategy.PROPORTIONALLY),
+                        blockingExecutor);
+            }
+            bucket.replaceConfiguration(latest, TokensInheritanceStrategy.PROPORTIONALLY);
+            return APPLIED;
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private synchronized void replaced(BucketConfiguration latest, Throwable error) {
+        if (latest == pendingConfiguration) {
+            pendingConfiguration = null;
+            pendingReplacement = null;
+        }
+        if (error == null) {
+            appliedConfiguration = latest;
+            return;
+        }
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        logger.warn("Rate Limiter {} 套用新配置失敗: {}", definition.getName(), cause.getMessage());
+    }
+}
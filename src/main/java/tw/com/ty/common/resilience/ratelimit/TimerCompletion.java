@@ -0,0 +1,30 @@
+package tw.com.ty.common.resilience.ratelimit;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+
+/**
+ * 等待模式 future 的完成執行緒
+ *
+ * <p>預約等待的 future 由排程器在預約時間到達時完成，接在其後的下游呼叫（如 {@code proceed()}）預設會在排程器執行緒上執行。
+ * 排程器為單一執行緒，下游呼叫會延後其他計時。尚未完成的 future 改由執行器完成後再交給下游；已完成的 future 直接回傳，不多一次切換。</p>
+ */
+final class TimerCompletion {
+
+    private TimerCompletion() {
+        // 工具類不允許實例化
+    }
+
+    /**
+     * @param future 等待模式的 future
+     * @param executor 執行下游的執行器，null 表示沿用完成 future 的執行緒
+     * @return 在執行器上完成的 future
+     */
+    static <T> CompletableFuture<T> completeOn(CompletableFuture<T> future, Executor executor) {
+        if (executor == null || future.isDone()) {
+            return future;
+        }
+        return future.thenApplyAsync(Function.identity(), executor);
+    }
+}
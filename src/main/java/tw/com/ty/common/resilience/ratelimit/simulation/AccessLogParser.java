@@ -0,0 +1,159 @@
+package tw.com.ty.common.resilience.ratelimit.simulation;
+
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 存取日誌解析器
+ *
+ * <p>以正規表示式的具名群組擷取每行的請求時間與限流鍵：</p>
+ * <ul>
+ *   <li>{@code time}（必要）：epoch 毫秒，或 {@code yyyy-MM-dd[T ]HH:mm:ss[.SSS][offset]}，未帶時區時使用指定時區</li>
+ *   <li>{@code key}（必要）：限流鍵，例如 IP、使用者或「方法 路徑」</li>
+ *   <li>{@code tokens}（選用）：此請求消耗的 token 數量，預設 1</li>
+ * </ul>
+ *
+ * <p>預設樣式對應 Spring Boot 預設日誌格式下 {@code RequestResponseLoggingAspect} 的請求開始行，
+ * 以「方法 路徑」作為限流鍵。Matcher 重複使用，同一秒內的時間只以 java.time 解析一次。
+ * 非執行緒安全。</p>
+ */
+public class AccessLogParser {
+
+    /**
+     * 預設樣式：{@code 2024-05-01T10:15:30.123+08:00  INFO ... : 🚀 [ab12cd34] GET /api/users - Started}
+     */
+    public static final String DEFAULT_PATTERN =
+            "^(?<time>\\d{4}-\\d{2}-\\d{2}[T ]\\S+) .*? : \\S+ \\[\\w+\\] (?<key>[A-Z]+ \\S+) - Started";
+
+    /**
+     * 預設樣式的必要文字，不含此文字的行不執行正規表示式
+     */
+    public static final String DEFAULT_REQUIRED_TEXT = " - Started";
+
+    private static final int SECOND_PREFIX_LENGTH = 19;
+
+    private final Matcher matcher;
+    private final String requiredText;
+    private final boolean hasTokens;
+    private final ZoneId zone;
+
+    private String cachedSecond;
+    private String cachedOffset;
+    private long cachedEpochSecond;
+
+    private long timestampMillis;
+    private String key;
+    private long tokens;
+
+    /**
+     * 使用預設樣式
+     *
+     * @param zone 時間未帶時區時使用的時區
+     */
+    public AccessLogParser(ZoneId zone) {
+        this(DEFAULT_PATTERN, DEFAULT_REQUIRED_TEXT, zone);
+    }
+
+    /**
+     * @param pattern 含 time、key（與選用 tokens）具名群組的正規表示式
+     * @param requiredText 符合樣式的行必定包含的文字，用於在正規表示式前快速略過其他行，可為 null
+     * @param zone 時間未帶時區時使用的時區
+     * @throws IllegalArgumentException 樣式缺少必要群組
+     */
+    public AccessLogParser(String pattern, String requiredText, ZoneId zone) {
+        Pattern compiled = Pattern.compile(pattern);
+        if (!compiled.namedGroups().containsKey("time") || !compiled.namedGroups().containsKey("key")) {
+            throw new IllegalArgumentException("日誌樣式必須包含 time 與 key 具名群組: " + pattern);
+        }
+        this.matcher = compiled.matcher("");
+        this.requiredText = requiredText != null && !requiredText.isEmpty() ? requiredText : null;
+        this.hasTokens = compiled.namedGroups().containsKey("tokens");
+        this.zone = zone;
+    }
+
+    /**
+     * 解析一行日誌
+     *
+     * @param line 日誌行
+     * @return 符合樣式且時間有效時回傳 true，結果由 {@link #timestampMillis()}、{@link #key()}、{@link #tokens()} 取得
+     */
+    public boolean parse(String line) {
+        if (requiredText != null && !line.contains(requiredText)) {
+            return false;
+        }
+        if (!matcher.reset(line).find()) {
+            return false;
+        }
+        try {
+            timestampMillis = parseMillis(matcher.group("time"));
+            String tokenGroup = hasTokens ? matcher.group("tokens") : null;
+            tokens = tokenGroup != null ? Math.max(1, Long.parseLong(tokenGroup)) : 1;
+        } catch (DateTimeException | NumberFormatException e) {
+            return false;
+        }
+        key = matcher.group("key");
+        return true;
+    }
+
+    public long timestampMillis() {
+        return timestampMillis;
+    }
+
+    public String key() {
+        return key;
+    }
+
+    public long tokens() {
+        return tokens;
+    }
+
+    private long parseMillis(String text) {
+        if (isDigits(text)) {
+            return Long.parseLong(text);
+        }
+        if (text.length() < SECOND_PREFIX_LENGTH) {
+            throw new DateTimeParseException("時間格式不符", text, 0);
+        }
+
+        int index = SECOND_PREFIX_LENGTH;
+        long fractionMillis = 0;
+        if (index < text.length() && (text.charAt(index) == '.' || text.charAt(index) == ',')) {
+            int start = ++index;
+            while (index < text.length() && Character.isDigit(text.charAt(index))) {
+                index++;
+            }
+            for (int i = start; i < start + 3; i++) {
+                fractionMillis = fractionMillis * 10 + (i < index ? text.charAt(i) - '0' : 0);
+            }
+        }
+
+        String second = text.substring(0, SECOND_PREFIX_LENGTH);
+        String offset = text.substring(index);
+        if (!second.equals(cachedSecond) || !offset.equals(cachedOffset)) {
+            LocalDateTime dateTime = LocalDateTime.parse(second.replace(' ', 'T'));
+            cachedEpochSecond = offset.isEmpty()
+                    ? dateTime.atZone(zone).toEpochSecond()
+                    : dateTime.toEpochSecond(ZoneOffset.of(offset));
+            cachedSecond = second;
+            cachedOffset = offset;
+        }
+        return cachedEpochSecond * 1000 + fractionMillis;
+    }
+
+    private static boolean isDigits(String text) {
+        if (text.isEmpty()) {
+            return false;
+        }
+        for (int i = 0; i < text.length(); i++) {
+            if (!Character.isDigit(text.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
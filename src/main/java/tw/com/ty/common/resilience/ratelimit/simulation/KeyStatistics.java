@@ -0,0 +1,150 @@
+package tw.com.ty.common.resilience.ratelimit.simulation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 固定記憶體的限流鍵統計（Space-Saving 演算法）
+ *
+ * <p>最多追蹤 capacity 個限流鍵。已滿時新的鍵取代請求數最少的鍵，並以被取代鍵的請求數作為誤差上限，
+ * 請求數超過總數 / capacity 的鍵保證被追蹤。以索引化的最小堆維護請求數，每次記錄為 O(log capacity)。</p>
+ *
+ * <p>被拒絕次數只在鍵被追蹤期間累計，為實際值的下限。非執行緒安全。</p>
+ */
+class KeyStatistics {
+
+    private final int capacity;
+    private final int engines;
+    private final Map<String, Counter> counters;
+    private final Counter[] heap;
+    private int size;
+
+    KeyStatistics(int capacity, int engines) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        this.capacity = capacity;
+        this.engines = engines;
+        this.counters = new HashMap<>(capacity * 4 / 3 + 1);
+        this.heap = new Counter[capacity];
+    }
+
+    /**
+     * 記錄一次請求
+     *
+     * @return 該鍵的計數器，供呼叫端累計被拒絕次數
+     */
+    Counter record(String key) {
+        Counter counter = counters.get(key);
+        if (counter != null) {
+            counter.requests++;
+            siftDown(counter.index);
+            return counter;
+        }
+        if (size < capacity) {
+            counter = new Counter(key, engines);
+            counter.requests = 1;
+            counter.index = size;
+            heap[size++] = counter;
+            counters.put(key, counter);
+            siftUp(counter.index);
+            return counter;
+        }
+
+        // 取代請求數最少的鍵，其請求數成為新鍵的誤差上限
+        counter = heap[0];
+        counters.remove(counter.key);
+        counter.key = key;
+        counter.error = counter.requests;
+        counter.requests++;
+        Arrays.fill(counter.rejected, 0);
+        counters.put(key, counter);
+        siftDown(0);
+        return counter;
+    }
+
+    /**
+     * 依被拒絕次數（各引擎合計）由多至少排序的前 limit 個鍵，不含未被拒絕的鍵
+     */
+    List<SimulationReport.KeyEntry> top(int limit) {
+        List<Counter> sorted = new ArrayList<>();
+        for (Counter counter : counters.values()) {
+            if (counter.totalRejected() > 0) {
+                sorted.add(counter);
+            }
+        }
+        sorted.sort(Comparator.comparingLong(Counter::totalRejected).reversed()
+                .thenComparing(Comparator.comparingLong((Counter c) -> c.requests).reversed()));
+        List<SimulationReport.KeyEntry> entries = new ArrayList<>(Math.min(limit, sorted.size()));
+        for (Counter counter : sorted.subList(0, Math.min(limit, sorted.size()))) {
+            entries.add(new SimulationReport.KeyEntry(counter.key, counter.requests, counter.error,
+                    counter.rejected.clone()));
+        }
+        return entries;
+    }
+
+    private void siftUp(int index) {
+        Counter counter = heap[index];
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (heap[parent].requests <= counter.requests) {
+                break;
+            }
+            place(heap[parent], index);
+            index = parent;
+        }
+        place(counter, index);
+    }
+
+    private void siftDown(int index) {
+        Counter counter = heap[index];
+        int half = size >>> 1;
+        while (index < half) {
+            int child = 2 * index + 1;
+            int right = child + 1;
+            if (right < size && heap[right].requests < heap[child].requests) {
+                child = right;
+            }
+            if (counter.requests <= heap[child].requests) {
+                break;
+            }
+            place(heap[child], index);
+            index = child;
+        }
+        place(counter, index);
+    }
+
+    private void place(Counter counter, int index) {
+        heap[index] = counter;
+        counter.index = index;
+    }
+
+    /**
+     * 單一限流鍵的計數器
+     */
+    static final class Counter {
+
+        private String key;
+        private long requests;
+        private long error;
+        private int index;
+        final long[] rejected;
+
+        Counter(String key, int engines) {
+            this.key = key;
+            this.rejected = new long[engines];
+        }
+
+        long totalRejected() {
+            long total = 0;
+            for (long count : rejected) {
+                total += count;
+            }
+            return total;
+        }
+    }
+}
@@ -0,0 +1,289 @@
+package tw.com.ty.common.resilience.ratelimit.simulation;
+
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.Bucket;
+import io.github.bucket4j.BucketConfiguration;
+import io.github.bucket4j.TimeMeter;
+import io.github.bucket4j.local.LocalBucketBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import tw.com.ty.common.resilience.ratelimit.BucketRateLimiter;
+import tw.com.ty.common.resilience.ratelimit.GcraRateLimiter;
+import tw.com.ty.common.resilience.ratelimit.RateLimitEngine;
+import tw.com.ty.common.resilience.ratelimit.RateLimiter;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.function.Consumer;
+
+/**
+ * 離線限流模擬器
+ *
+ * <p>以日誌中的請求時間驅動虛擬時鐘，將請求依序送入與正式環境相同的 Rate Limiter 實作
+ * （{@link BucketRateLimiter} / {@link GcraRateLimiter}），不需等待實際時間，用於部署前驗證限流配置。</p>
+ *
+ * <p>記憶體與日誌大小無關：</p>
+ * <ul>
+ *   <li>每個引擎只保留仍在補充中的限流鍵，閒置超過補滿時間的鍵與新建立的鍵狀態相同，於每分鐘結束時移除</li>
+ *   <li>同時存在的限流鍵超過 maxActiveKeys 時淘汰最久未使用的鍵並計入報告（該鍵會以滿容量重新開始）</li>
+ *   <li>每分鐘統計完成即交給 minuteListener，只保留拒絕率最高的分鐘</li>
+ *   <li>限流鍵統計使用固定容量的 Space-Saving 演算法</li>
+ * </ul>
+ *
+ * <p>日誌須大致依時間排序；時間倒退的請求視為與前一筆同時。非執行緒安全。</p>
+ */
+public class RateLimitSimulator {
+
+    private static final Logger logger = LoggerFactory.getLogger(RateLimitSimulator.class);
+
+    private static final long MINUTE_MILLIS = 60_000;
+    private static final long NANOS_PER_MILLI = 1_000_000;
+
+    private final BucketConfiguration configuration;
+    private final List<RateLimitEngine> engines;
+    private final int maxActiveKeys;
+    private final int topKeys;
+    private final Consumer<SimulationReport.MinuteEntry> minuteListener;
+    private final long refillHorizonMillis;
+    private final VirtualClock clock = new VirtualClock();
+    private final Lane[] lanes;
+    private final KeyStatistics keyStatistics;
+    private final PriorityQueue<SimulationReport.MinuteEntry> worstMinutes =
+            new PriorityQueue<>(Comparator.comparingDouble(SimulationReport.MinuteEntry::maxRejectionRate));
+
+    private long lines;
+    private long requests;
+    private final long[] rejected;
+    private long firstMillis = Long.MIN_VALUE;
+    private long lastMillis = Long.MIN_VALUE;
+    private int peakActiveKeys;
+
+    private long currentMinute = Long.MIN_VALUE;
+    private long minuteRequests;
+    private final long[] minuteRejected;
+
+    /**
+     * @param configuration 模擬的 Bucket 配置
+     * @param engines 模擬的引擎，GCRA 遇到多頻寬配置時與正式環境相同改用 bucket4j
+     * @param maxActiveKeys 每個引擎同時保留的限流鍵上限
+     * @param topKeys 報告中列出的限流鍵與分鐘數量，亦決定限流鍵統計的容量
+     * @param minuteListener 每分鐘統計完成時呼叫，不需要時傳入 {@code minute -> {}}
+     */
+    public RateLimitSimulator(BucketConfiguration configuration, List<RateLimitEngine> engines, int maxActiveKeys,
+                              int topKeys, Consumer<SimulationReport.MinuteEntry> minuteListener) {
+        if (engines.isEmpty()) {
+            throw new IllegalArgumentException("至少需要一個限流引擎");
+        }
+        this.configuration = configuration;
+        this.engines = List.copyOf(engines);
+        this.maxActiveKeys = maxActiveKeys;
+        this.topKeys = topKeys;
+        this.minuteListener = minuteListener;
+        this.refillHorizonMillis = refillHorizonMillis(configuration);
+        this.lanes = new Lane[engines.size()];
+        for (int i = 0; i < lanes.length; i++) {
+            lanes[i] = new Lane(engines.get(i));
+        }
+        // 容量為列出數量的 50 倍，列出的鍵請求數誤差相對較小
+        this.keyStatistics = new KeyStatistics(Math.max(1, topKeys) * 50, engines.size());
+        this.rejected = new long[engines.size()];
+        this.minuteRejected = new long[engines.size()];
+        if (configuration.getBandwidths().length != 1 && this.engines.contains(RateLimitEngine.GCRA)) {
+            logger.warn("配置包含 {} 個頻寬，GCRA 僅支援單一頻寬，改以 bucket4j 模擬", configuration.getBandwidths().length);
+        }
+    }
+
+    /**
+     * 逐行讀取並模擬整份日誌
+     *
+     * @param reader 日誌來源
+     * @param parser 日誌解析器，不符合樣式的行略過
+     * @throws IOException 讀取失敗
+     */
+    public void replay(BufferedReader reader, AccessLogParser parser) throws IOException {
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lines++;
+            if (parser.parse(line)) {
+                accept(parser.timestampMillis(), parser.key(), parser.tokens());
+            }
+        }
+    }
+
+    /**
+     * 模擬一筆請求
+     *
+     * @param epochMillis 請求時間（epoch 毫秒）
+     * @param key 限流鍵
+     * @param tokens 消耗的 token 數量
+     */
+    public void accept(long epochMillis, String key, long tokens) {
+        long now = Math.max(epochMillis, lastMillis);
+        if (firstMillis == Long.MIN_VALUE) {
+            firstMillis = now;
+        }
+        lastMillis = now;
+        long minute = Math.floorDiv(now, MINUTE_MILLIS);
+        if (minute != currentMinute) {
+            completeMinute();
+            currentMinute = minute;
+        }
+        clock.nanos = now * NANOS_PER_MILLI;
+
+        requests++;
+        minuteRequests++;
+        KeyStatistics.Counter counter = keyStatistics.record(key);
+        for (int i = 0; i < lanes.length; i++) {
+            if (!lanes[i].tryConsume(key, tokens, now)) {
+                rejected[i]++;
+                minuteRejected[i]++;
+                counter.rejected[i]++;
+            }
+        }
+    }
+
+    /**
+     * 結束模擬並產生報告
+     *
+     * @return 模擬結果
+     */
+    public SimulationReport finish() {
+        completeMinute();
+        List<SimulationReport.MinuteEntry> minutes = new ArrayList<>(worstMinutes);
+        minutes.sort(Comparator.comparingDouble(SimulationReport.MinuteEntry::maxRejectionRate).reversed());
+        long[] evictions = new long[lanes.length];
+        for (int i = 0; i < lanes.length; i++) {
+            evictions[i] = lanes[i].evictions;
+        }
+        return new SimulationReport(engines, configuration.toString(), lines, requests, rejected.clone(), evictions,
+                firstMillis, lastMillis, peakActiveKeys, keyStatistics.top(topKeys), minutes);
+    }
+
+    private void completeMinute() {
+        if (minuteRequests == 0) {
+            return;
+        }
+        SimulationReport.MinuteEntry entry = new SimulationReport.MinuteEntry(
+                currentMinute * MINUTE_MILLIS, minuteRequests, minuteRejected.clone());
+        minuteListener.accept(entry);
+        if (entry.maxRejectionRate() > 0) {
+            worstMinutes.offer(entry);
+            if (worstMinutes.size() > topKeys) {
+                worstMinutes.poll();
+            }
+        }
+        minuteRequests = 0;
+        Arrays.fill(minuteRejected, 0);
+        for (Lane lane : lanes) {
+            lane.expireIdle(lastMillis);
+        }
+    }
+
+    /**
+     * 閒置後 Bucket 必定補滿的時間：各頻寬補滿容量所需的補充週期數（多加一個週期涵蓋 intervally 補充）
+     */
+    private static long refillHorizonMillis(BucketConfiguration configuration) {
+        long horizonNanos = 0;
+        for (Bandwidth bandwidth : configuration.getBandwidths()) {
+            long periods = Math.ceilDiv(bandwidth.getCapacity(), bandwidth.getRefillTokens()) + 1;
+            horizonNanos = Math.max(horizonNanos, periods * bandwidth.getRefillPeriodNanos());
+        }
+        return Math.ceilDiv(horizonNanos, NANOS_PER_MILLI);
+    }
+
+    /**
+     * 單一引擎的限流鍵狀態，以存取順序排列，最久未使用的在前
+     */
+    private final class Lane {
+
+        private final RateLimitEngine engine;
+        private final LinkedHashMap<String, KeyState> states;
+        private long evictions;
+
+        Lane(RateLimitEngine engine) {
+            this.engine = engine;
+            this.states = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, KeyState> eldest) {
+                    if (size() > maxActiveKeys) {
+                        evictions++;
+                        return true;
+                    }
+                    return false;
+                }
+            };
+        }
+
+        boolean tryConsume(String key, long tokens, long nowMillis) {
+            KeyState state = states.get(key);
+            if (state == null) {
+                state = new KeyState(createRateLimiter());
+                states.put(key, state);
+                peakActiveKeys = Math.max(peakActiveKeys, states.size());
+            }
+            state.lastAccessMillis = nowMillis;
+            return state.rateLimiter.tryConsume(tokens);
+        }
+
+        /**
+         * 從最久未使用的鍵開始移除已補滿的鍵，遇到仍在補充中的鍵即停止
+         */
+        void expireIdle(long nowMillis) {
+            Iterator<KeyState> iterator = states.values().iterator();
+            while (iterator.hasNext()) {
+                if (nowMillis - iterator.next().lastAccessMillis <= refillHorizonMillis) {
+                    return;
+                }
+                iterator.remove();
+            }
+        }
+
+        private RateLimiter createRateLimiter() {
+            Bandwidth[] bandwidths = configuration.getBandwidths();
+            if (engine == RateLimitEngine.GCRA && bandwidths.length == 1) {
+                return new GcraRateLimiter(bandwidths[0], clock, null);
+            }
+            LocalBucketBuilder builder = Bucket.builder().withCustomTimePrecision(clock);
+            for (Bandwidth bandwidth : bandwidths) {
+                builder.addLimit(bandwidth);
+            }
+            return new BucketRateLimiter(builder.build(), null);
+        }
+    }
+
+    private static final class KeyState {
+
+        private final RateLimiter rateLimiter;
+        private long lastAccessMillis;
+
+        KeyState(RateLimiter rateLimiter) {
+            this.rateLimiter = rateLimiter;
+        }
+    }
+
+    /**
+     * 由日誌時間推進的虛擬時鐘
+     */
+    private static final class VirtualClock implements TimeMeter {
+
+        private long nanos;
+
+        @Override
+        public long currentTimeNanos() {
+            return nanos;
+        }
+
+        @Override
+        public boolean isWallClockBased() {
+            return false;
+        }
+    }
+}
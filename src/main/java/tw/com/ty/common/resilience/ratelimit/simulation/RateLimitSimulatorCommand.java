@@ -0,0 +1,188 @@
+package tw.com.ty.common.resilience.ratelimit.simulation;
+
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.BucketConfiguration;
+import io.github.bucket4j.Refill;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.env.PropertiesPropertySourceLoader;
+import org.springframework.boot.env.PropertySourceLoader;
+import org.springframework.boot.env.YamlPropertySourceLoader;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.env.PropertySource;
+import org.springframework.core.env.StandardEnvironment;
+import org.springframework.core.io.FileSystemResource;
+import tw.com.ty.common.resilience.ratelimit.RateLimitEngine;
+import tw.com.ty.common.resilience.ratelimit.RateLimitProperties;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * 離線限流模擬的命令列入口
+ *
+ * <pre>
+ * mvn -q exec:java -Dexec.mainClass=tw.com.ty.common.resilience.ratelimit.simulation.RateLimitSimulatorCommand \
+ *     -Dexec.args="--log=app.log.gz --config=application.yml --policy=api --rate-limiter.api.capacity=200"
+ * </pre>
+ *
+ * <p>參數（皆為 {@code --name=value}）：</p>
+ * <ul>
+ *   <li>log：日誌檔案，.gz 以串流解壓，{@code -} 表示標準輸入（必要）</li>
+ *   <li>config：application.yml / .properties，讀取 rate-limiter.* 配置</li>
+ *   <li>policy：api（預設）、batch 或 rate-limiter.limits 下的具名限流器</li>
+ *   <li>engines：逗號分隔的引擎，預設 bucket4j,gcra</li>
+ *   <li>pattern：日誌樣式，見 {@link AccessLogParser}</li>
+ *   <li>contains：自訂樣式時，符合的行必定包含的文字，用於快速略過其他行</li>
+ *   <li>zone：日誌時間未帶時區時使用的時區，預設系統時區</li>
+ *   <li>minutes-csv：每分鐘統計輸出的 CSV 檔案</li>
+ *   <li>top：列出的限流鍵與分鐘數量，預設 20</li>
+ *   <li>max-active-keys：每個引擎同時保留的限流鍵上限，預設 1000000</li>
+ *   <li>rate-limiter.*：覆寫配置檔中的屬性，用於比較不同配置</li>
+ * </ul>
+ */
+public final class RateLimitSimulatorCommand {
+
+    private static final String PROPERTY_PREFIX = "rate-limiter.";
+
+    private RateLimitSimulatorCommand() {
+        // 命令列入口不允許實例化
+    }
+
+    public static void main(String[] args) throws IOException {
+        Map<String, String> options = new HashMap<>();
+        Map<String, Object> overrides = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || arg.indexOf('=') < 0) {
+                throw new IllegalArgumentException("參數格式應為 --name=value: " + arg);
+            }
+            String name = arg.substring(2, arg.indexOf('='));
+            String value = arg.substring(arg.indexOf('=') + 1);
+            if (name.startsWith(PROPERTY_PREFIX)) {
+                overrides.put(name, value);
+            } else {
+                options.put(name, value);
+            }
+        }
+        String log = options.get("log");
+        if (log == null) {
+            throw new IllegalArgumentException("缺少 --log=<日誌檔案>");
+        }
+
+        StandardEnvironment environment = new StandardEnvironment();
+        environment.getPropertySources().addFirst(new MapPropertySource("simulatorArguments", overrides));
+        if (options.containsKey("config")) {
+            loadConfiguration(environment, Path.of(options.get("config")));
+        }
+        String policy = options.getOrDefault("policy", "api");
+        BucketConfiguration configuration = resolveConfiguration(Binder.get(environment), policy);
+
+        List<RateLimitEngine> engines = new ArrayList<>();
+        for (String engine : options.getOrDefault("engines", "bucket4j,gcra").split(",")) {
+            engines.add(RateLimitEngine.valueOf(engine.trim().toUpperCase(Locale.ROOT)));
+        }
+        ZoneId zone = options.containsKey("zone") ? ZoneId.of(options.get("zone")) : ZoneId.systemDefault();
+        AccessLogParser parser = options.containsKey("pattern")
+                ? new AccessLogParser(options.get("pattern"), options.get("contains"), zone)
+                : new AccessLogParser(zone);
+        int top = Integer.parseInt(options.getOrDefault("top", "20"));
+        int maxActiveKeys = Integer.parseInt(options.getOrDefault("max-active-keys", "1000000"));
+
+        PrintStream csv = options.containsKey("minutes-csv")
+                ? new PrintStream(Files.newOutputStream(Path.of(options.get("minutes-csv"))), false, StandardCharsets.UTF_8)
+                : null;
+        try (BufferedReader reader = open(log)) {
+            Consumer<SimulationReport.MinuteEntry> minuteListener = minute -> { };
+            if (csv != null) {
+                csv.println(csvHeader(engines));
+                minuteListener = minute -> csv.println(csvRow(minute, zone));
+            }
+            RateLimitSimulator simulator = new RateLimitSimulator(configuration, engines, maxActiveKeys, top, minuteListener);
+            long start = System.nanoTime();
+            simulator.replay(reader, parser);
+            SimulationReport report = simulator.finish();
+
+            PrintStream out = new PrintStream(System.out, true, StandardCharsets.UTF_8);
+            out.printf("限流配置: %s%n", policy);
+            report.writeTo(out, zone);
+            out.printf("%n耗時 %d ms%n", Duration.ofNanos(System.nanoTime() - start).toMillis());
+        } finally {
+            if (csv != null) {
+                csv.close();
+            }
+        }
+    }
+
+    /**
+     * 依名稱取得與 RateLimiterConfiguration / NamedRateLimiterRegistry 相同預設值的 Bucket 配置
+     */
+    static BucketConfiguration resolveConfiguration(Binder binder, String policy) {
+        if ("api".equals(policy) || "batch".equals(policy)) {
+            long defaultCapacity = "api".equals(policy) ? 100 : 50;
+            String prefix = PROPERTY_PREFIX + policy + ".";
+            long capacity = binder.bind(prefix + "capacity", Long.class).orElse(defaultCapacity);
+            long refillTokens = binder.bind(prefix + "refill-tokens", Long.class).orElse(defaultCapacity);
+            long refillSeconds = binder.bind(prefix + "refill-duration-seconds", Long.class).orElse(1L);
+            return BucketConfiguration.builder()
+                    .addLimit(Bandwidth.classic(capacity, Refill.greedy(refillTokens, Duration.ofSeconds(refillSeconds))))
+                    .build();
+        }
+        RateLimitProperties properties = binder.bind(PROPERTY_PREFIX + "limits." + policy, RateLimitProperties.class)
+                .orElseThrow(() -> new IllegalStateException("找不到 Rate Limiter 配置: " + PROPERTY_PREFIX + "limits." + policy));
+        return properties.toBucketConfiguration(policy);
+    }
+
+    private static void loadConfiguration(StandardEnvironment environment, Path path) throws IOException {
+        String fileName = path.getFileName().toString();
+        PropertySourceLoader loader = fileName.endsWith(".yml") || fileName.endsWith(".yaml")
+                ? new YamlPropertySourceLoader()
+                : new PropertiesPropertySourceLoader();
+        for (PropertySource<?> source : loader.load(fileName, new FileSystemResource(path))) {
+            environment.getPropertySources().addLast(source);
+        }
+    }
+
+    private static BufferedReader open(String log) throws IOException {
+        InputStream in = "-".equals(log) ? System.in : Files.newInputStream(Path.of(log));
+        if (log.endsWith(".gz")) {
+            in = new GZIPInputStream(in, 64 * 1024);
+        }
+        // InputStreamReader 以替代字元處理無效的 UTF-8，不因單行編碼錯誤中止
+        return new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), 1 << 20);
+    }
+
+    private static String csvHeader(List<RateLimitEngine> engines) {
+        StringBuilder header = new StringBuilder("minute,requests");
+        for (RateLimitEngine engine : engines) {
+            String name = engine.name().toLowerCase(Locale.ROOT);
+            header.append(',').append(name).append("_rejected,").append(name).append("_rejection_rate");
+        }
+        return header.toString();
+    }
+
+    private static String csvRow(SimulationReport.MinuteEntry minute, ZoneId zone) {
+        StringBuilder row = new StringBuilder()
+                .append(Instant.ofEpochMilli(minute.minuteStartMillis()).atZone(zone).toLocalDateTime())
+                .append(',').append(minute.requests());
+        for (int i = 0; i < minute.rejected().length; i++) {
+            row.append(',').append(minute.rejected()[i])
+                    .append(',').append(String.format(Locale.ROOT, "%.4f", minute.rejectionRate(i)));
+        }
+        return row.toString();
+    }
+}
@@ -0,0 +1,133 @@
+package tw.com.ty.common.resilience.ratelimit.simulation;
+
+import tw.com.ty.common.resilience.ratelimit.RateLimitEngine;
+
+import java.io.PrintStream;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.List;
+
+/**
+ * 限流模擬結果
+ *
+ * @param engines 模擬的引擎，rejected 等陣列依此順序
+ * @param configuration 模擬的 Bucket 配置描述
+ * @param lines 讀取的日誌行數
+ * @param requests 符合樣式的請求數
+ * @param rejected 各引擎被拒絕的請求數
+ * @param evictions 各引擎因超過 maxActiveKeys 而提早淘汰（重設為滿容量）的限流鍵數
+ * @param firstMillis 第一筆請求時間（epoch 毫秒）
+ * @param lastMillis 最後一筆請求時間（epoch 毫秒）
+ * @param peakActiveKeys 同時存在的限流鍵數量峰值
+ * @param topKeys 被拒絕最多的限流鍵
+ * @param worstMinutes 拒絕率最高的分鐘
+ */
+public record SimulationReport(List<RateLimitEngine> engines,
+                               String configuration,
+                               long lines,
+                               long requests,
+                               long[] rejected,
+                               long[] evictions,
+                               long firstMillis,
+                               long lastMillis,
+                               int peakActiveKeys,
+                               List<KeyEntry> topKeys,
+                               List<MinuteEntry> worstMinutes) {
+
+    /**
+     * 以文字輸出報告
+     *
+     * @param out 輸出
+     * @param zone 顯示時間使用的時區
+     */
+    public void writeTo(PrintStream out, ZoneId zone) {
+        out.printf("配置: %s%n", configuration);
+        out.printf("日誌行數: %d，請求數: %d%n", lines, requests);
+        if (requests > 0) {
+            out.printf("期間: %s ~ %s%n", format(firstMillis, zone), format(lastMillis, zone));
+        }
+        out.printf("限流鍵峰值: %d%n", peakActiveKeys);
+        for (int i = 0; i < engines.size(); i++) {
+            out.printf("%-9s 拒絕 %d (%.2f%%)%s%n", engines.get(i), rejected[i], percent(rejected[i], requests),
+                    evictions[i] > 0 ? "，提早淘汰限流鍵 " + evictions[i] : "");
+        }
+
+        if (!topKeys.isEmpty()) {
+            out.println();
+            out.println("被拒絕最多的限流鍵（請求數含誤差上限）:");
+            for (KeyEntry entry : topKeys) {
+                StringBuilder line = new StringBuilder();
+                line.append(String.format("  %-40s %10d", entry.key(), entry.requests()));
+                if (entry.error() > 0) {
+                    line.append(String.format(" (±%d)", entry.error()));
+                }
+                for (int i = 0; i < engines.size(); i++) {
+                    line.append(String.format("  %s %d (%.2f%%)", engines.get(i), entry.rejected()[i],
+                            percent(entry.rejected()[i], entry.requests())));
+                }
+                out.println(line);
+            }
+        }
+
+        if (!worstMinutes.isEmpty()) {
+            out.println();
+            out.println("拒絕率最高的分鐘:");
+            for (MinuteEntry minute : worstMinutes) {
+                StringBuilder line = new StringBuilder();
+                line.append(String.format("  %s %10d", format(minute.minuteStartMillis(), zone), minute.requests()));
+                for (int i = 0; i < engines.size(); i++) {
+                    line.append(String.format("  %s %d (%.2f%%)", engines.get(i), minute.rejected()[i],
+                            minute.rejectionRate(i) * 100));
+                }
+                out.println(line);
+            }
+        }
+    }
+
+    private static String format(long epochMillis, ZoneId zone) {
+        return Instant.ofEpochMilli(epochMillis).atZone(zone).toLocalDateTime().toString();
+    }
+
+    private static double percent(long part, long total) {
+        return total > 0 ? part * 100.0 / total : 0;
+    }
+
+    /**
+     * 限流鍵統計
+     *
+     * @param key 限流鍵
+     * @param requests 請求數（可能高估，最多 error）
+     * @param error 請求數的誤差上限
+     * @param rejected 各引擎被拒絕的請求數
+     */
+    public record KeyEntry(String key, long requests, long error, long[] rejected) {
+    }
+
+    /**
+     * 每分鐘統計
+     *
+     * @param minuteStartMillis 分鐘開始時間（epoch 毫秒）
+     * @param requests 請求數
+     * @param rejected 各引擎被拒絕的請求數
+     */
+    public record MinuteEntry(long minuteStartMillis, long requests, long[] rejected) {
+
+        /**
+         * 指定引擎的拒絕率（0 ~ 1）
+         */
+        public double rejectionRate(int engine) {
+            return requests > 0 ? (double) rejected[engine] / requests : 0;
+        }
+
+        /**
+         * 各引擎中最高的拒絕率
+         */
+        public double maxRejectionRate() {
+            double max = 0;
+            for (int i = 0; i < rejected.length; i++) {
+                max = Math.max(max, rejectionRate(i));
+            }
+            return max;
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package tw.com.ty.common.resilience.ratelimit.web;
+
+import tw.com.ty.common.resilience.annotation.RateLimitKeySource;
+import tw.com.ty.common.resilience.annotation.RateLimitType;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Filter 層級 Rate Limiter 的配置（rate-limiter.filter.*）
+ *
+ * <pre>
+ * rate-limiter:
+ *   filter:
+ *     enabled: true
+ *     rules:
+ *       - paths: [/api/auth/**]
+ *         methods: [POST]
+ *         name: login
+ *         key-source: IP
+ *       - paths: [/api/**]
+ *         type: API
+ *         key-source: PRINCIPAL
+ * </pre>
+ *
+ * <p>規則依宣告順序比對，第一個符合的規則生效。</p>
+ */
+public class RateLimitFilterProperties {
+
+    /**
+     * 限流規則
+     */
+    private List<Rule> rules = new ArrayList<>();
+
+    public List<Rule> getRules() {
+        return rules;
+    }
+
+    public void setRules(List<Rule> rules) {
+        this.rules = rules;
+    }
+
+    /**
+     * 單一限流規則
+     */
+    public static class Rule {
+
+        /**
+         * 路徑樣式（PathPattern 語法，如 /api/people/**）
+         */
+        private List<String> paths = new ArrayList<>();
+
+        /**
+         * HTTP 方法，未設定時符合所有方法
+         */
+        private List<String> methods = new ArrayList<>();
+
+        /**
+         * 使用的 Bucket 配置（API 或 BATCH），設定 name 時忽略
+         */
+        private RateLimitType type = RateLimitType.API;
+
+        /**
+         * 具名限流器名稱（rate-limiter.limits.&lt;name&gt;）
+         */
+        private String name = "";
+
+        /**
+         * 限流鍵來源，不支援 ARGUMENT
+         */
+        private RateLimitKeySource keySource = RateLimitKeySource.IP;
+
+        /**
+         * 限流鍵參數（keySource 為 HEADER 時的請求頭名稱）
+         */
+        private String key = "";
+
+        /**
+         * 每個請求消耗的 token 數量
+         */
+        private long tokens = 1;
+
+        public List<String> getPaths() {
+            return paths;
+        }
+
+        public void setPaths(List<String> paths) {
+            this.paths = paths;
+        }
+
+        public List<String> getMethods() {
+            return methods;
+        }
+
+        public void setMethods(List<String> methods) {
+            this.methods = methods;
+        }
+
+        public RateLimitType getType() {
+            return type;
+        }
+
+        public void setType(RateLimitType type) {
+            this.type = type;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public RateLimitKeySource getKeySource() {
+            return keySource;
+        }
+
+        public void setKeySource(RateLimitKeySource keySource) {
+            this.keySource = keySource;
+        }
+
+        public String getKey() {
+            return key;
+        }
+
+        public void setKey(String key) {
+            this.key = key;
+        }
+
+        public long getTokens() {
+            return tokens;
+        }
+
+        public void setTokens(long tokens) {
+            this.tokens = tokens;
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package tw.com.ty.common.resilience.ratelimit.web;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.PathContainer;
+import org.springframework.web.filter.OncePerRequestFilter;
+import tw.com.ty.common.exception.ResilienceException;
+import tw.com.ty.common.resilience.ratelimit.RateLimitHeaders;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+/**
+ * Backend（Servlet）的 Filter 層級 Rate Limiter
+ *
+ * 符合規則的請求在進入 DispatcherServlet 前消耗 token，超限時直接寫出預先序列化的
+ * RATE_LIMIT_EXCEEDED 回應（429 與 Retry-After），不經過路由、參數解析與 GlobalExceptionHandler
+ * 放行時將消耗的限流器設為請求屬性，@RateLimited 方法不再從同一個 Bucket 消耗
+ */
+public class RateLimitServletFilter extends OncePerRequestFilter implements Ordered {
+
+    private static final Logger logger = LoggerFactory.getLogger(RateLimitServletFilter.class);
+
+    private final RequestRateLimiter requestRateLimiter;
+    private final int order;
+
+    public RateLimitServletFilter(RequestRateLimiter requestRateLimiter, int order) {
+        this.requestRateLimiter = requestRateLimiter;
+        this.order = order;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        RequestRateLimiter.Rule rule = requestRateLimiter.match(request.getMethod(), PathContainer.parsePath(path));
+        if (rule == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        RequestRateLimiter.Decision decision = requestRateLimiter.tryConsume(rule, request::getHeader, request.getRemoteAddr());
+        response.setHeader(RateLimitHeaders.LIMIT, String.valueOf(decision.limit()));
+        response.setHeader(RateLimitHeaders.REMAINING, String.valueOf(Math.max(0, decision.probe().getRemainingTokens())));
+        if (decision.isConsumed()) {
+            request.setAttribute(RequestRateLimiter.CHARGED_ATTRIBUTE, decision.rateLimiter());
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        logger.warn("{} {}: 請求頻率超過限制，於 Filter 拒絕", request.getMethod(), path);
+        byte[] body = requestRateLimiter.backendRejectionBody();
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(
+                ResilienceException.retryAfterSeconds(Duration.ofNanos(decision.probe().getNanosToWaitForRefill()))));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+
+    @Override
+    public int getOrder() {
+        return order;
+    }
+}
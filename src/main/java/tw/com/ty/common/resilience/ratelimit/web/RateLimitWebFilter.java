@@ -0,0 +1,83 @@
+package tw.com.ty.common.resilience.ratelimit.web;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.Ordered;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+import tw.com.ty.common.exception.ResilienceException;
+import tw.com.ty.common.resilience.ratelimit.RateLimitHeaders;
+
+import java.net.InetSocketAddress;
+import java.time.Duration;
+
+/**
+ * Gateway（WebFlux）的 Filter 層級 Rate Limiter
+ *
+ * 符合規則的請求在路由前以非同步方式消耗 token，不阻塞 event loop；超限時直接寫出預先序列化的
+ * RATE_LIMIT_EXCEEDED 回應（429 與 Retry-After），不轉發至下游服務
+ * 放行時將消耗的限流器設為 exchange 屬性並寫入 Reactor Context，@RateLimited 方法不再從同一個 Bucket 消耗
+ */
+public class RateLimitWebFilter implements WebFilter, Ordered {
+
+    private static final Logger logger = LoggerFactory.getLogger(RateLimitWebFilter.class);
+
+    private final RequestRateLimiter requestRateLimiter;
+    private final int order;
+
+    public RateLimitWebFilter(RequestRateLimiter requestRateLimiter, int order) {
+        this.requestRateLimiter = requestRateLimiter;
+        this.order = order;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        RequestRateLimiter.Rule rule = requestRateLimiter.match(request.getMethod().name(),
+                request.getPath().pathWithinApplication());
+        if (rule == null) {
+            return chain.filter(exchange);
+        }
+
+        InetSocketAddress remoteAddress = request.getRemoteAddress();
+        String remoteHost = remoteAddress != null && remoteAddress.getAddress() != null
+                ? remoteAddress.getAddress().getHostAddress()
+                : null;
+        HttpHeaders requestHeaders = request.getHeaders();
+        return Mono.fromFuture(() -> requestRateLimiter.tryConsumeAsync(rule, requestHeaders::getFirst, remoteHost))
+                .flatMap(decision -> {
+                    ServerHttpResponse response = exchange.getResponse();
+                    HttpHeaders headers = response.getHeaders();
+                    headers.set(RateLimitHeaders.LIMIT, String.valueOf(decision.limit()));
+                    headers.set(RateLimitHeaders.REMAINING, String.valueOf(Math.max(0, decision.probe().getRemainingTokens())));
+                    if (decision.isConsumed()) {
+                        exchange.getAttributes().put(RequestRateLimiter.CHARGED_ATTRIBUTE, decision.rateLimiter());
+                        return chain.filter(exchange)
+                                .contextWrite(context -> context.put(RequestRateLimiter.CHARGED_ATTRIBUTE, decision.rateLimiter()));
+                    }
+
+                    logger.warn("{} {}: 請求頻率超過限制，於 WebFilter 拒絕", request.getMethod(), request.getPath());
+                    byte[] body = requestRateLimiter.gatewayRejectionBody();
+                    response.setStatusCode(HttpStatus.TOO_MANY_REQUESTS);
+                    headers.set(HttpHeaders.RETRY_AFTER, String.valueOf(
+                            ResilienceException.retryAfterSeconds(Duration.ofNanos(decision.probe().getNanosToWaitForRefill()))));
+                    headers.setContentType(MediaType.APPLICATION_JSON);
+                    headers.setContentLength(body.length);
+                    DataBuffer buffer = response.bufferFactory().wrap(body);
+                    return response.writeWith(Mono.just(buffer));
+                });
+    }
+
+    @Override
+    public int getOrder() {
+        return order;
+    }
+}
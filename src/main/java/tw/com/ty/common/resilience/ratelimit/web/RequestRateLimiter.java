@@ -0,0 +1,293 @@
+package tw.com.ty.common.resilience.ratelimit.web;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.bucket4j.BucketConfiguration;
+import io.github.bucket4j.ConsumptionProbe;
+import org.springframework.http.server.PathContainer;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+import reactor.util.context.ContextView;
+import tw.com.ty.common.resilience.annotation.RateLimitKeySource;
+import tw.com.ty.common.resilience.annotation.RateLimitType;
+import tw.com.ty.common.resilience.ratelimit.BucketRegistry;
+import tw.com.ty.common.resilience.ratelimit.NamedRateLimiterRegistry;
+import tw.com.ty.common.resilience.ratelimit.RateLimitDefinition;
+import tw.com.ty.common.resilience.ratelimit.RateLimitHeaders;
+import tw.com.ty.common.resilience.ratelimit.RateLimitKeyResolver;
+import tw.com.ty.common.resilience.ratelimit.RateLimiter;
+import tw.com.ty.common.resilience.ratelimit.RateLimiterFactory;
+import tw.com.ty.common.response.BackendApiResponse;
+import tw.com.ty.common.response.BaseApiResponse;
+import tw.com.ty.common.response.ErrorCode;
+import tw.com.ty.common.response.GatewayResponse;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * 依路徑規則限流的請求層級 Rate Limiter，供 {@link RateLimitServletFilter} 與 {@link RateLimitWebFilter} 共用
+ *
+ * <p>在路由、參數解析與請求本文反序列化之前拒絕請求。Bucket 與 {@code RateLimiterAspect} 共用：</p>
+ * <ul>
+ *   <li>type 規則：全域使用 RateLimiterConfiguration 的 commonApiLimiter / commonBatchApiLimiter（與切面為同一個實例），
+ *       各限流鍵以相同的鍵（如 "API:ip:10.0.0.1"）從 rateLimitBucketRegistry 取得</li>
+ *   <li>name 規則：使用具名限流器（rate-limiter.limits.&lt;name&gt;），隨配置重新載入</li>
+ * </ul>
+ *
+ * <p>放行的請求以 {@link #CHARGED_ATTRIBUTE} 記錄已消耗的限流器（Servlet 為請求屬性，WebFlux 為 Reactor Context），
+ * 路由至同一個 Bucket 的 {@code @RateLimited} 方法不重複消耗。</p>
+ *
+ * <p>拒絕回應的本文於啟動時序列化一次（不含 timestamp），拒絕路徑不再配置回應物件或呼叫 Jackson。
+ * 規則設定無效（未知的具名限流器、ADAPTIVE、ARGUMENT 限流鍵、tokens 超過容量）時啟動失敗。</p>
+ */
+public class RequestRateLimiter {
+
+    /**
+     * 已由 Filter 消耗 token 的 {@link RateLimiter}（請求屬性與 Reactor Context 的鍵）
+     */
+    public static final String CHARGED_ATTRIBUTE = RequestRateLimiter.class.getName() + ".CHARGED";
+
+    private final List<Rule> rules;
+    private final RateLimiter apiRateLimiter;
+    private final RateLimiter batchApiRateLimiter;
+    private final BucketConfiguration apiConfiguration;
+    private final BucketConfiguration batchConfiguration;
+    private final BucketRegistry<RateLimiter> bucketRegistry;
+    private final NamedRateLimiterRegistry namedRegistry;
+    private final RateLimiterFactory rateLimiterFactory;
+    private final RateLimitKeyResolver keyResolver;
+    private final byte[] backendRejectionBody;
+    private final byte[] gatewayRejectionBody;
+
+    public RequestRateLimiter(RateLimitFilterProperties properties,
+                              RateLimiter apiRateLimiter,
+                              RateLimiter batchApiRateLimiter,
+                              BucketConfiguration apiConfiguration,
+                              BucketConfiguration batchConfiguration,
+                              BucketRegistry<RateLimiter> bucketRegistry,
+                              NamedRateLimiterRegistry namedRegistry,
+                              RateLimiterFactory rateLimiterFactory,
+                              RateLimitKeyResolver keyResolver,
+                              ObjectMapper objectMapper) {
+        this.apiRateLimiter = apiRateLimiter;
+        this.batchApiRateLimiter = batchApiRateLimiter;
+        this.apiConfiguration = apiConfiguration;
+        this.batchConfiguration = batchConfiguration;
+        this.bucketRegistry = bucketRegistry;
+        this.namedRegistry = namedRegistry;
+        this.rateLimiterFactory = rateLimiterFactory;
+        this.keyResolver = keyResolver;
+        this.rules = compile(properties.getRules());
+        this.backendRejectionBody = serialize(objectMapper,
+                BackendApiResponse.error(ErrorCode.RATE_LIMIT_EXCEEDED, ErrorCode.RATE_LIMIT_EXCEEDED.getErrorCode()));
+        this.gatewayRejectionBody = serialize(objectMapper,
+                GatewayResponse.error(ErrorCode.RATE_LIMIT_EXCEEDED.getCode(), ErrorCode.RATE_LIMIT_EXCEEDED.getMessage()));
+    }
+
+    /**
+     * 編譯後的限流規則
+     */
+    public static final class Rule {
+
+        private final List<PathPattern> patterns;
+        private final Set<String> methods;
+        private final RateLimitType type;
+        private final RateLimitDefinition definition;
+        private final RateLimitKeySource keySource;
+        private final String keyParameter;
+        private final long tokens;
+
+        private Rule(List<PathPattern> patterns, Set<String> methods, RateLimitType type,
+                     RateLimitDefinition definition, RateLimitKeySource keySource, String keyParameter, long tokens) {
+            this.patterns = patterns;
+            this.methods = methods;
+            this.type = type;
+            this.definition = definition;
+            this.keySource = keySource;
+            this.keyParameter = keyParameter;
+            this.tokens = tokens;
+        }
+
+        private boolean matches(String method, PathContainer path) {
+            if (!methods.isEmpty() && !methods.contains(method)) {
+                return false;
+            }
+            for (PathPattern pattern : patterns) {
+                if (pattern.matches(path)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * 消耗結果
+     *
+     * @param probe 消耗結果
+     * @param limit 對應 Bucket 的容量
+     * @param rateLimiter 消耗 token 的限流器
+     */
+    public record Decision(ConsumptionProbe probe, long limit, RateLimiter rateLimiter) {
+
+        public boolean isConsumed() {
+            return probe.isConsumed();
+        }
+    }
+
+    /**
+     * 取得第一個符合請求的規則
+     *
+     * @param method HTTP 方法
+     * @param path 應用程式內的路徑（不含 context path）
+     * @return 符合的規則，沒有時為 null
+     */
+    public Rule match(String method, PathContainer path) {
+        for (Rule rule : rules) {
+            if (rule.matches(method, path)) {
+                return rule;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 依規則消耗 token
+     *
+     * @param rule 符合的規則
+     * @param headers 依名稱取得請求頭的函式
+     * @param remoteAddress 連線來源位址
+     * @return 消耗結果
+     */
+    public Decision tryConsume(Rule rule, Function<String, String> headers, String remoteAddress) {
+        RateLimiter rateLimiter = resolveRateLimiter(rule, headers, remoteAddress);
+        return new Decision(rateLimiter.tryConsumeAndReturnRemaining(rule.tokens), limitOf(rule), rateLimiter);
+    }
+
+    /**
+     * 依規則非同步消耗 token，不阻塞呼叫執行緒（event loop）
+     *
+     * @param rule 符合的規則
+     * @param headers 依名稱取得請求頭的函式
+     * @param remoteAddress 連線來源位址
+     * @return 消耗結果
+     */
+    public CompletableFuture<Decision> tryConsumeAsync(Rule rule, Function<String, String> headers, String remoteAddress) {
+        RateLimiter rateLimiter = resolveRateLimiter(rule, headers, remoteAddress);
+        long limit = limitOf(rule);
+        return rateLimiter.tryConsumeAndReturnRemainingAsync(rule.tokens).thenApply(probe -> new Decision(probe, limit, rateLimiter));
+    }
+
+    /**
+     * 目前（Servlet）請求已由 Filter 消耗 token 的限流器
+     *
+     * @return 限流器，請求未經 Filter 限流或不在請求執行緒上時為 null
+     */
+    public static RateLimiter chargedLimiter() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        return attributes != null
+                ? (RateLimiter) attributes.getAttribute(CHARGED_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST)
+                : null;
+    }
+
+    /**
+     * WebFlux 請求已由 Filter 消耗 token 的限流器
+     *
+     * @param context 訂閱的 Reactor Context
+     * @return 限流器，請求未經 Filter 限流時為 null
+     */
+    public static RateLimiter chargedLimiter(ContextView context) {
+        return context.getOrDefault(CHARGED_ATTRIBUTE, null);
+    }
+
+    /**
+     * Backend（BackendApiResponse 格式）拒絕回應本文
+     */
+    public byte[] backendRejectionBody() {
+        return backendRejectionBody;
+    }
+
+    /**
+     * Gateway（GatewayResponse 格式）拒絕回應本文
+     */
+    public byte[] gatewayRejectionBody() {
+        return gatewayRejectionBody;
+    }
+
+    private RateLimiter resolveRateLimiter(Rule rule, Function<String, String> headers, String remoteAddress) {
+        if (rule.definition != null) {
+            if (rule.keySource == RateLimitKeySource.GLOBAL) {
+                return namedRegistry.global(rule.definition.getName());
+            }
+            String key = namedRegistry.bucketKey(rule.definition.getName(),
+                    keyResolver.resolve(rule.keySource, rule.keyParameter, headers, remoteAddress));
+            return bucketRegistry.getOrCreate(key, k -> namedRegistry.create(k, rule.definition));
+        }
+        boolean batch = rule.type == RateLimitType.BATCH;
+        if (rule.keySource == RateLimitKeySource.GLOBAL) {
+            return batch ? batchApiRateLimiter : apiRateLimiter;
+        }
+        String key = keyResolver.resolve(rule.keySource, rule.keyParameter, headers, remoteAddress);
+        BucketConfiguration configuration = batch ? batchConfiguration : apiConfiguration;
+        return bucketRegistry.getOrCreate(rule.type.name() + ':' + key,
+                k -> rateLimiterFactory.create(k, configuration));
+    }
+
+    private long limitOf(Rule rule) {
+        if (rule.definition != null) {
+            return rule.definition.getLimit();
+        }
+        return RateLimitHeaders.limitOf(rule.type == RateLimitType.BATCH ? batchConfiguration : apiConfiguration);
+    }
+
+    private List<Rule> compile(List<RateLimitFilterProperties.Rule> properties) {
+        List<Rule> compiled = new ArrayList<>();
+        for (int i = 0; i < properties.size(); i++) {
+            RateLimitFilterProperties.Rule rule = properties.get(i);
+            String location = "rate-limiter.filter.rules[" + i + "]";
+            if (rule.getPaths() == null || rule.getPaths().isEmpty()) {
+                throw new IllegalStateException(location + ".paths 未設定");
+            }
+            if (rule.getKeySource() == RateLimitKeySource.ARGUMENT) {
+                throw new IllegalStateException(location + ".key-source 不支援 ARGUMENT");
+            }
+            boolean named = rule.getName() != null && !rule.getName().isEmpty();
+            if (!named && rule.getType() == RateLimitType.ADAPTIVE) {
+                throw new IllegalStateException(location + ".type 不支援 ADAPTIVE");
+            }
+            List<PathPattern> patterns = rule.getPaths().stream()
+                    .map(PathPatternParser.defaultInstance::parse)
+                    .toList();
+            Set<String> methods = rule.getMethods() == null ? Set.of() : rule.getMethods().stream()
+                    .map(method -> method.trim().toUpperCase(Locale.ROOT))
+                    .collect(Collectors.toUnmodifiableSet());
+            Rule compiledRule = new Rule(patterns, methods, rule.getType(),
+                    named ? namedRegistry.definition(rule.getName()) : null,
+                    rule.getKeySource(), rule.getKey() != null ? rule.getKey() : "",
+                    Math.max(1, rule.getTokens()));
+            if (compiledRule.tokens > limitOf(compiledRule)) {
+                throw new IllegalStateException(location + ".tokens 超過限流器容量 " + limitOf(compiledRule));
+            }
+            compiled.add(compiledRule);
+        }
+        return List.copyOf(compiled);
+    }
+
+    private static byte[] serialize(ObjectMapper objectMapper, BaseApiResponse<?> response) {
+        // 預先序列化的本文不帶有意義的時間戳記
+        response.setTimestamp(null);
+        try {
+            return objectMapper.writeValueAsBytes(response);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("無法序列化 Rate Limit 拒絕回應", e);
+        }
+    }
+}
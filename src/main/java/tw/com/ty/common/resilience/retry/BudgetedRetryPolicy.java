@@ -0,0 +1,69 @@
+package tw.com.ty.common.resilience.retry;
+
+import org.springframework.retry.RetryContext;
+import org.springframework.retry.RetryPolicy;
+
+/**
+ * 受全域重試預算約束的重試策略
+ *
+ * 包裝原有重試策略，開始執行時記錄一次呼叫，每次重試前再從 {@link RetryBudget} 取得額度；
+ * 預算不足時停止重試，RetryTemplate 回傳最後的失敗
+ */
+public class BudgetedRetryPolicy implements RetryPolicy {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 已取得預算的重試序號，RetryTemplate 每次重試前會呼叫 canRetry 兩次，同一次重試只取一次額度
+     */
+    private static final String GRANTED_RETRY = BudgetedRetryPolicy.class.getName() + ".grantedRetry";
+
+    private final RetryPolicy delegate;
+    private final transient RetryBudget budget;
+
+    /**
+     * @param delegate 原有重試策略
+     * @param budget 全域重試預算
+     */
+    public BudgetedRetryPolicy(RetryPolicy delegate, RetryBudget budget) {
+        this.delegate = delegate;
+        this.budget = budget;
+    }
+
+    @Override
+    public boolean canRetry(RetryContext context) {
+        if (!delegate.canRetry(context)) {
+            return false;
+        }
+        int retry = context.getRetryCount();
+        if (retry == 0 || Integer.valueOf(retry).equals(context.getAttribute(GRANTED_RETRY))) {
+            return true;
+        }
+        if (!budget.tryAcquireRetry()) {
+            return false;
+        }
+        context.setAttribute(GRANTED_RETRY, retry);
+        return true;
+    }
+
+    @Override
+    public RetryContext open(RetryContext parent) {
+        budget.recordCall();
+        return delegate.open(parent);
+    }
+
+    @Override
+    public void close(RetryContext context) {
+        delegate.close(context);
+    }
+
+    @Override
+    public void registerThrowable(RetryContext context, Throwable throwable) {
+        delegate.registerThrowable(context, throwable);
+    }
+
+    @Override
+    public int getMaxAttempts() {
+        return delegate.getMaxAttempts();
+    }
+}
@@ -0,0 +1,77 @@
+package tw.com.ty.common.resilience.retry;
+
+import tw.com.ty.common.resilience.annotation.JitterStrategy;
+
+import java.util.Locale;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 帶隨機抖動的指數退避計算
+ *
+ * <p>未抖動的等待時間與 spring-retry 的 ExponentialBackOffPolicy 相同：
+ * 第 n 次重試前 min(maxDelay, initialDelay × multiplier^(n-1))，再依 {@link JitterStrategy} 隨機化。
+ * 不可變且不配置物件，可在多個執行緒間共用；去相關抖動需要的上一次等待時間由呼叫端保存。</p>
+ */
+public final class ExponentialBackOff {
+
+    private final long initialDelayMillis;
+    private final long maxDelayMillis;
+    private final double multiplier;
+    private final JitterStrategy jitter;
+
+    /**
+     * @param initialDelayMillis 初始等待時間（毫秒）
+     * @param maxDelayMillis 最大等待時間（毫秒）
+     * @param multiplier 延遲倍數
+     * @param jitter 抖動策略，不可為 {@link JitterStrategy#DEFAULT}
+     */
+    public ExponentialBackOff(long initialDelayMillis, long maxDelayMillis, double multiplier, JitterStrategy jitter) {
+        if (jitter == JitterStrategy.DEFAULT) {
+            throw new IllegalArgumentException("jitter must be resolved before use");
+        }
+        this.initialDelayMillis = Math.max(1, initialDelayMillis);
+        this.maxDelayMillis = Math.max(1, maxDelayMillis);
+        this.multiplier = Math.max(1.0, multiplier);
+        this.jitter = jitter;
+    }
+
+    /**
+     * 第 retry 次重試（從 1 開始）前的等待時間
+     *
+     * @param retry 重試序號
+     * @param previousDelayMillis 上一次的等待時間，第一次重試傳入 0
+     * @return 等待時間（毫秒）
+     */
+    public long delayMillis(int retry, long previousDelayMillis) {
+        double exponential = initialDelayMillis * Math.pow(multiplier, retry - 1);
+        long delay = exponential >= maxDelayMillis ? maxDelayMillis : (long) exponential;
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return switch (jitter) {
+            case FULL -> random.nextLong(delay + 1);
+            case EQUAL -> delay / 2 + random.nextLong(delay - delay / 2 + 1);
+            case DECORRELATED -> {
+                long base = Math.max(previousDelayMillis, initialDelayMillis);
+                long upper = Math.max(initialDelayMillis, base > maxDelayMillis / 3 ? maxDelayMillis : base * 3);
+                yield Math.min(maxDelayMillis, random.nextLong(initialDelayMillis, upper + 1));
+            }
+            default -> delay;
+        };
+    }
+
+    public JitterStrategy getJitter() {
+        return jitter;
+    }
+
+    /**
+     * 解析 retry.jitter 屬性
+     *
+     * @throws IllegalArgumentException 未知的策略或 DEFAULT
+     */
+    public static JitterStrategy parseJitter(String value) {
+        JitterStrategy strategy = JitterStrategy.valueOf(value.trim().toUpperCase(Locale.ROOT));
+        if (strategy == JitterStrategy.DEFAULT) {
+            throw new IllegalArgumentException("retry.jitter must be one of NONE, FULL, EQUAL, DECORRELATED");
+        }
+        return strategy;
+    }
+}
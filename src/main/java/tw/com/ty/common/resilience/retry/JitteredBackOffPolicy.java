@@ -0,0 +1,49 @@
+package tw.com.ty.common.resilience.retry;
+
+import org.springframework.retry.RetryContext;
+import org.springframework.retry.backoff.BackOffContext;
+import org.springframework.retry.backoff.BackOffInterruptedException;
+import org.springframework.retry.backoff.BackOffPolicy;
+
+/**
+ * 帶隨機抖動的指數退避策略，供 RetryTemplate 使用
+ *
+ * 等待時間由 {@link ExponentialBackOff} 計算，與 RetryAspect 使用相同的抖動策略
+ */
+public class JitteredBackOffPolicy implements BackOffPolicy {
+
+    private final ExponentialBackOff backOff;
+
+    public JitteredBackOffPolicy(ExponentialBackOff backOff) {
+        this.backOff = backOff;
+    }
+
+    @Override
+    public BackOffContext start(RetryContext context) {
+        return new JitterContext();
+    }
+
+    @Override
+    public void backOff(BackOffContext backOffContext) throws BackOffInterruptedException {
+        JitterContext context = (JitterContext) backOffContext;
+        context.retry++;
+        context.previousDelayMillis = backOff.delayMillis(context.retry, context.previousDelayMillis);
+        try {
+            Thread.sleep(context.previousDelayMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BackOffInterruptedException("Thread interrupted while sleeping", e);
+        }
+    }
+
+    /**
+     * 單次執行的退避狀態
+     */
+    private static final class JitterContext implements BackOffContext {
+
+        private static final long serialVersionUID = 1L;
+
+        private int retry;
+        private long previousDelayMillis;
+    }
+}
@@ -0,0 +1,75 @@
+package tw.com.ty.common.resilience.retry;
+
+import org.springframework.retry.ExhaustedRetryException;
+import org.springframework.retry.RecoveryCallback;
+import org.springframework.retry.RetryCallback;
+import org.springframework.retry.RetryContext;
+import org.springframework.retry.RetryState;
+import org.springframework.retry.support.RetryTemplate;
+import tw.com.ty.common.exception.ResilienceException;
+import tw.com.ty.common.resilience.ratelimit.OutboundPermit;
+import tw.com.ty.common.resilience.ratelimit.RateLimiter;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 受客戶端限流約束的 RetryTemplate
+ *
+ * 每次嘗試（包含第一次）執行前從外部服務的 Rate Limiter 取得一個 token，
+ * 使 RetryTemplate 的呼叫與 @RateLimited(outbound = true) 的呼叫共用同一份配額；
+ * 嘗試中呼叫同一個 Rate Limiter 的 outbound 方法時沿用該 token（{@link OutboundPermit}），不重複計費。
+ * 在等待上限內取不到 token 時拋出 RATE_LIMIT_EXCEEDED，不再重試
+ */
+public class RateLimitedRetryTemplate extends RetryTemplate {
+
+    private final String target;
+    private final RateLimiter rateLimiter;
+    private final long maxWaitNanos;
+
+    /**
+     * @param target 外部服務的限流器名稱
+     * @param rateLimiter 外部服務對應的客戶端 Rate Limiter
+     * @param maxWaitMillis 取得 token 的最長等待時間（毫秒）
+     */
+    public RateLimitedRetryTemplate(String target, RateLimiter rateLimiter, long maxWaitMillis) {
+        this.target = target;
+        this.rateLimiter = rateLimiter;
+        this.maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(maxWaitMillis);
+    }
+
+    @Override
+    protected <T, E extends Throwable> T doExecute(RetryCallback<T, E> retryCallback,
+                                                   RecoveryCallback<T> recoveryCallback,
+                                                   RetryState state) throws E, ExhaustedRetryException {
+        return super.doExecute(new RetryCallback<T, E>() {
+            @Override
+            public T doWithRetry(RetryContext context) throws E {
+                acquire();
+                RateLimiter previous = OutboundPermit.hold(rateLimiter);
+                try {
+                    return retryCallback.doWithRetry(context);
+                } finally {
+                    OutboundPermit.restore(previous);
+                }
+            }
+
+            @Override
+            public String getLabel() {
+                return retryCallback.getLabel();
+            }
+        }, recoveryCallback, state);
+    }
+
+    private void acquire() {
+        boolean consumed;
+        try {
+            consumed = rateLimiter.tryConsume(1, maxWaitNanos);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            consumed = false;
+        }
+        if (!consumed) {
+            throw ResilienceException.outboundRateLimitExceeded(target);
+        }
+    }
+}
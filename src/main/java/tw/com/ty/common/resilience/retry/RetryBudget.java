@@ -0,0 +1,122 @@
+package tw.com.ty.common.resilience.retry;
+
+import tw.com.ty.common.resilience.ratelimit.GcraRateLimiter;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 全域重試預算
+ *
+ * <p>以 token bucket 限制重試總量，避免下游短暫故障時所有節點同時重試、將負載放大 maxAttempts 倍：</p>
+ * <ul>
+ *   <li>每次呼叫（第一次嘗試）存入 ratio 個 token，上限 maxTokens</li>
+ *   <li>每次重試取出 1 個 token，不足時不再重試，直接回傳最後的失敗</li>
+ *   <li>另保留每秒 minRetriesPerSecond 次的最低重試量，流量很低的服務仍可重試</li>
+ * </ul>
+ *
+ * <p>長期而言重試量不超過呼叫量 × ratio + minRetriesPerSecond。RetryAspect 與 RetryConfiguration 的
+ * RetryTemplate 共用同一個實例。存入與取出皆為無鎖操作，不配置物件。</p>
+ */
+public class RetryBudget {
+
+    private static final long SCALE = 1000;
+
+    private final boolean unlimited;
+    private final long depositPerCall;
+    private final long capacity;
+    private final AtomicLong balance;
+    private final GcraRateLimiter minimumRetries;
+    private final LongAdder denied = new LongAdder();
+
+    /**
+     * @param ratio 每次呼叫可換得的重試次數（如 0.2 表示重試量最多為呼叫量的 20%）
+     * @param maxTokens 可累積的重試次數上限，亦為初始值
+     * @param minRetriesPerSecond 不受 ratio 限制的每秒最低重試次數，0 表示不保留
+     */
+    public RetryBudget(double ratio, long maxTokens, long minRetriesPerSecond) {
+        if (ratio < 0 || maxTokens < 0 || minRetriesPerSecond < 0) {
+            throw new IllegalArgumentException("ratio, maxTokens and minRetriesPerSecond must not be negative");
+        }
+        this.unlimited = false;
+        this.depositPerCall = Math.round(ratio * SCALE);
+        this.capacity = Math.multiplyExact(maxTokens, SCALE);
+        this.balance = new AtomicLong(capacity);
+        this.minimumRetries = minRetriesPerSecond > 0
+                ? new GcraRateLimiter(minRetriesPerSecond, minRetriesPerSecond, TimeUnit.SECONDS.toNanos(1), null)
+                : null;
+    }
+
+    private RetryBudget() {
+        this.unlimited = true;
+        this.depositPerCall = 0;
+        this.capacity = 0;
+        this.balance = new AtomicLong();
+        this.minimumRetries = null;
+    }
+
+    /**
+     * 不限制重試量的預算（retry.budget.enabled=false）
+     */
+    public static RetryBudget unlimited() {
+        return new RetryBudget();
+    }
+
+    /**
+     * 記錄一次呼叫（第一次嘗試），存入 ratio 個 token
+     */
+    public void recordCall() {
+        if (unlimited || depositPerCall == 0) {
+            return;
+        }
+        while (true) {
+            long current = balance.get();
+            if (current >= capacity) {
+                return;
+            }
+            if (balance.compareAndSet(current, Math.min(capacity, current + depositPerCall))) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * 取得一次重試的額度
+     *
+     * @return 預算足夠時回傳 true
+     */
+    public boolean tryAcquireRetry() {
+        if (unlimited) {
+            return true;
+        }
+        while (true) {
+            long current = balance.get();
+            if (current < SCALE) {
+                break;
+            }
+            if (balance.compareAndSet(current, current - SCALE)) {
+                return true;
+            }
+        }
+        if (minimumRetries != null && minimumRetries.tryConsume(1)) {
+            return true;
+        }
+        denied.increment();
+        return false;
+    }
+
+    /**
+     * 目前可用的重試次數（不含每秒最低重試量）
+     */
+    public double getAvailableRetries() {
+        return unlimited ? Double.POSITIVE_INFINITY : (double) balance.get() / SCALE;
+    }
+
+    /**
+     * 因預算不足而放棄的重試次數
+     */
+    public long getDeniedCount() {
+        return denied.sum();
+    }
+}
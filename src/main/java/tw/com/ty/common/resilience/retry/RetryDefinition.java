@@ -0,0 +1,78 @@
+package tw.com.ty.common.resilience.retry;
+
+import tw.com.ty.common.exception.ResilienceException;
+import tw.com.ty.common.resilience.annotation.JitterStrategy;
+import tw.com.ty.common.resilience.annotation.Retryable;
+import tw.com.ty.common.resilience.support.ExceptionClassifier;
+import tw.com.ty.common.response.ErrorCode;
+
+/**
+ * 由 {@link Retryable} 註解解析出的重試定義
+ *
+ * <p>每個方法解析一次後快取，呼叫時只讀取欄位：可重試異常依異常類別快取判斷結果，計算退避時間不配置物件。
+ * 退避時間由 {@link ExponentialBackOff} 計算，註解未指定抖動策略時使用 retry.jitter。</p>
+ */
+public final class RetryDefinition {
+
+    @SuppressWarnings("unchecked")
+    private static final Class<? extends Throwable>[] NONE = (Class<? extends Throwable>[]) new Class<?>[0];
+
+    private final String name;
+    private final int maxAttempts;
+    private final ExceptionClassifier retryOn;
+    private final ExponentialBackOff backOff;
+
+    private RetryDefinition(String name, Retryable retryable, JitterStrategy defaultJitter) {
+        this.name = name;
+        this.maxAttempts = Math.max(1, retryable.maxAttempts());
+        this.retryOn = new ExceptionClassifier(retryable.value(), NONE);
+        this.backOff = new ExponentialBackOff(retryable.initialDelay(), retryable.maxDelay(), retryable.multiplier(),
+                retryable.jitter() == JitterStrategy.DEFAULT ? defaultJitter : retryable.jitter());
+    }
+
+    /**
+     * 解析註解
+     *
+     * @param name 記錄日誌用的方法名稱
+     * @param retryable 重試註解
+     * @param defaultJitter 註解未指定時使用的抖動策略
+     * @return RetryDefinition 實例
+     */
+    public static RetryDefinition of(String name, Retryable retryable, JitterStrategy defaultJitter) {
+        return new RetryDefinition(name, retryable, defaultJitter);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * 最大嘗試次數（包含第一次呼叫）
+     */
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    /**
+     * 異常是否屬於註解指定的可重試類型
+     * 熔斷器開啟的異常一律不重試：熔斷期間重試只會再次被拒絕並消耗重試預算
+     */
+    public boolean isRetryable(Throwable throwable) {
+        if (throwable instanceof ResilienceException resilienceException
+                && resilienceException.getErrorCode() == ErrorCode.CIRCUIT_BREAKER_OPEN) {
+            return false;
+        }
+        return retryOn.matches(throwable);
+    }
+
+    /**
+     * 第 retry 次重試（從 1 開始）前的退避時間
+     *
+     * @param retry 重試序號
+     * @param previousDelayMillis 上一次的退避時間，第一次重試傳入 0
+     * @return 退避時間（毫秒）
+     */
+    public long backOffMillis(int retry, long previousDelayMillis) {
+        return backOff.delayMillis(retry, previousDelayMillis);
+    }
+}
@@ -0,0 +1,144 @@
+package tw.com.ty.common.resilience.shedding;
+
+import tw.com.ty.common.resilience.annotation.RequestPriority;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 依優先級卸載負載的准入控制器
+ *
+ * <p>以三個飽和訊號計算系統飽和度（1.0 表示達到目標上限），取最大值：</p>
+ * <ul>
+ *   <li>處理中請求數 / maxInFlight</li>
+ *   <li>完成請求延遲的指數移動平均 / targetLatency（排隊延遲會直接反映在延遲上）</li>
+ *   <li>CPU 使用率 / cpuThreshold（由排程器定期取樣，不在請求路徑上查詢）</li>
+ * </ul>
+ *
+ * <p>每個優先級有各自的卸載門檻，飽和度超過門檻後，拒絕機率在 rampWidth 範圍內由 0 線性升至 1，
+ * 避免在門檻附近全開全關造成震盪。CRITICAL 不卸載。</p>
+ *
+ * <p>延遲訊號只在請求完成時更新，全部卸載後便不再變化。因此即使完全飽和仍准入 probeRatio 比例的探測請求，
+ * 以其延遲更新平均；取樣期間沒有任何請求完成時，延遲平均依時間衰減，訊號不會停在飽和值。</p>
+ */
+public class PriorityLoadShedder {
+
+    private static final double LATENCY_SMOOTHING = 0.05;
+
+    /**
+     * 取樣期間沒有請求完成時，延遲平均每次取樣保留的比例
+     */
+    private static final double IDLE_LATENCY_DECAY = 0.5;
+
+    /**
+     * 負載卸載設定
+     *
+     * @param maxInFlight 視為飽和的處理中請求數
+     * @param targetLatencyNanos 視為飽和的平均延遲（奈秒）
+     * @param cpuThreshold 視為飽和的 CPU 使用率（0~1）
+     * @param interactiveThreshold INTERACTIVE 開始卸載的飽和度
+     * @param batchThreshold BATCH 開始卸載的飽和度
+     * @param bestEffortThreshold BEST_EFFORT 開始卸載的飽和度
+     * @param rampWidth 飽和度超過門檻多少時全部卸載
+     * @param probeRatio 應卸載時仍准入的探測請求比例（0~1）
+     */
+    public record Settings(int maxInFlight, long targetLatencyNanos, double cpuThreshold,
+                           double interactiveThreshold, double batchThreshold, double bestEffortThreshold,
+                           double rampWidth, double probeRatio) {
+    }
+
+    private final Settings settings;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final OperatingSystemMXBean operatingSystem = ManagementFactory.getOperatingSystemMXBean();
+
+    // 延遲平均容許競爭下遺失少量更新，不影響趨勢
+    private volatile double latencyNanos;
+    private volatile double cpuLoad;
+    private volatile long lastRecordedNanos;
+    // 只由取樣執行緒存取
+    private long lastSampleNanos;
+
+    public PriorityLoadShedder(Settings settings) {
+        this.settings = settings;
+        this.lastRecordedNanos = System.nanoTime();
+        this.lastSampleNanos = lastRecordedNanos;
+    }
+
+    /**
+     * 嘗試准入請求
+     *
+     * @param priority 請求優先級（不可為 DEFAULT）
+     * @return 是否准入；准入時呼叫端必須在完成後呼叫 {@link #release}
+     */
+    public boolean tryAcquire(RequestPriority priority) {
+        if (priority != RequestPriority.CRITICAL) {
+            double excess = saturation() - threshold(priority);
+            if (excess > 0) {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                boolean shed = excess >= settings.rampWidth() || random.nextDouble() * settings.rampWidth() < excess;
+                if (shed && random.nextDouble() >= settings.probeRatio()) {
+                    return false;
+                }
+            }
+        }
+        inFlight.incrementAndGet();
+        return true;
+    }
+
+    /**
+     * 釋放准入名額並記錄延遲
+     *
+     * @param latencyNanos 請求耗時（奈秒）；小於 0 表示不記錄（如取消或被其他限流拒絕）
+     */
+    public void release(long latencyNanos) {
+        inFlight.decrementAndGet();
+        if (latencyNanos >= 0) {
+            double current = this.latencyNanos;
+            this.latencyNanos = current == 0 ? latencyNanos
+                    : current * (1 - LATENCY_SMOOTHING) + latencyNanos * LATENCY_SMOOTHING;
+            this.lastRecordedNanos = System.nanoTime();
+        }
+    }
+
+    /**
+     * 取樣 CPU 使用率，並在上次取樣後沒有請求完成時衰減延遲平均；由排程器定期呼叫
+     */
+    public void sample() {
+        if (operatingSystem instanceof com.sun.management.OperatingSystemMXBean os) {
+            double load = os.getCpuLoad();
+            cpuLoad = load < 0 ? 0 : load;
+        }
+        long now = System.nanoTime();
+        if (lastRecordedNanos - lastSampleNanos < 0) {
+            latencyNanos = latencyNanos * IDLE_LATENCY_DECAY;
+        }
+        lastSampleNanos = now;
+    }
+
+    /**
+     * 目前的系統飽和度，1.0 表示任一訊號達到目標上限
+     */
+    public double saturation() {
+        double inFlightRatio = (double) inFlight.get() / settings.maxInFlight();
+        double latencyRatio = latencyNanos / settings.targetLatencyNanos();
+        double cpuRatio = cpuLoad / settings.cpuThreshold();
+        return Math.max(inFlightRatio, Math.max(latencyRatio, cpuRatio));
+    }
+
+    private double threshold(RequestPriority priority) {
+        return switch (priority) {
+            case BEST_EFFORT -> settings.bestEffortThreshold();
+            case BATCH -> settings.batchThreshold();
+            default -> settings.interactiveThreshold();
+        };
+    }
+
+    /**
+     * 目前處理中的請求數
+     */
+    public int getInFlight() {
+        return inFlight.get();
+    }
+}
@@ -0,0 +1,50 @@
+package tw.com.ty.common.resilience.support;
+
+/**
+ * 依異常類型分類的快取判斷器
+ *
+ * <p>判斷異常是否屬於指定的類型（如可重試、計入熔斷器統計）。每個異常類別第一次出現時走訪一次類型清單，
+ * 結果以 {@link ClassValue} 附加在該類別上，之後的判斷只是一次查表，故障期間大量相同的異常不再重複走訪繼承階層。
+ * 分類只看異常本身的類別，不看 cause；每個註解（或設定）建立一個實例後快取重用。</p>
+ */
+public final class ExceptionClassifier {
+
+    private final Class<? extends Throwable>[] included;
+    private final Class<? extends Throwable>[] excluded;
+    private final ClassValue<Boolean> cache = new ClassValue<>() {
+        @Override
+        protected Boolean computeValue(Class<?> type) {
+            return classify(type);
+        }
+    };
+
+    /**
+     * @param included 符合的異常類型（含子類別），空陣列表示不符合任何異常
+     * @param excluded 排除的異常類型（含子類別），優先於 included
+     */
+    public ExceptionClassifier(Class<? extends Throwable>[] included, Class<? extends Throwable>[] excluded) {
+        this.included = included.clone();
+        this.excluded = excluded.clone();
+    }
+
+    /**
+     * 異常是否符合分類
+     */
+    public boolean matches(Throwable throwable) {
+        return cache.get(throwable.getClass());
+    }
+
+    private boolean classify(Class<?> type) {
+        for (Class<? extends Throwable> candidate : excluded) {
+            if (candidate.isAssignableFrom(type)) {
+                return false;
+            }
+        }
+        for (Class<? extends Throwable> candidate : included) {
+            if (candidate.isAssignableFrom(type)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,104 @@
+package tw.com.ty.common.resilience.support;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.reflect.MethodSignature;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * 彈性切面的響應式支援工具
+ *
+ * <p>響應式方法（回傳 {@link Mono} / {@link Flux}）在呼叫時只組裝管線，實際工作發生在訂閱時。
+ * 切面需要將保護邏輯延後到訂閱時執行，並以錯誤訊號取代直接拋出異常。</p>
+ */
+public final class ReactiveSupport {
+
+    private ReactiveSupport() {
+        // 工具類不允許實例化
+    }
+
+    /**
+     * 取得切點方法的宣告回傳類型
+     */
+    public static Class<?> returnType(ProceedingJoinPoint joinPoint) {
+        if (joinPoint.getSignature() instanceof MethodSignature signature) {
+            return signature.getReturnType();
+        }
+        return Object.class;
+    }
+
+    /**
+     * 回傳類型是否為 Mono
+     */
+    public static boolean isMono(Class<?> returnType) {
+        return Mono.class.isAssignableFrom(returnType);
+    }
+
+    /**
+     * 回傳類型是否為 Flux
+     */
+    public static boolean isFlux(Class<?> returnType) {
+        return Flux.class.isAssignableFrom(returnType);
+    }
+
+    /**
+     * 回傳類型是否為 Mono 或 Flux
+     */
+    public static boolean isReactive(Class<?> returnType) {
+        return isMono(returnType) || isFlux(returnType);
+    }
+
+    /**
+     * 回傳類型是否宣告為 CompletionStage 或 CompletableFuture（切面可改以 CompletableFuture 回傳）
+     */
+    public static boolean isCompletionStage(Class<?> returnType) {
+        return CompletionStage.class.isAssignableFrom(returnType) && returnType.isAssignableFrom(CompletableFuture.class);
+    }
+
+    /**
+     * 取出 CompletionStage 失敗時包裝的原始異常
+     */
+    public static Throwable unwrapAsyncFailure(Throwable throwable) {
+        Throwable current = throwable;
+        while ((current instanceof CompletionException || current instanceof ExecutionException)
+                && current.getCause() != null) {
+            current = current.getCause();
+        }
+        return current;
+    }
+
+    /**
+     * 於訂閱時執行切點方法並取得其 Mono，方法拋出的異常轉為錯誤訊號
+     */
+    public static Mono<Object> proceedMono(ProceedingJoinPoint joinPoint) {
+        return Mono.defer(() -> {
+            try {
+                @SuppressWarnings("unchecked")
+                Mono<Object> result = (Mono<Object>) joinPoint.proceed();
+                return result != null ? result : Mono.empty();
+            } catch (Throwable e) {
+                return Mono.error(e);
+            }
+        });
+    }
+
+    /**
+     * 於訂閱時執行切點方法並取得其 Flux，方法拋出的異常轉為錯誤訊號
+     */
+    public static Flux<Object> proceedFlux(ProceedingJoinPoint joinPoint) {
+        return Flux.defer(() -> {
+            try {
+                @SuppressWarnings("unchecked")
+                Flux<Object> result = (Flux<Object>) joinPoint.proceed();
+                return result != null ? result : Flux.empty();
+            } catch (Throwable e) {
+                return Flux.error(e);
+            }
+        });
+    }
+}
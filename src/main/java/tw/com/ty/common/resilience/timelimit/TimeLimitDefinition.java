@@ -0,0 +1,36 @@
+package tw.com.ty.common.resilience.timelimit;
+
+import tw.com.ty.common.resilience.annotation.TimeLimited;
+
+import java.time.Duration;
+
+/**
+ * 由 {@link TimeLimited} 註解與配置解析出的逾時定義，每個方法解析一次後快取
+ */
+public final class TimeLimitDefinition {
+
+    private final String name;
+    private final Duration timeout;
+    private final boolean cancelRunning;
+
+    public TimeLimitDefinition(String name, Duration timeout, boolean cancelRunning) {
+        this.name = name;
+        this.timeout = timeout;
+        this.cancelRunning = cancelRunning;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Duration getTimeout() {
+        return timeout;
+    }
+
+    /**
+     * 逾時時是否中斷（取消）仍在執行的呼叫
+     */
+    public boolean isCancelRunning() {
+        return cancelRunning;
+    }
+}
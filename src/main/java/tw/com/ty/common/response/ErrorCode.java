@@ -415,6 +415,26 @@ public enum ErrorCode {
      */
     BULKHEAD_FULL(HttpStatus.TOO_MANY_REQUESTS, "RESIL_002", "系統並發處理繁忙，請稍後再試"),
     
+    /**
+     * 依賴服務暫時無法使用
+     * 
+     * 當依賴服務的失敗率或慢呼叫率過高時使用此錯誤碼。
+     * 通常發生在熔斷器開啟、暫停呼叫該依賴時。
+     * 
+     * @see HttpStatus#SERVICE_UNAVAILABLE
+     */
+    CIRCUIT_BREAKER_OPEN(HttpStatus.SERVICE_UNAVAILABLE, "RESIL_003", "依賴服務暫時無法使用，請稍後再試"),
+    
+    /**
+     * 單次請求超過限流配額上限
+     * 
+     * 當單次請求消耗的 token 數量超過 Rate Limiter 容量時使用此錯誤碼。
+     * 這類請求無論等待多久都無法放行，客戶端應分批處理而非重試。
+     * 
+     * @see HttpStatus#PAYLOAD_TOO_LARGE
+     */
+    RATE_LIMIT_COST_EXCEEDED(HttpStatus.PAYLOAD_TOO_LARGE, "RESIL_004", "單次請求超過配額上限，請分批處理"),
+    
     // ==================== 業務實體相關錯誤 ====================
     
     /**